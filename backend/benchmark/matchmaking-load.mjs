@@ -0,0 +1,188 @@
+// Matchmaking load test (chess.matchmaking.*).
+//
+// Registers throwaway players, then has them join the quick-match queue at a fixed
+// overall rate. Every player rejoins as soon as its game is created, so the queue
+// stays under steady load. Reports queue acknowledgement latency (join -> QUEUED)
+// and time to match (join -> game-created).
+//
+// Node 22+, no dependencies:
+//   ./mvnw spring-boot:run
+//   node benchmark/matchmaking-load.mjs --url http://localhost:8080 --players 2000 --rate 2000 --duration 30
+//
+// Fresh players all start at the same rating, so the pairing window never has to
+// widen; pass --time-controls to spread them over several queues.
+
+const args = Object.fromEntries(
+  process.argv.slice(2).reduce((acc, arg, i, all) => {
+    if (arg.startsWith('--')) acc.push([arg.slice(2), all[i + 1]]);
+    return acc;
+  }, [])
+);
+const baseUrl = args.url ?? 'http://localhost:8080';
+const playerCount = Number(args.players ?? 1000);
+const joinRate = Number(args.rate ?? 1000);
+const durationMs = Number(args.duration ?? 30) * 1000;
+const timeControls = (args['time-controls'] ?? '180+2,600+0')
+  .split(',')
+  .map((tc) => tc.split('+').map(Number))
+  .map(([initialSeconds, incrementSeconds]) => ({ initialSeconds, incrementSeconds }));
+const run = Date.now().toString(36);
+
+class StompClient {
+  constructor(username, token) {
+    this.username = username;
+    this.token = token;
+    this.handlers = new Map();
+    this.nextId = 0;
+    this.buffer = '';
+  }
+
+  connect() {
+    const wsUrl = baseUrl.replace(/^http/, 'ws') + '/ws/websocket';
+    return new Promise((resolve, reject) => {
+      this.ws = new WebSocket(wsUrl);
+      this.ws.onopen = () =>
+        this.send('CONNECT', {
+          'accept-version': '1.2',
+          host: 'localhost',
+          'heart-beat': '0,0',
+          Authorization: `Bearer ${this.token}`,
+        });
+      this.ws.onerror = (e) => reject(new Error(`${this.username}: ${e.message ?? 'socket error'}`));
+      this.ws.onmessage = (event) => {
+        this.buffer += event.data;
+        let end;
+        while ((end = this.buffer.indexOf('\0')) >= 0) {
+          const frame = parseFrame(this.buffer.slice(0, end));
+          this.buffer = this.buffer.slice(end + 1);
+          if (!frame) continue;
+          if (frame.command === 'CONNECTED') resolve(this);
+          else if (frame.command === 'ERROR') reject(new Error(`${this.username}: ${frame.headers.message}`));
+          else if (frame.command === 'MESSAGE') this.handlers.get(frame.headers.subscription)?.(JSON.parse(frame.body));
+        }
+      };
+    });
+  }
+
+  send(command, headers, body = '') {
+    const lines = Object.entries(headers).map(([k, v]) => `${k}:${v}`);
+    this.ws.send(`${command}\n${lines.join('\n')}\n\n${body}\0`);
+  }
+
+  subscribe(destination, handler) {
+    const id = `sub-${this.nextId++}`;
+    this.handlers.set(id, handler);
+    this.send('SUBSCRIBE', { id, destination });
+    return id;
+  }
+
+  unsubscribe(id) {
+    this.handlers.delete(id);
+    this.send('UNSUBSCRIBE', { id });
+  }
+
+  publish(destination, payload = {}) {
+    this.send('SEND', { destination, 'content-type': 'application/json' }, JSON.stringify(payload));
+  }
+
+  close() {
+    this.publish('/app/presence/disconnect');
+    this.send('DISCONNECT', {});
+    this.ws.close();
+  }
+}
+
+function parseFrame(raw) {
+  const text = raw.replace(/^\n+/, '');
+  if (!text) return null;
+  const split = text.indexOf('\n\n');
+  const [command, ...headerLines] = text.slice(0, split).split('\n');
+  const headers = Object.fromEntries(headerLines.map((l) => [l.slice(0, l.indexOf(':')), l.slice(l.indexOf(':') + 1)]));
+  return { command, headers, body: text.slice(split + 2) };
+}
+
+async function register(username) {
+  const response = await fetch(`${baseUrl}/api/auth/register`, {
+    method: 'POST',
+    headers: { 'Content-Type': 'application/json' },
+    body: JSON.stringify({ username, password: 'loadtest' }),
+  });
+  const body = await response.json();
+  if (!response.ok) throw new Error(`register ${username}: ${body.message}`);
+  return body.token;
+}
+
+const sleep = (ms) => new Promise((resolve) => setTimeout(resolve, ms));
+
+function percentile(sorted, p) {
+  return sorted.length ? sorted[Math.min(sorted.length - 1, Math.floor((p / 100) * sorted.length))] : NaN;
+}
+
+function report(name, latencies, seconds) {
+  const sorted = [...latencies].sort((a, b) => a - b);
+  const fmt = (v) => v.toFixed(1).padStart(8);
+  console.log(
+    `${name.padEnd(8)} ${String(sorted.length).padStart(8)} ${fmt(sorted.length / seconds)}/s` +
+      `  p50 ${fmt(percentile(sorted, 50))} ms  p99 ${fmt(percentile(sorted, 99))} ms  max ${fmt(sorted.at(-1) ?? NaN)} ms`
+  );
+}
+
+// Players ready to (re)join, drained at --rate joins per second
+const idle = [];
+const queued = [];
+const matched = [];
+let failed = 0;
+
+function watch(client) {
+  client.subscribe('/user/queue/matchmaking', (update) => {
+    if (update.status === 'QUEUED') queued.push(performance.now() - client.joinedAt);
+    else if (update.status === 'FAILED') {
+      failed++;
+      idle.push(client);
+    }
+  });
+  client.subscribe(`/topic/user/${client.username}/game-created`, () => {
+    matched.push(performance.now() - client.joinedAt);
+    idle.push(client);
+  });
+}
+
+async function joinLoop(deadline) {
+  const tickMs = 10;
+  let budget = 0;
+  while (Date.now() < deadline) {
+    budget += (joinRate * tickMs) / 1000;
+    while (budget >= 1 && idle.length > 0) {
+      const client = idle.shift();
+      client.joinedAt = performance.now();
+      client.publish('/app/matchmaking/join', timeControls[client.index % timeControls.length]);
+      budget--;
+    }
+    // Do not bank joins while every player is already waiting
+    budget = Math.min(budget, joinRate);
+    await sleep(tickMs);
+  }
+}
+
+const usernames = Array.from({ length: playerCount }, (_, i) => `mm-${run}-${i}`);
+console.log(`Registering ${usernames.length} players on ${baseUrl}`);
+const tokens = await Promise.all(usernames.map(register));
+const clients = await Promise.all(usernames.map((u, i) => new StompClient(u, tokens[i]).connect()));
+clients.forEach((client, index) => {
+  client.index = index;
+  watch(client);
+});
+// Give the SUBSCRIBEs a head start
+await sleep(500);
+
+console.log(`Joining at ${joinRate}/s for ${durationMs / 1000}s`);
+idle.push(...clients);
+await joinLoop(Date.now() + durationMs);
+// Let the last tick's pairings arrive
+await sleep(1000);
+
+report('queued', queued, durationMs / 1000);
+report('matched', matched, durationMs / 1000);
+if (failed) console.log(`${failed} joins failed to create a game`);
+clients.forEach((c) => c.publish('/app/matchmaking/leave'));
+clients.forEach((c) => c.close());
@@ -0,0 +1,98 @@
+-- Query plans for player game lookups, before and after V2__player_lookup_indexes.
+--
+-- Runs in a throwaway "bench" schema and drops it at the end:
+--   psql -U chess -d chess_db -f benchmark/player-lookup-plans.sql
+--
+-- Data: 5,000 players, 1,000,000 games, ~2% in progress. Player 42 is looked up.
+
+\set ON_ERROR_STOP on
+\timing off
+
+DROP SCHEMA IF EXISTS bench CASCADE;
+CREATE SCHEMA bench;
+SET search_path = bench;
+
+CREATE TABLE games (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    white_player_id BIGINT,
+    black_player_id BIGINT,
+    status          VARCHAR(20),
+    current_fen     VARCHAR(255),
+    updated_at      TIMESTAMP(6)
+);
+
+INSERT INTO games (white_player_id, black_player_id, status, current_fen, updated_at)
+SELECT w, CASE WHEN b >= w THEN b + 1 ELSE b END,
+       CASE WHEN random() < 0.02 THEN 'IN_PROGRESS' ELSE 'WHITE_WON' END,
+       'rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1',
+       now() - random() * interval '730 days'
+FROM (SELECT 1 + (random() * 4999)::int AS w, 1 + (random() * 4998)::int AS b
+      FROM generate_series(1, 1000000)) p;
+
+ANALYZE games;
+
+\echo
+\echo ==== BEFORE: no indexes, "white OR black" filters (previous JPQL) ====
+\echo
+
+\echo -- active games
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM games
+WHERE (white_player_id = 42 OR black_player_id = 42) AND status = 'IN_PROGRESS';
+
+\echo -- history, first page of 20
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT id FROM games
+WHERE white_player_id = 42 OR black_player_id = 42
+ORDER BY updated_at DESC, id DESC LIMIT 21;
+
+CREATE INDEX idx_games_white_status_updated ON games (white_player_id, status, updated_at);
+CREATE INDEX idx_games_black_status_updated ON games (black_player_id, status, updated_at);
+CREATE INDEX idx_games_white_history ON games (white_player_id, updated_at, id);
+CREATE INDEX idx_games_black_history ON games (black_player_id, updated_at, id);
+ANALYZE games;
+
+\echo
+\echo ==== AFTER: V2 indexes, "white OR black" filters (for comparison) ====
+\echo
+
+\echo -- history, first page of 20
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT id FROM games
+WHERE white_player_id = 42 OR black_player_id = 42
+ORDER BY updated_at DESC, id DESC LIMIT 21;
+
+\echo
+\echo ==== AFTER: V2 indexes, UNION ALL queries (GameRepository) ====
+\echo
+
+\echo -- active games
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM games WHERE white_player_id = 42 AND status = 'IN_PROGRESS'
+UNION ALL
+SELECT * FROM games WHERE black_player_id = 42 AND white_player_id <> 42 AND status = 'IN_PROGRESS';
+
+\echo -- history, first page of 20
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT id FROM (
+    (SELECT id, updated_at FROM games WHERE white_player_id = 42
+     ORDER BY updated_at DESC, id DESC LIMIT 21)
+    UNION ALL
+    (SELECT id, updated_at FROM games WHERE black_player_id = 42 AND white_player_id <> 42
+     ORDER BY updated_at DESC, id DESC LIMIT 21)
+) g ORDER BY updated_at DESC, id DESC LIMIT 21;
+
+\echo -- history, page after a cursor one year back
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT id FROM (
+    (SELECT id, updated_at FROM games WHERE white_player_id = 42
+       AND (updated_at, id) < (now() - interval '365 days', 0)
+     ORDER BY updated_at DESC, id DESC LIMIT 21)
+    UNION ALL
+    (SELECT id, updated_at FROM games WHERE black_player_id = 42 AND white_player_id <> 42
+       AND (updated_at, id) < (now() - interval '365 days', 0)
+     ORDER BY updated_at DESC, id DESC LIMIT 21)
+) g ORDER BY updated_at DESC, id DESC LIMIT 21;
+
+RESET search_path;
+DROP SCHEMA bench CASCADE;
@@ -0,0 +1,192 @@
+// STOMP load test for the inbound channel executor (chess.websocket.inbound.executor).
+//
+// Registers pairs of throwaway players, has each pair start a game, then every client
+// loops on /app/game/{id}/join, which loads the game through JPA on the inbound channel.
+// A probe client takes presence snapshots (no database work) at a fixed rate, so its
+// latency shows whether blocking handlers starve the channel.
+//
+// Node 22+, no dependencies. Run once per mode against a fresh backend and compare:
+//   ./mvnw spring-boot:run                                                  # pool
+//   ./mvnw spring-boot:run -Dspring-boot.run.profiles=ws-virtual            # virtual
+//   node benchmark/ws-load.mjs --url http://localhost:8080 --pairs 100 --duration 30
+//
+// Keep com.chess and org.springframework logging at INFO while measuring.
+
+const args = Object.fromEntries(
+  process.argv.slice(2).reduce((acc, arg, i, all) => {
+    if (arg.startsWith('--')) acc.push([arg.slice(2), all[i + 1]]);
+    return acc;
+  }, [])
+);
+const baseUrl = args.url ?? 'http://localhost:8080';
+const pairs = Number(args.pairs ?? 50);
+const durationMs = Number(args.duration ?? 30) * 1000;
+const probeIntervalMs = Number(args['probe-interval'] ?? 100);
+const run = Date.now().toString(36);
+
+class StompClient {
+  constructor(username, token) {
+    this.username = username;
+    this.token = token;
+    this.handlers = new Map();
+    this.nextId = 0;
+    this.buffer = '';
+  }
+
+  connect() {
+    const wsUrl = baseUrl.replace(/^http/, 'ws') + '/ws/websocket';
+    return new Promise((resolve, reject) => {
+      this.ws = new WebSocket(wsUrl);
+      this.ws.onopen = () =>
+        this.send('CONNECT', {
+          'accept-version': '1.2',
+          host: 'localhost',
+          'heart-beat': '0,0',
+          Authorization: `Bearer ${this.token}`,
+        });
+      this.ws.onerror = (e) => reject(new Error(`${this.username}: ${e.message ?? 'socket error'}`));
+      this.ws.onmessage = (event) => {
+        this.buffer += event.data;
+        let end;
+        while ((end = this.buffer.indexOf('\0')) >= 0) {
+          const frame = parseFrame(this.buffer.slice(0, end));
+          this.buffer = this.buffer.slice(end + 1);
+          if (!frame) continue;
+          if (frame.command === 'CONNECTED') resolve(this);
+          else if (frame.command === 'ERROR') reject(new Error(`${this.username}: ${frame.headers.message}`));
+          else if (frame.command === 'MESSAGE') this.handlers.get(frame.headers.subscription)?.(JSON.parse(frame.body));
+        }
+      };
+    });
+  }
+
+  send(command, headers, body = '') {
+    const lines = Object.entries(headers).map(([k, v]) => `${k}:${v}`);
+    this.ws.send(`${command}\n${lines.join('\n')}\n\n${body}\0`);
+  }
+
+  subscribe(destination, handler) {
+    const id = `sub-${this.nextId++}`;
+    this.handlers.set(id, handler);
+    this.send('SUBSCRIBE', { id, destination });
+    return id;
+  }
+
+  unsubscribe(id) {
+    this.handlers.delete(id);
+    this.send('UNSUBSCRIBE', { id });
+  }
+
+  publish(destination, payload = {}) {
+    this.send('SEND', { destination, 'content-type': 'application/json' }, JSON.stringify(payload));
+  }
+
+  close() {
+    this.publish('/app/presence/disconnect');
+    this.send('DISCONNECT', {});
+    this.ws.close();
+  }
+}
+
+function parseFrame(raw) {
+  const text = raw.replace(/^\n+/, '');
+  if (!text) return null;
+  const split = text.indexOf('\n\n');
+  const [command, ...headerLines] = text.slice(0, split).split('\n');
+  const headers = Object.fromEntries(headerLines.map((l) => [l.slice(0, l.indexOf(':')), l.slice(l.indexOf(':') + 1)]));
+  return { command, headers, body: text.slice(split + 2) };
+}
+
+async function register(username) {
+  const response = await fetch(`${baseUrl}/api/auth/register`, {
+    method: 'POST',
+    headers: { 'Content-Type': 'application/json' },
+    body: JSON.stringify({ username, password: 'loadtest' }),
+  });
+  const body = await response.json();
+  if (!response.ok) throw new Error(`register ${username}: ${body.message}`);
+  return body.token;
+}
+
+const sleep = (ms) => new Promise((resolve) => setTimeout(resolve, ms));
+
+function once(client, destination) {
+  return new Promise((resolve) => {
+    const id = client.subscribe(destination, (body) => {
+      client.unsubscribe(id);
+      resolve(body);
+    });
+  });
+}
+
+async function startGame(white, black) {
+  const invitation = once(black, `/topic/user/${black.username}/invitations`);
+  const created = once(white, `/topic/user/${white.username}/game-created`);
+  // Pool mode may run a session's frames out of order; give the SUBSCRIBEs a head start
+  await sleep(200);
+  white.publish('/app/invite', { receiverUsername: black.username });
+  black.publish('/app/invite/respond', { invitationId: (await invitation).id, accepted: true });
+  return (await created).id;
+}
+
+async function joinLoop(client, gameId, deadline, latencies) {
+  let pending;
+  client.subscribe('/user/queue/game-state', () => pending?.());
+  await sleep(200);
+  while (Date.now() < deadline) {
+    const started = performance.now();
+    await new Promise((resolve) => {
+      pending = resolve;
+      client.publish(`/app/game/${gameId}/join`);
+    });
+    latencies.push(performance.now() - started);
+  }
+}
+
+async function probeLoop(client, deadline, latencies) {
+  while (Date.now() < deadline) {
+    const started = performance.now();
+    await once(client, '/app/presence/snapshot');
+    latencies.push(performance.now() - started);
+    await sleep(probeIntervalMs);
+  }
+}
+
+function percentile(sorted, p) {
+  return sorted.length ? sorted[Math.min(sorted.length - 1, Math.floor((p / 100) * sorted.length))] : NaN;
+}
+
+function report(name, latencies, seconds) {
+  const sorted = [...latencies].sort((a, b) => a - b);
+  const fmt = (v) => v.toFixed(1).padStart(8);
+  console.log(
+    `${name.padEnd(8)} ${String(sorted.length).padStart(8)} ${fmt(sorted.length / seconds)}/s` +
+      `  p50 ${fmt(percentile(sorted, 50))} ms  p99 ${fmt(percentile(sorted, 99))} ms  max ${fmt(sorted.at(-1) ?? NaN)} ms`
+  );
+}
+
+const usernames = Array.from({ length: pairs * 2 + 1 }, (_, i) => `lt-${run}-${i}`);
+console.log(`Registering ${usernames.length} players on ${baseUrl}`);
+const tokens = await Promise.all(usernames.map(register));
+const clients = await Promise.all(usernames.map((u, i) => new StompClient(u, tokens[i]).connect()));
+clients.forEach((c) => c.publish('/app/presence/connect'));
+// Let presence settle before inviting
+await sleep(500);
+
+const [probe, ...players] = clients;
+const gameIds = await Promise.all(
+  Array.from({ length: pairs }, (_, i) => startGame(players[2 * i], players[2 * i + 1]))
+);
+console.log(`${pairs} games started, measuring for ${durationMs / 1000}s`);
+
+const joins = [];
+const probes = [];
+const deadline = Date.now() + durationMs;
+await Promise.all([
+  ...players.map((c, i) => joinLoop(c, gameIds[Math.floor(i / 2)], deadline, joins)),
+  probeLoop(probe, deadline, probes),
+]);
+
+report('join', joins, durationMs / 1000);
+report('probe', probes, durationMs / 1000);
+clients.forEach((c) => c.close());
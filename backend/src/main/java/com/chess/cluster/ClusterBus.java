@@ -0,0 +1,164 @@
+package com.chess.cluster;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.converter.JacksonJsonMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.ReactorNettyTcpStompClient;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Node-to-node messaging over the shared STOMP broker. Messages are published
+ * through the broker relay and read back through a separate STOMP connection
+ * that this node holds to the broker, re-established after a failure. Each node
+ * also receives its own messages; handlers skip them by node id.
+ */
+@Component
+@ConditionalOnProperty(name = "chess.websocket.broker", havingValue = "relay")
+public class ClusterBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterBus.class);
+
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cluster-bus");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${chess.websocket.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${chess.websocket.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${chess.websocket.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${chess.websocket.relay.passcode:guest}")
+    private String relayPasscode;
+
+    private ReactorNettyTcpStompClient stompClient;
+    private volatile boolean running;
+
+    public ClusterBus(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        stompClient = new ReactorNettyTcpStompClient(relayHost, relayPort);
+        stompClient.setMessageConverter(new JacksonJsonMessageConverter());
+        // Node liveness comes from application heartbeats, not STOMP heart-beats
+        stompClient.setDefaultHeartbeat(new long[] {0, 0});
+    }
+
+    // Connects once the context is up, so that every component has registered its subscriptions
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        scheduler.execute(this::connect);
+    }
+
+    /** Registers a handler for a cluster topic; must be called before the application is ready. */
+    public <T> void subscribe(String topic, Class<T> payloadType, Consumer<T> handler) {
+        subscriptions.add(new Subscription<>(topic, payloadType, handler));
+    }
+
+    public void publish(String topic, Object payload) {
+        messagingTemplate.convertAndSend(topic, payload);
+    }
+
+    /** Shared scheduler for periodic cluster work; tasks must not block. */
+    public ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    private void connect() {
+        StompHeaders headers = new StompHeaders();
+        headers.setLogin(relayLogin);
+        headers.setPasscode(relayPasscode);
+        stompClient.connectAsync(headers, new SessionHandler())
+                .whenComplete((session, error) -> {
+                    if (error != null) {
+                        logger.warn("Cluster bus could not connect to broker {}:{}: {}",
+                                relayHost, relayPort, error.getMessage());
+                        scheduleReconnect();
+                    }
+                });
+    }
+
+    private void scheduleReconnect() {
+        if (running) {
+            scheduler.schedule(this::connect, RECONNECT_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        scheduler.shutdownNow();
+        stompClient.shutdown();
+    }
+
+    private record Subscription<T>(String topic, Class<T> payloadType, Consumer<T> handler)
+            implements StompFrameHandler {
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return payloadType;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            try {
+                handler.accept(payloadType.cast(payload));
+            } catch (RuntimeException e) {
+                logger.error("Cluster message handler for {} failed", topic, e);
+            }
+        }
+    }
+
+    private class SessionHandler extends StompSessionHandlerAdapter {
+
+        @Override
+        public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+            subscriptions.forEach(subscription -> session.subscribe(subscription.topic(), subscription));
+            logger.info("Cluster bus connected to {}:{} ({} topics)", relayHost, relayPort, subscriptions.size());
+        }
+
+        @Override
+        public void handleException(StompSession session, StompCommand command, StompHeaders headers,
+                                    byte[] payload, Throwable exception) {
+            logger.warn("Ignoring malformed cluster frame: {}", exception.getMessage());
+        }
+
+        @Override
+        public void handleTransportError(StompSession session, Throwable exception) {
+            logger.warn("Cluster bus lost its broker connection: {}", exception.getMessage());
+            scheduleReconnect();
+        }
+    }
+}
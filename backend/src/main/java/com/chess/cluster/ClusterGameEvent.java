@@ -0,0 +1,15 @@
+package com.chess.cluster;
+
+import com.chess.dto.MoveDTO;
+
+/**
+ * Live game change exchanged between nodes on {@link ClusterGames#TOPIC}: a move
+ * accepted by one node, or a game that ended and must leave every live registry.
+ */
+public record ClusterGameEvent(Type type, String nodeId, Long gameId, MoveDTO move) {
+
+    public enum Type {
+        MOVE,
+        ENDED
+    }
+}
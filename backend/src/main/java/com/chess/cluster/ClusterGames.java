@@ -0,0 +1,60 @@
+package com.chess.cluster;
+
+import com.chess.dto.MoveDTO;
+import com.chess.live.GameActors;
+import com.chess.service.GameService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps live games in step across nodes behind a broker relay. The two players of
+ * a game may be connected to different nodes, each holding its own
+ * {@code LiveGame}; every accepted move and every game end is announced so that
+ * the other nodes apply it to their copy.
+ */
+@Component
+@ConditionalOnProperty(name = "chess.websocket.broker", havingValue = "relay")
+public class ClusterGames {
+
+    public static final String TOPIC = "/topic/cluster.games";
+
+    private final ClusterNode clusterNode;
+    private final ClusterBus clusterBus;
+    private final GameService gameService;
+    private final GameActors gameActors;
+
+    public ClusterGames(ClusterNode clusterNode, ClusterBus clusterBus, GameService gameService,
+                        GameActors gameActors) {
+        this.clusterNode = clusterNode;
+        this.clusterBus = clusterBus;
+        this.gameService = gameService;
+        this.gameActors = gameActors;
+    }
+
+    @PostConstruct
+    public void start() {
+        clusterBus.subscribe(TOPIC, ClusterGameEvent.class, this::onEvent);
+    }
+
+    public void moveAccepted(MoveDTO move) {
+        clusterBus.publish(TOPIC, new ClusterGameEvent(ClusterGameEvent.Type.MOVE, clusterNode.getNodeId(),
+                move.getGameId(), move));
+    }
+
+    public void gameEnded(Long gameId) {
+        clusterBus.publish(TOPIC, new ClusterGameEvent(ClusterGameEvent.Type.ENDED, clusterNode.getNodeId(),
+                gameId, null));
+    }
+
+    private void onEvent(ClusterGameEvent event) {
+        if (clusterNode.getNodeId().equals(event.nodeId())) {
+            return;
+        }
+        // Applied on the game's mailbox, in between this node's own commands for it
+        switch (event.type()) {
+            case MOVE -> gameActors.tell(event.gameId(), () -> gameService.applyRemoteMove(event.move()));
+            case ENDED -> gameActors.tell(event.gameId(), () -> gameService.evictLiveGame(event.gameId()));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.chess.cluster;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Identity of this backend node. With {@code chess.websocket.broker: relay}
+ * several nodes share one STOMP broker; each numbers its own presence frames, so
+ * presence deltas go to a per-node topic named in the snapshot.
+ */
+@Component
+public class ClusterNode {
+
+    private static final String PRESENCE_TOPIC = "/topic/players";
+
+    private final String nodeId;
+    private final boolean clustered;
+
+    public ClusterNode(@Value("${chess.cluster.node-id:}") String nodeId,
+                       @Value("${chess.websocket.broker:simple}") String broker) {
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString().substring(0, 8) : nodeId;
+        this.clustered = "relay".equalsIgnoreCase(broker);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean isClustered() {
+        return clustered;
+    }
+
+    public String presenceTopic() {
+        return clustered ? PRESENCE_TOPIC + "." + nodeId : PRESENCE_TOPIC;
+    }
+}
@@ -0,0 +1,147 @@
+package com.chess.cluster;
+
+import com.chess.dto.PlayerDTO;
+import com.chess.service.PlayerService;
+import com.chess.websocket.PresenceBroadcaster;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the online player list consistent across nodes behind a broker relay.
+ * <p>
+ * Each node announces its own players on {@link #TOPIC}: a {@code DELTA} after
+ * each local presence flush, and a {@code FULL} list every
+ * {@code heartbeat-interval-ms}. Announcements from other nodes are applied to
+ * {@link PlayerService}'s replica of those nodes. A node not heard from for
+ * three intervals is dropped, and the periodic full list repairs any delta lost
+ * while a broker connection was down.
+ */
+@Component
+@ConditionalOnProperty(name = "chess.websocket.broker", havingValue = "relay")
+public class ClusterPresence {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterPresence.class);
+
+    public static final String TOPIC = "/topic/cluster.presence";
+
+    private final ClusterNode clusterNode;
+    private final ClusterBus clusterBus;
+    private final PlayerService playerService;
+    private final PresenceBroadcaster presenceBroadcaster;
+
+    // Node id -> last announcement time
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+    // Local usernames as of the last announcement; guarded by this
+    private Set<String> announced = Set.of();
+
+    @Value("${chess.cluster.heartbeat-interval-ms:5000}")
+    private long heartbeatIntervalMs;
+
+    public ClusterPresence(ClusterNode clusterNode,
+                           ClusterBus clusterBus,
+                           PlayerService playerService,
+                           PresenceBroadcaster presenceBroadcaster) {
+        this.clusterNode = clusterNode;
+        this.clusterBus = clusterBus;
+        this.playerService = playerService;
+        this.presenceBroadcaster = presenceBroadcaster;
+    }
+
+    @PostConstruct
+    public void start() {
+        clusterBus.subscribe(TOPIC, ClusterPresenceMessage.class, this::onAnnouncement);
+        clusterBus.scheduler().scheduleAtFixedRate(this::heartbeat, heartbeatIntervalMs, heartbeatIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /** Announces the local players that joined or left since the last announcement. */
+    public synchronized void publishLocalChanges() {
+        List<PlayerDTO> local = playerService.getLocalPlayers();
+        Set<String> current = new HashSet<>();
+        List<PlayerDTO> joined = new ArrayList<>();
+        for (PlayerDTO player : local) {
+            current.add(player.getUsername());
+            if (!announced.contains(player.getUsername())) {
+                joined.add(player);
+            }
+        }
+        List<String> left = announced.stream()
+                .filter(username -> !current.contains(username))
+                .toList();
+        if (joined.isEmpty() && left.isEmpty()) {
+            return;
+        }
+        announced = current;
+        send(new ClusterPresenceMessage(ClusterPresenceMessage.Type.DELTA, clusterNode.getNodeId(), joined, left));
+    }
+
+    private void heartbeat() {
+        try {
+            synchronized (this) {
+                List<PlayerDTO> local = playerService.getLocalPlayers();
+                announced = new HashSet<>(local.stream().map(PlayerDTO::getUsername).toList());
+                send(new ClusterPresenceMessage(ClusterPresenceMessage.Type.FULL, clusterNode.getNodeId(),
+                        local, List.of()));
+            }
+
+            long cutoff = System.currentTimeMillis() - 3 * heartbeatIntervalMs;
+            lastSeen.forEach((nodeId, seenAt) -> {
+                if (seenAt < cutoff && lastSeen.remove(nodeId, seenAt)) {
+                    logger.warn("Node {} missed its presence heartbeats, dropping its players", nodeId);
+                    playerService.removeNode(nodeId);
+                    presenceBroadcaster.presenceChanged();
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.error("Cluster presence heartbeat failed", e);
+        }
+    }
+
+    private void send(ClusterPresenceMessage message) {
+        clusterBus.publish(TOPIC, message);
+    }
+
+    private void onAnnouncement(ClusterPresenceMessage message) {
+        if (clusterNode.getNodeId().equals(message.nodeId())) {
+            return;
+        }
+        switch (message.type()) {
+            case FULL -> {
+                lastSeen.put(message.nodeId(), System.currentTimeMillis());
+                playerService.applyNodePlayers(message.nodeId(), message.players());
+            }
+            case DELTA -> {
+                lastSeen.put(message.nodeId(), System.currentTimeMillis());
+                playerService.applyNodeDelta(message.nodeId(), message.players(), message.left());
+            }
+            case LEAVE -> {
+                lastSeen.remove(message.nodeId());
+                playerService.removeNode(message.nodeId());
+            }
+        }
+        presenceBroadcaster.presenceChanged();
+    }
+
+    @PreDestroy
+    public void stop() {
+        try {
+            send(new ClusterPresenceMessage(ClusterPresenceMessage.Type.LEAVE, clusterNode.getNodeId(),
+                    List.of(), List.of()));
+        } catch (RuntimeException e) {
+            logger.debug("Could not announce node shutdown: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.chess.cluster;
+
+import com.chess.dto.PlayerDTO;
+
+import java.util.List;
+
+/**
+ * Presence announcement exchanged between nodes on {@link ClusterPresence#TOPIC}.
+ * {@code FULL} lists every player connected to the node, {@code DELTA} only the
+ * changes since its previous announcement, {@code LEAVE} is sent on shutdown.
+ */
+public record ClusterPresenceMessage(Type type, String nodeId, List<PlayerDTO> players, List<String> left) {
+
+    public enum Type {
+        FULL,
+        DELTA,
+        LEAVE
+    }
+}
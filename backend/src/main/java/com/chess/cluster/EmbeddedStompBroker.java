@@ -0,0 +1,54 @@
+package com.chess.cluster;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process ActiveMQ Artemis broker with a STOMP acceptor, for running several
+ * nodes on one machine without installing a broker. Enable it on one node with
+ * {@code chess.websocket.relay.embedded: true}; the other nodes relay to its port.
+ * Messages are not persisted and no credentials are checked.
+ */
+@Component
+@ConditionalOnProperty(name = "chess.websocket.relay.embedded", havingValue = "true")
+public class EmbeddedStompBroker {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedStompBroker.class);
+
+    @Value("${chess.websocket.relay.host:localhost}")
+    private String host;
+
+    @Value("${chess.websocket.relay.port:61613}")
+    private int port;
+
+    private EmbeddedActiveMQ server;
+
+    @PostConstruct
+    public void start() throws Exception {
+        ConfigurationImpl configuration = new ConfigurationImpl();
+        configuration.setPersistenceEnabled(false);
+        configuration.setSecurityEnabled(false);
+        // /topic/ destinations fan out to every subscriber, /queue/ ones go to one
+        configuration.addAcceptorConfiguration("stomp", "tcp://" + host + ":" + port
+                + "?protocols=STOMP;anycastPrefix=/queue/;multicastPrefix=/topic/");
+
+        server = new EmbeddedActiveMQ();
+        server.setConfiguration(configuration);
+        server.start();
+        logger.info("Embedded STOMP broker listening on {}:{}", host, port);
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        if (server != null) {
+            server.stop();
+        }
+    }
+}
@@ -36,7 +36,8 @@ public class SecurityConfig {
             .cors(cors -> cors.configure(http))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll()
-                .requestMatchers("/ws/**").permitAll()
+                // The handshake is open; STOMP CONNECT is authenticated by StompAuthChannelInterceptor
+                .requestMatchers("/ws/**", "/ws-native").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
                 .anyRequest().authenticated()
             )
@@ -1,20 +1,109 @@
 package com.chess.config;
 
+import com.chess.security.MoveTopicSubscriptionInterceptor;
+import com.chess.security.StompAuthChannelInterceptor;
+import com.chess.websocket.MoveFrameConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.WebSocketExtension;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.util.List;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+    private final MoveTopicSubscriptionInterceptor moveTopicSubscriptionInterceptor;
+    private final MoveFrameConverter moveFrameConverter;
+
+    @Value("${chess.websocket.broker:simple}")
+    private String broker;
+
+    @Value("${chess.websocket.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${chess.websocket.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${chess.websocket.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${chess.websocket.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${chess.websocket.inbound.executor:pool}")
+    private String inboundExecutor;
+
+    @Value("${chess.websocket.inbound.core-pool-size:16}")
+    private int inboundCorePoolSize;
+
+    @Value("${chess.websocket.inbound.max-pool-size:64}")
+    private int inboundMaxPoolSize;
+
+    @Value("${chess.websocket.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${chess.websocket.outbound.core-pool-size:16}")
+    private int outboundCorePoolSize;
+
+    @Value("${chess.websocket.outbound.max-pool-size:64}")
+    private int outboundMaxPoolSize;
+
+    @Value("${chess.websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${chess.websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${chess.websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${chess.websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${chess.websocket.native.compression:true}")
+    private boolean nativeCompression;
+
+    public WebSocketConfig(StompAuthChannelInterceptor stompAuthChannelInterceptor,
+                           MoveTopicSubscriptionInterceptor moveTopicSubscriptionInterceptor,
+                           MoveFrameConverter moveFrameConverter) {
+        this.stompAuthChannelInterceptor = stompAuthChannelInterceptor;
+        this.moveTopicSubscriptionInterceptor = moveTopicSubscriptionInterceptor;
+        this.moveFrameConverter = moveFrameConverter;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple in-memory broker for subscriptions
         // /topic for broadcasts, /queue for user-specific messages
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(broker)) {
+            // External STOMP broker shared by every node, so topics span the cluster
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    // Let /user destinations reach sessions connected to other nodes
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+        } else {
+            // Simple in-memory broker, single node only
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         
         // Prefix for messages from client to server
         config.setApplicationDestinationPrefixes("/app");
@@ -25,9 +114,83 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
-        // WebSocket endpoint that clients connect to
+        // SockJS endpoint for clients without a usable WebSocket
         registry.addEndpoint("/ws")
                 .setAllowedOrigins("http://localhost:4200")
                 .withSockJS();
+
+        // Raw WebSocket endpoint: no SockJS framing, binary STOMP frames, optional compression
+        registry.addEndpoint("/ws-native")
+                .setAllowedOrigins("http://localhost:4200")
+                .setHandshakeHandler(nativeHandshakeHandler());
+
+        if (isVirtualInbound()) {
+            // One virtual thread per message would let a session's frames overtake each other
+            registry.setPreserveReceiveOrder(true);
+        }
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Authenticate once at CONNECT and bind the principal to the session,
+        // then keep the live move topics to the players
+        registration.interceptors(stompAuthChannelInterceptor, moveTopicSubscriptionInterceptor);
+
+        if (isVirtualInbound()) {
+            // Handlers block on JPA; a virtual thread parks instead of holding a pool thread
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ws-inbound-");
+            executor.setVirtualThreads(true);
+            registration.executor(executor);
+        } else {
+            registration.taskExecutor()
+                    .corePoolSize(inboundCorePoolSize)
+                    .maxPoolSize(inboundMaxPoolSize)
+                    .queueCapacity(inboundQueueCapacity);
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A session whose buffer or send time overflows is closed rather than slowing everyone else
+        registration.setMessageSizeLimit(messageSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit);
+    }
+
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        // Binary move frames; JSON and the other defaults are still registered after it
+        messageConverters.add(moveFrameConverter);
+        return true;
+    }
+
+    private DefaultHandshakeHandler nativeHandshakeHandler() {
+        return new DefaultHandshakeHandler() {
+            @Override
+            protected List<WebSocketExtension> filterRequestedExtensions(ServerHttpRequest request,
+                                                                         List<WebSocketExtension> requested,
+                                                                         List<WebSocketExtension> supported) {
+                // The container offers permessage-deflate; accept it only when enabled
+                List<WebSocketExtension> accepted = super.filterRequestedExtensions(request, requested, supported);
+                if (nativeCompression) {
+                    return accepted;
+                }
+                return accepted.stream()
+                        .filter(extension -> !PERMESSAGE_DEFLATE.equals(extension.getName()))
+                        .toList();
+            }
+        };
+    }
+
+    private boolean isVirtualInbound() {
+        return "virtual".equalsIgnoreCase(inboundExecutor);
     }
 }
@@ -0,0 +1,26 @@
+package com.chess.controller;
+
+import com.chess.dto.ExplorerDTO;
+import com.chess.service.ExplorerService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/explorer")
+public class ExplorerController {
+
+    private final ExplorerService explorerService;
+
+    public ExplorerController(ExplorerService explorerService) {
+        this.explorerService = explorerService;
+    }
+
+    @GetMapping
+    public ResponseEntity<ExplorerDTO> explore(@RequestParam(required = false) String fen) {
+        try {
+            return ResponseEntity.ok(explorerService.explore(fen));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,17 +1,25 @@
 package com.chess.controller;
 
 import com.chess.dto.GameDTO;
+import com.chess.dto.GamePageDTO;
+import com.chess.live.GameActors;
 import com.chess.model.Game;
 import com.chess.model.User;
 import com.chess.service.GameService;
 import com.chess.service.PlayerService;
+import com.chess.websocket.MoveFanout;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/games")
@@ -19,66 +27,114 @@ public class GameController {
 
     private final GameService gameService;
     private final PlayerService playerService;
+    private final GameActors gameActors;
+    private final MoveFanout moveFanout;
+    private final ObjectMapper objectMapper;
 
-    public GameController(GameService gameService, PlayerService playerService) {
+    public GameController(GameService gameService, PlayerService playerService, GameActors gameActors,
+                          MoveFanout moveFanout, ObjectMapper objectMapper) {
         this.gameService = gameService;
         this.playerService = playerService;
+        this.gameActors = gameActors;
+        this.moveFanout = moveFanout;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<GameDTO> getGame(@PathVariable Long id) {
+    public ResponseEntity<GameDTO> getGame(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        User user = playerService.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // Spectators see the game only as far as the spectator delay has released it
         return gameService.findById(id)
-                .map(game -> ResponseEntity.ok(gameService.toDTO(game)))
+                .map(game -> {
+                    GameDTO gameDTO = gameService.toDTO(game);
+                    boolean player = game.getWhitePlayer().getId().equals(user.getId())
+                            || game.getBlackPlayer().getId().equals(user.getId());
+                    return ResponseEntity.ok(player ? gameDTO : moveFanout.forSpectators(gameDTO));
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/active")
     public ResponseEntity<List<GameDTO>> getActiveGames(
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(defaultValue = "false") boolean includeMoves) {
         User user = playerService.findByUsername(userDetails.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        List<GameDTO> games = gameService.findActiveGamesByPlayer(user).stream()
-                .map(gameService::toDTO)
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(games);
+        return ResponseEntity.ok(gameService.findActiveGameSummaries(user, includeMoves));
     }
 
     @GetMapping("/history")
-    public ResponseEntity<List<GameDTO>> getGameHistory(
-            @AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<GamePageDTO> getGameHistory(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean includeMoves) {
         User user = playerService.findByUsername(userDetails.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        List<GameDTO> games = gameService.findAllGamesByPlayer(user).stream()
-                .map(gameService::toDTO)
-                .collect(Collectors.toList());
+        try {
+            return ResponseEntity.ok(gameService.findGameHistoryPage(user, cursor, limit, includeMoves));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/history/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportGameHistory(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(defaultValue = "true") boolean includeMoves) {
+        User user = playerService.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
 
-        return ResponseEntity.ok(games);
+        // One JSON document per line, written as the games are read
+        StreamingResponseBody body = out -> gameService.exportGameHistory(user, includeMoves, game -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(game));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @PostMapping("/{id}/resign")
     public ResponseEntity<GameDTO> resignGame(
             @PathVariable Long id,
             @AuthenticationPrincipal UserDetails userDetails) {
-        Game game = gameService.findById(id)
-                .orElseThrow(() -> new RuntimeException("Game not found"));
-
         User user = playerService.findByUsername(userDetails.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Determine winner based on who resigned
-        Game.GameStatus status;
-        if (game.getWhitePlayer().getId().equals(user.getId())) {
-            status = Game.GameStatus.BLACK_WON;
-        } else if (game.getBlackPlayer().getId().equals(user.getId())) {
-            status = Game.GameStatus.WHITE_WON;
-        } else {
-            return ResponseEntity.badRequest().build();
-        }
-
-        gameService.updateGameStatus(game, status);
-        return ResponseEntity.ok(gameService.toDTO(game));
+        // Queued behind the game's pending moves
+        return gameActors.<ResponseEntity<GameDTO>>ask(id, () -> {
+            gameService.awaitMovesFlushed(id);
+            Game game = gameService.findByIdWithMovesAndPlayers(id);
+            if (game == null) {
+                return ResponseEntity.<GameDTO>notFound().build();
+            }
+
+            // Determine winner based on who resigned
+            Game.GameStatus status;
+            if (game.getWhitePlayer().getId().equals(user.getId())) {
+                status = Game.GameStatus.BLACK_WON;
+            } else if (game.getBlackPlayer().getId().equals(user.getId())) {
+                status = Game.GameStatus.WHITE_WON;
+            } else {
+                return ResponseEntity.<GameDTO>badRequest().build();
+            }
+            if (game.getStatus() != Game.GameStatus.IN_PROGRESS) {
+                return ResponseEntity.<GameDTO>status(HttpStatus.CONFLICT).build();
+            }
+
+            gameService.updateGameStatus(game, status);
+            return ResponseEntity.ok(gameService.toDTO(game));
+        }).join();
     }
 }
@@ -1,6 +1,9 @@
 package com.chess.controller;
 
 import com.chess.dto.PlayerDTO;
+import com.chess.dto.RatingDTO;
+import com.chess.rating.Glicko2;
+import com.chess.rating.RatingPipeline;
 import com.chess.service.PlayerService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -14,9 +17,11 @@ import java.util.List;
 public class PlayerController {
 
     private final PlayerService playerService;
+    private final RatingPipeline ratingPipeline;
 
-    public PlayerController(PlayerService playerService) {
+    public PlayerController(PlayerService playerService, RatingPipeline ratingPipeline) {
         this.playerService = playerService;
+        this.ratingPipeline = ratingPipeline;
     }
 
     @GetMapping("/online")
@@ -25,4 +30,22 @@ public class PlayerController {
         List<PlayerDTO> players = playerService.getOnlinePlayersExcept(userDetails.getUsername());
         return ResponseEntity.ok(players);
     }
+
+    @GetMapping("/{username}/rating")
+    public ResponseEntity<RatingDTO> getRating(@PathVariable String username) {
+        return playerService.findByUsername(username)
+                .map(user -> {
+                    // The deviation keeps widening while the player is away
+                    Glicko2.Rating rating = ratingPipeline.current(new Glicko2.Rating(user.getRating(),
+                            user.getRatingDeviation(), user.getRatingVolatility()), user.getRatingPeriod());
+                    return ResponseEntity.ok(RatingDTO.builder()
+                            .playerId(user.getId())
+                            .username(user.getUsername())
+                            .rating(rating.rating())
+                            .deviation(rating.deviation())
+                            .volatility(rating.volatility())
+                            .build());
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
@@ -0,0 +1,22 @@
+package com.chess.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExplorerDTO {
+
+    private String fen;
+    private long games;
+    private long whiteWins;
+    private long draws;
+    private long blackWins;
+    private List<ExplorerMoveDTO> moves;
+}
@@ -0,0 +1,20 @@
+package com.chess.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExplorerMoveDTO {
+
+    private String uci;
+    private String san;
+    private long games;
+    private long whiteWins;
+    private long draws;
+    private long blackWins;
+}
@@ -0,0 +1,27 @@
+package com.chess.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Reply to a join from a client that already holds the game up to {@code fromPly}:
+ * only the moves after it, plus the current clocks.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameCatchUpDTO {
+
+    private Long gameId;
+    private Integer fromPly;
+    private Integer ply;
+    private String currentTurn;
+    private Long whiteTimeMs;
+    private Long blackTimeMs;
+    private List<MoveDTO> moves;
+}
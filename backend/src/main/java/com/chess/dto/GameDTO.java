@@ -21,6 +21,11 @@ public class GameDTO {
     private String status;
     private String currentTurn;
     private String currentFen;
+    private Integer moveCount;
+    private Long clockInitialMs;
+    private Long clockIncrementMs;
+    private Long whiteTimeMs;
+    private Long blackTimeMs;
     private List<MoveDTO> moves;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -0,0 +1,19 @@
+package com.chess.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GamePageDTO {
+
+    private List<GameDTO> games;
+    /** Opaque token for the next page; null on the last page. */
+    private String nextCursor;
+}
@@ -19,5 +19,7 @@ public class InvitationDTO {
     private Long receiverId;
     private String receiverUsername;
     private String status;
+    private Long clockInitialMs;
+    private Long clockIncrementMs;
     private LocalDateTime createdAt;
 }
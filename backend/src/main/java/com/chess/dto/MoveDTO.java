@@ -20,4 +20,6 @@ public class MoveDTO {
     private String sanNotation;
     private Integer moveNumber;
     private String playerColor;
+    private Long whiteTimeMs;
+    private Long blackTimeMs;
 }
@@ -0,0 +1,35 @@
+package com.chess.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Presence frame. A {@code SNAPSHOT} carries the whole online list as of
+ * {@code seq}. A {@code DELTA} carries the net changes for sequence numbers
+ * {@code fromSeq} to {@code seq}; a client whose last applied seq is below
+ * {@code fromSeq - 1} has missed a frame and must request a new snapshot.
+ * Snapshots name the {@code topic} that carries this node's deltas.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceDTO {
+
+    public enum Type {
+        SNAPSHOT,
+        DELTA
+    }
+
+    private Type type;
+    private long fromSeq;
+    private long seq;
+    private String topic;
+    private List<PlayerDTO> players;
+    private List<PlayerDTO> joined;
+    private List<String> left;
+}
@@ -0,0 +1,19 @@
+package com.chess.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingDTO {
+
+    private Long playerId;
+    private String username;
+    private double rating;
+    private double deviation;
+    private double volatility;
+}
@@ -0,0 +1,11 @@
+package com.chess.engine;
+
+/**
+ * Thrown when a client submits a move that is not legal in the current position.
+ */
+public class IllegalMoveException extends RuntimeException {
+
+    public IllegalMoveException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,203 @@
+package com.chess.engine;
+
+/**
+ * Legal move generator.
+ * <p>
+ * Moves are written into a caller-supplied {@code int[]} of at least
+ * {@link #MAX_MOVES} entries, so generation never allocates. Pseudo-legal moves
+ * are produced from the attack tables and then filtered in place by playing each
+ * one on the position's undo stack and checking that the own king is safe.
+ */
+public final class MoveGenerator {
+
+    /** Upper bound on the number of legal moves in any chess position. */
+    public static final int MAX_MOVES = 256;
+
+    private static final long RANK_1 = 0xFFL;
+    private static final long RANK_8 = 0xFFL << 56;
+
+    private static final ThreadLocal<int[]> SCRATCH = ThreadLocal.withInitial(() -> new int[MAX_MOVES]);
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Fills {@code moves} with every legal move and returns how many were written.
+     */
+    public static int generateLegal(Position position, int[] moves) {
+        int count = generatePseudoLegal(position, moves);
+        int us = position.sideToMove();
+        int legal = 0;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            position.make(move);
+            if (!position.isKingAttacked(us)) {
+                moves[legal++] = move;
+            }
+            position.unmake(move);
+        }
+        return legal;
+    }
+
+    /**
+     * Finds the legal move matching the given squares and promotion piece type
+     * ({@link Piece#NONE} for none). Returns {@link PackedMove#NONE} if there is no such move.
+     */
+    public static int findLegal(Position position, int from, int to, int promotionType) {
+        if (from == Square.NONE || to == Square.NONE) {
+            return PackedMove.NONE;
+        }
+        int[] moves = SCRATCH.get();
+        int count = generateLegal(position, moves);
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (PackedMove.from(move) == from && PackedMove.to(move) == to
+                    && PackedMove.promotionType(move) == promotionType) {
+                return move;
+            }
+        }
+        return PackedMove.NONE;
+    }
+
+    /**
+     * Returns true if the side to move has at least one legal move.
+     */
+    public static boolean hasLegalMove(Position position) {
+        return generateLegal(position, SCRATCH.get()) > 0;
+    }
+
+    static int generatePseudoLegal(Position position, int[] moves) {
+        int us = position.sideToMove();
+        int them = us ^ 1;
+        long own = position.colorOccupancy(us);
+        long enemy = position.colorOccupancy(them);
+        long occupied = position.occupied();
+        int count = 0;
+
+        count = generatePawnMoves(position, moves, count, us, enemy, occupied);
+
+        long knights = position.pieces(us, Piece.KNIGHT);
+        while (knights != 0) {
+            int from = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            count = addTargets(moves, count, from, Attacks.knight(from) & ~own, enemy);
+        }
+
+        long bishops = position.pieces(us, Piece.BISHOP);
+        while (bishops != 0) {
+            int from = Long.numberOfTrailingZeros(bishops);
+            bishops &= bishops - 1;
+            count = addTargets(moves, count, from, Attacks.bishop(from, occupied) & ~own, enemy);
+        }
+
+        long rooks = position.pieces(us, Piece.ROOK);
+        while (rooks != 0) {
+            int from = Long.numberOfTrailingZeros(rooks);
+            rooks &= rooks - 1;
+            count = addTargets(moves, count, from, Attacks.rook(from, occupied) & ~own, enemy);
+        }
+
+        long queens = position.pieces(us, Piece.QUEEN);
+        while (queens != 0) {
+            int from = Long.numberOfTrailingZeros(queens);
+            queens &= queens - 1;
+            count = addTargets(moves, count, from, Attacks.queen(from, occupied) & ~own, enemy);
+        }
+
+        int king = Long.numberOfTrailingZeros(position.pieces(us, Piece.KING));
+        count = addTargets(moves, count, king, Attacks.king(king) & ~own, enemy);
+        return generateCastling(position, moves, count, us, occupied);
+    }
+
+    private static int generatePawnMoves(Position position, int[] moves, int count, int us, long enemy, long occupied) {
+        long pawns = position.pieces(us, Piece.PAWN);
+        int forward = us == Piece.WHITE ? 8 : -8;
+        int startRank = us == Piece.WHITE ? 1 : 6;
+        long promotionRank = us == Piece.WHITE ? RANK_8 : RANK_1;
+        int epSquare = position.epSquare();
+
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+
+            int to = from + forward;
+            if ((occupied & (1L << to)) == 0) {
+                if ((promotionRank & (1L << to)) != 0) {
+                    count = addPromotions(moves, count, from, to, false);
+                } else {
+                    moves[count++] = PackedMove.of(from, to, PackedMove.QUIET);
+                    int doubleTo = to + forward;
+                    if (Square.rank(from) == startRank && (occupied & (1L << doubleTo)) == 0) {
+                        moves[count++] = PackedMove.of(from, doubleTo, PackedMove.DOUBLE_PAWN_PUSH);
+                    }
+                }
+            }
+
+            long captures = Attacks.pawn(us, from) & enemy;
+            while (captures != 0) {
+                int target = Long.numberOfTrailingZeros(captures);
+                captures &= captures - 1;
+                if ((promotionRank & (1L << target)) != 0) {
+                    count = addPromotions(moves, count, from, target, true);
+                } else {
+                    moves[count++] = PackedMove.of(from, target, PackedMove.CAPTURE);
+                }
+            }
+
+            if (epSquare != Square.NONE && (Attacks.pawn(us, from) & (1L << epSquare)) != 0) {
+                moves[count++] = PackedMove.of(from, epSquare, PackedMove.EN_PASSANT);
+            }
+        }
+        return count;
+    }
+
+    private static int addPromotions(int[] moves, int count, int from, int to, boolean capture) {
+        for (int type = Piece.QUEEN; type >= Piece.KNIGHT; type--) {
+            moves[count++] = PackedMove.promotion(from, to, type, capture);
+        }
+        return count;
+    }
+
+    private static int addTargets(int[] moves, int count, int from, long targets, long enemy) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            int flags = (enemy & (1L << to)) != 0 ? PackedMove.CAPTURE : PackedMove.QUIET;
+            moves[count++] = PackedMove.of(from, to, flags);
+        }
+        return count;
+    }
+
+    private static int generateCastling(Position position, int[] moves, int count, int us, long occupied) {
+        int rights = position.castlingRights();
+        int kingSide = us == Piece.WHITE ? Position.WHITE_KING_SIDE : Position.BLACK_KING_SIDE;
+        int queenSide = us == Piece.WHITE ? Position.WHITE_QUEEN_SIDE : Position.BLACK_QUEEN_SIDE;
+        if ((rights & (kingSide | queenSide)) == 0) {
+            return count;
+        }
+
+        int them = us ^ 1;
+        int king = us == Piece.WHITE ? 4 : 60;
+        int rook = Piece.of(us, Piece.ROOK);
+        if (position.pieceAt(king) != Piece.of(us, Piece.KING) || position.isSquareAttacked(king, them)) {
+            return count;
+        }
+
+        if ((rights & kingSide) != 0
+                && position.pieceAt(king + 3) == rook
+                && (occupied & ((1L << (king + 1)) | (1L << (king + 2)))) == 0
+                && !position.isSquareAttacked(king + 1, them)
+                && !position.isSquareAttacked(king + 2, them)) {
+            moves[count++] = PackedMove.of(king, king + 2, PackedMove.KING_CASTLE);
+        }
+
+        if ((rights & queenSide) != 0
+                && position.pieceAt(king - 4) == rook
+                && (occupied & ((1L << (king - 1)) | (1L << (king - 2)) | (1L << (king - 3)))) == 0
+                && !position.isSquareAttacked(king - 1, them)
+                && !position.isSquareAttacked(king - 2, them)) {
+            moves[count++] = PackedMove.of(king, king - 2, PackedMove.QUEEN_CASTLE);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,77 @@
+package com.chess.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary format for a whole game's move list: each move is its 16-bit
+ * {@link PackedMove} value, big-endian, in ply order. A 60-move game takes 240
+ * bytes. FEN and SAN are not stored; they are rebuilt by {@link #replay(byte[])}.
+ */
+public final class MoveListCodec {
+
+    public static final int BYTES_PER_MOVE = 2;
+
+    private MoveListCodec() {
+    }
+
+    public static int count(byte[] data) {
+        return data == null ? 0 : data.length / BYTES_PER_MOVE;
+    }
+
+    public static void write(byte[] data, int index, int move) {
+        int offset = index * BYTES_PER_MOVE;
+        data[offset] = (byte) (move >>> 8);
+        data[offset + 1] = (byte) move;
+    }
+
+    public static int read(byte[] data, int index) {
+        int offset = index * BYTES_PER_MOVE;
+        return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+    }
+
+    public static byte[] encode(int[] moves, int count) {
+        byte[] data = new byte[count * BYTES_PER_MOVE];
+        for (int i = 0; i < count; i++) {
+            write(data, i, moves[i]);
+        }
+        return data;
+    }
+
+    /**
+     * Replays an encoded move list from the initial position.
+     *
+     * @throws IllegalArgumentException if a stored move is not legal when replayed
+     */
+    public static List<ReplayedMove> replay(byte[] data) {
+        int count = count(data);
+        List<ReplayedMove> replayed = new ArrayList<>(count);
+        Position position = Position.initial();
+        for (int i = 0; i < count; i++) {
+            int stored = read(data, i);
+            int move = MoveGenerator.findLegal(position, PackedMove.from(stored), PackedMove.to(stored),
+                    PackedMove.promotionType(stored));
+            if (move == PackedMove.NONE) {
+                throw new IllegalArgumentException("Stored move " + PackedMove.toUci(stored)
+                        + " at ply " + (i + 1) + " is not legal");
+            }
+            int piece = Piece.type(position.pieceAt(PackedMove.from(move)));
+            String san = Notation.san(position, move);
+            position.play(move);
+            replayed.add(new ReplayedMove(i + 1, move, piece, san, position.toFen()));
+        }
+        return replayed;
+    }
+
+    /**
+     * One ply of a replayed game.
+     *
+     * @param moveNumber 1-based ply number
+     * @param move       the packed move
+     * @param pieceType  type of the piece that moved
+     * @param san        SAN of the move
+     * @param fenAfter   FEN of the position after the move
+     */
+    public record ReplayedMove(int moveNumber, int move, int pieceType, String san, String fenAfter) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.chess.engine;
+
+/**
+ * Standard Algebraic Notation (SAN) for moves of a {@link Position}.
+ */
+public final class Notation {
+
+    private static final ThreadLocal<int[]> SCRATCH = ThreadLocal.withInitial(() -> new int[MoveGenerator.MAX_MOVES]);
+
+    private Notation() {
+    }
+
+    /**
+     * Returns the SAN of a legal move, including the check or mate suffix.
+     * The position is left unchanged.
+     */
+    public static String san(Position position, int move) {
+        StringBuilder san = new StringBuilder(8);
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int type = Piece.type(position.pieceAt(from));
+
+        if (PackedMove.flags(move) == PackedMove.KING_CASTLE) {
+            san.append("O-O");
+        } else if (PackedMove.flags(move) == PackedMove.QUEEN_CASTLE) {
+            san.append("O-O-O");
+        } else if (type == Piece.PAWN) {
+            if (PackedMove.isCapture(move)) {
+                san.append((char) ('a' + Square.file(from))).append('x');
+            }
+            san.append(Square.name(to));
+            if (PackedMove.isPromotion(move)) {
+                san.append('=').append(Character.toUpperCase(Piece.letter(PackedMove.promotionType(move))));
+            }
+        } else {
+            san.append(Character.toUpperCase(Piece.letter(type)));
+            appendDisambiguation(san, position, move, type);
+            if (PackedMove.isCapture(move)) {
+                san.append('x');
+            }
+            san.append(Square.name(to));
+        }
+
+        position.make(move);
+        if (position.isInCheck()) {
+            san.append(MoveGenerator.generateLegal(position, SCRATCH.get()) == 0 ? '#' : '+');
+        }
+        position.unmake(move);
+        return san.toString();
+    }
+
+    private static void appendDisambiguation(StringBuilder san, Position position, int move, int type) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int[] moves = SCRATCH.get();
+        int count = MoveGenerator.generateLegal(position, moves);
+
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < count; i++) {
+            int other = moves[i];
+            int otherFrom = PackedMove.from(other);
+            if (otherFrom != from && PackedMove.to(other) == to
+                    && Piece.type(position.pieceAt(otherFrom)) == type) {
+                ambiguous = true;
+                sameFile |= Square.file(otherFrom) == Square.file(from);
+                sameRank |= Square.rank(otherFrom) == Square.rank(from);
+            }
+        }
+
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            san.append((char) ('a' + Square.file(from)));
+        } else if (!sameRank) {
+            san.append((char) ('1' + Square.rank(from)));
+        } else {
+            san.append(Square.name(from));
+        }
+    }
+}
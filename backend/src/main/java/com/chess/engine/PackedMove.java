@@ -0,0 +1,73 @@
+package com.chess.engine;
+
+/**
+ * Moves are packed into the low 16 bits of an {@code int}:
+ * <pre>
+ *   bits  0-5   from square (a1 = 0 ... h8 = 63)
+ *   bits  6-11  to square
+ *   bits 12-15  flags
+ * </pre>
+ * Flag bit 2 marks captures and flag bit 3 marks promotions; for promotions the
+ * two low flag bits select the piece (knight, bishop, rook, queen).
+ */
+public final class PackedMove {
+
+    public static final int NONE = 0;
+
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PAWN_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int PROMOTION = 8;
+    public static final int PROMOTION_CAPTURE = 12;
+
+    private PackedMove() {
+    }
+
+    public static int of(int from, int to, int flags) {
+        return from | (to << 6) | (flags << 12);
+    }
+
+    public static int promotion(int from, int to, int promotionType, boolean capture) {
+        return of(from, to, (capture ? PROMOTION_CAPTURE : PROMOTION) | (promotionType - Piece.KNIGHT));
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int flags(int move) {
+        return (move >>> 12) & 0xF;
+    }
+
+    public static boolean isCapture(int move) {
+        return (flags(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (flags(move) & PROMOTION) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        int flags = flags(move);
+        return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+    }
+
+    /**
+     * Returns the promoted piece type, or {@link Piece#NONE} for non-promotions.
+     */
+    public static int promotionType(int move) {
+        return isPromotion(move) ? Piece.KNIGHT + (flags(move) & 0x3) : Piece.NONE;
+    }
+
+    public static String toUci(int move) {
+        String uci = Square.name(from(move)) + Square.name(to(move));
+        return isPromotion(move) ? uci + Piece.letter(promotionType(move)) : uci;
+    }
+}
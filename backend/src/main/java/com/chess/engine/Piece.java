@@ -0,0 +1,61 @@
+package com.chess.engine;
+
+/**
+ * Integer piece codes used by the bitboard engine.
+ * <p>
+ * A piece is encoded as {@code color * 6 + type}, so the twelve pieces map
+ * directly onto the bitboard array of {@link Position}.
+ */
+public final class Piece {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    public static final int NONE = -1;
+
+    private static final String LETTERS = "pnbrqk";
+
+    private Piece() {
+    }
+
+    public static int of(int color, int type) {
+        return color * 6 + type;
+    }
+
+    public static int color(int piece) {
+        return piece / 6;
+    }
+
+    public static int type(int piece) {
+        return piece % 6;
+    }
+
+    /**
+     * Returns the lowercase letter of a piece type ("p", "n", "b", "r", "q", "k").
+     */
+    public static char letter(int type) {
+        return LETTERS.charAt(type);
+    }
+
+    /**
+     * Returns the FEN letter of a piece: uppercase for white, lowercase for black.
+     */
+    public static char fenLetter(int piece) {
+        char c = LETTERS.charAt(type(piece));
+        return color(piece) == WHITE ? Character.toUpperCase(c) : c;
+    }
+
+    /**
+     * Parses a piece type letter, case-insensitively. Returns {@link #NONE} if unknown.
+     */
+    public static int typeOf(char letter) {
+        return LETTERS.indexOf(Character.toLowerCase(letter));
+    }
+}
@@ -0,0 +1,404 @@
+package com.chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * Mutable bitboard chess position.
+ * <p>
+ * The position keeps one bitboard per piece plus a square-indexed mailbox so that
+ * both set-wise and per-square queries are O(1). {@link #make(int)} and
+ * {@link #unmake(int)} use a fixed undo stack and never allocate; {@link #play(int)}
+ * applies a move permanently and is what the live game state uses. A {@link Zobrist}
+ * key is kept up to date by every change, so {@link #hash()} is O(1).
+ * <p>
+ * Instances are not thread-safe.
+ */
+public final class Position {
+
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+
+    private static final int MAX_DEPTH = 16;
+
+    private static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    /** Castling rights kept when a move touches a square; clears rights when a king or rook moves or is captured. */
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, 0xF);
+        CASTLING_MASK[0] &= ~WHITE_QUEEN_SIDE;
+        CASTLING_MASK[7] &= ~WHITE_KING_SIDE;
+        CASTLING_MASK[4] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+        CASTLING_MASK[56] &= ~BLACK_QUEEN_SIDE;
+        CASTLING_MASK[63] &= ~BLACK_KING_SIDE;
+        CASTLING_MASK[60] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+    }
+
+    private final long[] pieces = new long[12];
+    private final long[] colors = new long[2];
+    private final int[] board = new int[64];
+    private long occupied;
+
+    private int sideToMove;
+    private int castling;
+    private int epSquare = Square.NONE;
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+    // Zobrist key of pieces, castling rights and side to move; en passant is added by hash()
+    private long key;
+
+    private final int[] undoCaptured = new int[MAX_DEPTH];
+    private final int[] undoCastling = new int[MAX_DEPTH];
+    private final int[] undoEpSquare = new int[MAX_DEPTH];
+    private final int[] undoHalfmove = new int[MAX_DEPTH];
+    private final long[] undoKey = new long[MAX_DEPTH];
+    private int depth;
+
+    private Position() {
+        Arrays.fill(board, Piece.NONE);
+    }
+
+    public static Position initial() {
+        return fromFen(START_FEN);
+    }
+
+    /**
+     * Parses a FEN string.
+     *
+     * @throws IllegalArgumentException if the FEN is malformed
+     */
+    public static Position fromFen(String fen) {
+        if (fen == null) {
+            throw new IllegalArgumentException("FEN is null");
+        }
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("Invalid FEN: " + fen);
+        }
+
+        Position position = new Position();
+        int rank = 7;
+        int file = 0;
+        for (int i = 0; i < fields[0].length(); i++) {
+            char c = fields[0].charAt(i);
+            if (c == '/') {
+                if (file != 8) {
+                    throw new IllegalArgumentException("Invalid FEN rank: " + fen);
+                }
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+            } else {
+                int type = Piece.typeOf(c);
+                if (type == Piece.NONE || file > 7 || rank < 0) {
+                    throw new IllegalArgumentException("Invalid FEN piece placement: " + fen);
+                }
+                int color = Character.isUpperCase(c) ? Piece.WHITE : Piece.BLACK;
+                position.put(Square.of(file, rank), Piece.of(color, type));
+                file++;
+            }
+        }
+        if (rank != 0 || file != 8) {
+            throw new IllegalArgumentException("Invalid FEN piece placement: " + fen);
+        }
+        if (Long.bitCount(position.pieces[Piece.of(Piece.WHITE, Piece.KING)]) != 1
+                || Long.bitCount(position.pieces[Piece.of(Piece.BLACK, Piece.KING)]) != 1) {
+            throw new IllegalArgumentException("FEN must contain exactly one king per side: " + fen);
+        }
+
+        position.sideToMove = switch (fields[1]) {
+            case "w" -> Piece.WHITE;
+            case "b" -> Piece.BLACK;
+            default -> throw new IllegalArgumentException("Invalid FEN side to move: " + fen);
+        };
+
+        if (!fields[2].equals("-")) {
+            for (char c : fields[2].toCharArray()) {
+                position.castling |= switch (c) {
+                    case 'K' -> WHITE_KING_SIDE;
+                    case 'Q' -> WHITE_QUEEN_SIDE;
+                    case 'k' -> BLACK_KING_SIDE;
+                    case 'q' -> BLACK_QUEEN_SIDE;
+                    default -> throw new IllegalArgumentException("Invalid FEN castling rights: " + fen);
+                };
+            }
+        }
+
+        if (!fields[3].equals("-")) {
+            position.epSquare = Square.parse(fields[3]);
+            if (position.epSquare == Square.NONE) {
+                throw new IllegalArgumentException("Invalid FEN en passant square: " + fen);
+            }
+        }
+
+        position.key ^= Zobrist.castling(position.castling);
+        if (position.sideToMove == Piece.BLACK) {
+            position.key ^= Zobrist.sideToMove();
+        }
+
+        try {
+            position.halfmoveClock = fields.length > 4 ? Integer.parseInt(fields[4]) : 0;
+            position.fullmoveNumber = fields.length > 5 ? Integer.parseInt(fields[5]) : 1;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid FEN move counters: " + fen);
+        }
+        return position;
+    }
+
+    /**
+     * Formats the position as FEN. The en passant square is only written when a
+     * pawn could actually capture on it, matching what chess.js produces.
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                int piece = board[Square.of(file, rank)];
+                if (piece == Piece.NONE) {
+                    empty++;
+                } else {
+                    if (empty > 0) {
+                        fen.append(empty);
+                        empty = 0;
+                    }
+                    fen.append(Piece.fenLetter(piece));
+                }
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (rank > 0) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(sideToMove == Piece.WHITE ? " w " : " b ");
+
+        if (castling == 0) {
+            fen.append('-');
+        } else {
+            if ((castling & WHITE_KING_SIDE) != 0) fen.append('K');
+            if ((castling & WHITE_QUEEN_SIDE) != 0) fen.append('Q');
+            if ((castling & BLACK_KING_SIDE) != 0) fen.append('k');
+            if ((castling & BLACK_QUEEN_SIDE) != 0) fen.append('q');
+        }
+
+        fen.append(' ').append(hasEpCapture() ? Square.name(epSquare) : "-");
+        fen.append(' ').append(halfmoveClock);
+        fen.append(' ').append(fullmoveNumber);
+        return fen.toString();
+    }
+
+    /**
+     * Applies a move and pushes undo information. Must be paired with {@link #unmake(int)}.
+     */
+    public void make(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int flags = PackedMove.flags(move);
+        int us = sideToMove;
+        int piece = board[from];
+        int captured = Piece.NONE;
+
+        undoCastling[depth] = castling;
+        undoEpSquare[depth] = epSquare;
+        undoHalfmove[depth] = halfmoveClock;
+        undoKey[depth] = key;
+
+        if (flags == PackedMove.EN_PASSANT) {
+            int capturedSquare = us == Piece.WHITE ? to - 8 : to + 8;
+            captured = board[capturedSquare];
+            remove(capturedSquare);
+        } else if (PackedMove.isCapture(move)) {
+            captured = board[to];
+            remove(to);
+        }
+        undoCaptured[depth] = captured;
+        depth++;
+
+        remove(from);
+        put(to, PackedMove.isPromotion(move) ? Piece.of(us, PackedMove.promotionType(move)) : piece);
+
+        if (flags == PackedMove.KING_CASTLE) {
+            int rook = remove(to + 1);
+            put(to - 1, rook);
+        } else if (flags == PackedMove.QUEEN_CASTLE) {
+            int rook = remove(to - 2);
+            put(to + 1, rook);
+        }
+
+        key ^= Zobrist.castling(castling);
+        castling &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        key ^= Zobrist.castling(castling) ^ Zobrist.sideToMove();
+        epSquare = flags == PackedMove.DOUBLE_PAWN_PUSH ? (from + to) >>> 1 : Square.NONE;
+        halfmoveClock = (Piece.type(piece) == Piece.PAWN || captured != Piece.NONE) ? 0 : halfmoveClock + 1;
+        if (us == Piece.BLACK) {
+            fullmoveNumber++;
+        }
+        sideToMove = us ^ 1;
+    }
+
+    /**
+     * Reverts the last move applied with {@link #make(int)}.
+     */
+    public void unmake(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int flags = PackedMove.flags(move);
+        int us = sideToMove ^ 1;
+
+        depth--;
+        sideToMove = us;
+        if (us == Piece.BLACK) {
+            fullmoveNumber--;
+        }
+        castling = undoCastling[depth];
+        epSquare = undoEpSquare[depth];
+        halfmoveClock = undoHalfmove[depth];
+
+        if (flags == PackedMove.KING_CASTLE) {
+            int rook = remove(to - 1);
+            put(to + 1, rook);
+        } else if (flags == PackedMove.QUEEN_CASTLE) {
+            int rook = remove(to + 1);
+            put(to - 2, rook);
+        }
+
+        int piece = remove(to);
+        put(from, PackedMove.isPromotion(move) ? Piece.of(us, Piece.PAWN) : piece);
+
+        int captured = undoCaptured[depth];
+        if (captured != Piece.NONE) {
+            put(flags == PackedMove.EN_PASSANT ? (us == Piece.WHITE ? to - 8 : to + 8) : to, captured);
+        }
+        key = undoKey[depth];
+    }
+
+    /**
+     * Applies a move permanently, without keeping undo information.
+     */
+    public void play(int move) {
+        make(move);
+        depth = 0;
+    }
+
+    /**
+     * Zobrist hash of the position. Like {@link #toFen()}, the en passant square only
+     * counts when a pawn could capture on it, so transpositions hash alike. Move
+     * counters are not part of the hash.
+     */
+    public long hash() {
+        return hasEpCapture() ? key ^ Zobrist.enPassant(epSquare) : key;
+    }
+
+    /**
+     * True when neither side can ever mate: bare kings, a lone knight or bishop, or
+     * only bishops, all on squares of one colour.
+     */
+    public boolean isInsufficientMaterial() {
+        long pawnsAndMajors = 0;
+        for (int color = Piece.WHITE; color <= Piece.BLACK; color++) {
+            pawnsAndMajors |= pieces[Piece.of(color, Piece.PAWN)]
+                    | pieces[Piece.of(color, Piece.ROOK)]
+                    | pieces[Piece.of(color, Piece.QUEEN)];
+        }
+        if (pawnsAndMajors != 0) {
+            return false;
+        }
+        long knights = pieces[Piece.of(Piece.WHITE, Piece.KNIGHT)] | pieces[Piece.of(Piece.BLACK, Piece.KNIGHT)];
+        long bishops = pieces[Piece.of(Piece.WHITE, Piece.BISHOP)] | pieces[Piece.of(Piece.BLACK, Piece.BISHOP)];
+        if (Long.bitCount(knights | bishops) <= 1) {
+            return true;
+        }
+        return knights == 0 && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
+    }
+
+    public boolean isSquareAttacked(int square, int byColor) {
+        int base = byColor * 6;
+        if ((Attacks.pawn(byColor ^ 1, square) & pieces[base + Piece.PAWN]) != 0) return true;
+        if ((Attacks.knight(square) & pieces[base + Piece.KNIGHT]) != 0) return true;
+        if ((Attacks.king(square) & pieces[base + Piece.KING]) != 0) return true;
+        long queens = pieces[base + Piece.QUEEN];
+        if ((Attacks.bishop(square, occupied) & (pieces[base + Piece.BISHOP] | queens)) != 0) return true;
+        return (Attacks.rook(square, occupied) & (pieces[base + Piece.ROOK] | queens)) != 0;
+    }
+
+    public boolean isInCheck() {
+        return isKingAttacked(sideToMove);
+    }
+
+    boolean isKingAttacked(int color) {
+        int king = Long.numberOfTrailingZeros(pieces[Piece.of(color, Piece.KING)]);
+        return isSquareAttacked(king, color ^ 1);
+    }
+
+    private boolean hasEpCapture() {
+        if (epSquare == Square.NONE) {
+            return false;
+        }
+        return (Attacks.pawn(sideToMove ^ 1, epSquare) & pieces[Piece.of(sideToMove, Piece.PAWN)]) != 0;
+    }
+
+    private void put(int square, int piece) {
+        long bit = 1L << square;
+        pieces[piece] |= bit;
+        colors[Piece.color(piece)] |= bit;
+        occupied |= bit;
+        board[square] = piece;
+        key ^= Zobrist.piece(piece, square);
+    }
+
+    private int remove(int square) {
+        int piece = board[square];
+        long bit = ~(1L << square);
+        pieces[piece] &= bit;
+        colors[Piece.color(piece)] &= bit;
+        occupied &= bit;
+        board[square] = Piece.NONE;
+        key ^= Zobrist.piece(piece, square);
+        return piece;
+    }
+
+    public int pieceAt(int square) {
+        return board[square];
+    }
+
+    public long pieces(int color, int type) {
+        return pieces[Piece.of(color, type)];
+    }
+
+    public long colorOccupancy(int color) {
+        return colors[color];
+    }
+
+    public long occupied() {
+        return occupied;
+    }
+
+    public int sideToMove() {
+        return sideToMove;
+    }
+
+    public int castlingRights() {
+        return castling;
+    }
+
+    public int epSquare() {
+        return epSquare;
+    }
+
+    public int halfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int fullmoveNumber() {
+        return fullmoveNumber;
+    }
+}
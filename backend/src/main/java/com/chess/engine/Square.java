@@ -0,0 +1,43 @@
+package com.chess.engine;
+
+/**
+ * Square helpers. Squares are numbered a1 = 0, b1 = 1, ... h8 = 63.
+ */
+public final class Square {
+
+    public static final int NONE = -1;
+
+    private Square() {
+    }
+
+    public static int of(int file, int rank) {
+        return rank * 8 + file;
+    }
+
+    public static int file(int square) {
+        return square & 7;
+    }
+
+    public static int rank(int square) {
+        return square >>> 3;
+    }
+
+    public static String name(int square) {
+        return String.valueOf((char) ('a' + file(square))) + (char) ('1' + rank(square));
+    }
+
+    /**
+     * Parses algebraic square names such as "e4". Returns {@link #NONE} when malformed.
+     */
+    public static int parse(String name) {
+        if (name == null || name.length() != 2) {
+            return NONE;
+        }
+        int file = name.charAt(0) - 'a';
+        int rank = name.charAt(1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            return NONE;
+        }
+        return of(file, rank);
+    }
+}
@@ -0,0 +1,62 @@
+package com.chess.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys for {@link Position#hash()}.
+ * <p>
+ * The keys come from a fixed seed, so a position hashes to the same value on every
+ * run; hashes are persisted by the position index and must stay stable.
+ */
+public final class Zobrist {
+
+    private static final long SEED = 0x5EED_C4E5_5B0A_4D17L;
+
+    private static final long[] PIECE_SQUARE = new long[12 * 64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long SIDE_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < PIECE_SQUARE.length; i++) {
+            PIECE_SQUARE[i] = random.nextLong();
+        }
+        // One key per combination of rights, so a change is a single xor
+        long[] rights = new long[4];
+        for (int i = 0; i < rights.length; i++) {
+            rights[i] = random.nextLong();
+        }
+        for (int mask = 0; mask < CASTLING.length; mask++) {
+            for (int bit = 0; bit < rights.length; bit++) {
+                if ((mask & (1 << bit)) != 0) {
+                    CASTLING[mask] ^= rights[bit];
+                }
+            }
+        }
+        for (int i = 0; i < EN_PASSANT_FILE.length; i++) {
+            EN_PASSANT_FILE[i] = random.nextLong();
+        }
+        SIDE_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    public static long piece(int piece, int square) {
+        return PIECE_SQUARE[piece * 64 + square];
+    }
+
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    public static long enPassant(int square) {
+        return EN_PASSANT_FILE[Square.file(square)];
+    }
+
+    /** Xored in when black is to move. */
+    public static long sideToMove() {
+        return SIDE_TO_MOVE;
+    }
+}
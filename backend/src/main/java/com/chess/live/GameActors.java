@@ -0,0 +1,118 @@
+package com.chess.live;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * One mailbox per game: commands for a game (move, end, join, resign) run one at a
+ * time in submission order, while different games run in parallel.
+ * <p>
+ * A mailbox is drained by at most one virtual thread at a time, so a {@link LiveGame}
+ * is only ever touched by one thread and needs no lock. Commands that block on the
+ * database park their virtual thread without holding up other games.
+ * <p>
+ * A mailbox exists only while it has commands: it is removed once drained, in the
+ * same atomic step that would otherwise let a new command in, so a game never has
+ * two mailboxes running and commands for finished or unknown games leave nothing
+ * behind.
+ */
+@Component
+public class GameActors {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameActors.class);
+
+    // Commands run per turn before a busy game yields its thread
+    private static final int BATCH_SIZE = 64;
+
+    private final Map<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("game-actor-", 0).factory());
+
+    /**
+     * Queues a command for a game without waiting for it.
+     */
+    public void tell(Long gameId, Runnable command) {
+        Mailbox mailbox = mailboxes.compute(gameId, (id, existing) -> {
+            Mailbox target = existing != null ? existing : new Mailbox(id);
+            target.commands.add(command);
+            return target;
+        });
+        mailbox.schedule();
+    }
+
+    /**
+     * Queues a command for a game; the future completes with its result once it has run.
+     */
+    public <T> CompletableFuture<T> ask(Long gameId, Supplier<T> command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        tell(gameId, () -> {
+            try {
+                result.complete(command.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /** Games with commands queued or running. */
+    public int size() {
+        return mailboxes.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private final class Mailbox {
+
+        private final Long gameId;
+        private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Mailbox(Long gameId) {
+            this.gameId = gameId;
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Runnable command;
+                for (int i = 0; i < BATCH_SIZE && (command = commands.poll()) != null; i++) {
+                    try {
+                        command.run();
+                    } catch (RuntimeException e) {
+                        logger.error("Command for game {} failed", gameId, e);
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+                // Commands are only added inside compute, so an idle, empty mailbox removed here stays empty
+                mailboxes.computeIfPresent(gameId, (id, mailbox) ->
+                        mailbox == this && !scheduled.get() && commands.isEmpty() ? null : mailbox);
+                // A command may have arrived after the last poll but before the flag was cleared
+                if (!commands.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.chess.live;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chess clock with increment. Only the game's mailbox calls {@link #punch(long)};
+ * the state is swapped as a whole on each punch, so any thread may read it.
+ * Times are in milliseconds on the {@link #now()} time base.
+ */
+public class GameClock {
+
+    private final long initialMs;
+    private final long incrementMs;
+    private volatile State state;
+
+    private record State(long whiteMs, long blackMs, boolean whiteToMove, long since) {
+    }
+
+    public GameClock(long initialMs, long incrementMs, long whiteMs, long blackMs, boolean whiteToMove, long now) {
+        this.initialMs = initialMs;
+        this.incrementMs = incrementMs;
+        this.state = new State(whiteMs, blackMs, whiteToMove, now);
+    }
+
+    /** Monotonic milliseconds; not wall-clock time. */
+    public static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    public long getInitialMs() {
+        return initialMs;
+    }
+
+    public long getIncrementMs() {
+        return incrementMs;
+    }
+
+    public boolean isWhiteToMove() {
+        return state.whiteToMove();
+    }
+
+    public long whiteRemainingMs(long now) {
+        return remaining(state, true, now);
+    }
+
+    public long blackRemainingMs(long now) {
+        return remaining(state, false, now);
+    }
+
+    public long sideToMoveRemainingMs(long now) {
+        State current = state;
+        return remaining(current, current.whiteToMove(), now);
+    }
+
+    public boolean isFlagged(long now) {
+        return sideToMoveRemainingMs(now) == 0;
+    }
+
+    /**
+     * Ends the current player's turn: charges the time spent, adds the increment and
+     * starts the opponent's clock.
+     */
+    public void punch(long now) {
+        State current = state;
+        long left = remaining(current, current.whiteToMove(), now) + incrementMs;
+        state = current.whiteToMove()
+                ? new State(left, current.blackMs(), false, now)
+                : new State(current.whiteMs(), left, true, now);
+    }
+
+    private static long remaining(State state, boolean white, long now) {
+        long ms = white ? state.whiteMs() : state.blackMs();
+        if (state.whiteToMove() == white) {
+            ms -= now - state.since();
+        }
+        return Math.max(ms, 0);
+    }
+}
@@ -0,0 +1,170 @@
+package com.chess.live;
+
+import com.chess.engine.MoveListCodec;
+import com.chess.engine.Piece;
+import com.chess.engine.Position;
+
+import java.util.Arrays;
+
+/**
+ * Hot, in-memory state of a game that is being played.
+ * <p>
+ * Holds everything the move path needs (players, current position and ply counter)
+ * so that a move can be validated and numbered without reading the database.
+ * Not thread-safe: it is only read and written by commands running on the game's
+ * {@link GameActors} mailbox, one at a time.
+ */
+public class LiveGame {
+
+    private final Long id;
+    private final Long whitePlayerId;
+    private final String whiteUsername;
+    private final Long blackPlayerId;
+    private final String blackUsername;
+    private final Position position;
+    private int ply;
+    // Null for untimed games
+    private final GameClock clock;
+    private TimingWheel.Timeout flagTimeout;
+    private final RecentMoves recentMoves;
+    private final PositionHistory history;
+    // Player whose draw offer stands until the next move; null if none
+    private Long drawOfferedBy;
+
+    // Packed move list in MoveListCodec format, grown geometrically
+    private byte[] moveData;
+    private int moveCount;
+
+    public LiveGame(Long id, Long whitePlayerId, String whiteUsername,
+                    Long blackPlayerId, String blackUsername, Position position, int ply, GameClock clock,
+                    int recentMoveCapacity) {
+        this(id, whitePlayerId, whiteUsername, blackPlayerId, blackUsername, position, ply, new byte[0], clock,
+                recentMoveCapacity);
+    }
+
+    public LiveGame(Long id, Long whitePlayerId, String whiteUsername, Long blackPlayerId, String blackUsername,
+                    Position position, int ply, byte[] moveData, GameClock clock, int recentMoveCapacity) {
+        this.id = id;
+        this.whitePlayerId = whitePlayerId;
+        this.whiteUsername = whiteUsername;
+        this.blackPlayerId = blackPlayerId;
+        this.blackUsername = blackUsername;
+        this.position = position;
+        this.ply = ply;
+        this.moveData = Arrays.copyOf(moveData, Math.max(moveData.length, 64 * MoveListCodec.BYTES_PER_MOVE));
+        this.moveCount = MoveListCodec.count(moveData);
+        this.clock = clock;
+        this.recentMoves = new RecentMoves(recentMoveCapacity, ply);
+        // Rebuilt from the move list when it is complete, so repetitions from before a reload count
+        this.history = moveCount == ply && ply > 0
+                ? PositionHistory.replay(moveData, position)
+                : new PositionHistory(position.hash(), position.halfmoveClock());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getWhitePlayerId() {
+        return whitePlayerId;
+    }
+
+    public String getWhiteUsername() {
+        return whiteUsername;
+    }
+
+    public Long getBlackPlayerId() {
+        return blackPlayerId;
+    }
+
+    public String getBlackUsername() {
+        return blackUsername;
+    }
+
+    public Position getPosition() {
+        return position;
+    }
+
+    public GameClock getClock() {
+        return clock;
+    }
+
+    /** Pending flag-fall check for the player to move, if the game is timed. */
+    public TimingWheel.Timeout getFlagTimeout() {
+        return flagTimeout;
+    }
+
+    public void setFlagTimeout(TimingWheel.Timeout flagTimeout) {
+        this.flagTimeout = flagTimeout;
+    }
+
+    /** Latest accepted moves, for catching up reconnecting clients. */
+    public RecentMoves getRecentMoves() {
+        return recentMoves;
+    }
+
+    /** Positions since the last capture or pawn move, for repetition draws. */
+    public PositionHistory getHistory() {
+        return history;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Claims the next move number, provided it follows {@code expectedPly}.
+     * Returns the 1-based move number, or -1 if the ply was already taken.
+     */
+    public int claimPly(int expectedPly) {
+        if (ply != expectedPly) {
+            return -1;
+        }
+        return ++ply;
+    }
+
+    /**
+     * Appends a move just played on the position to the packed move list, and the
+     * position it reached to the repetition history.
+     */
+    public void recordMove(int packedMove) {
+        if ((moveCount + 1) * MoveListCodec.BYTES_PER_MOVE > moveData.length) {
+            moveData = Arrays.copyOf(moveData, moveData.length * 2);
+        }
+        MoveListCodec.write(moveData, moveCount++, packedMove);
+        history.push(position.hash(), position.halfmoveClock());
+        drawOfferedBy = null;
+    }
+
+    /**
+     * Records a player's draw offer. Returns true if the opponent's offer was
+     * standing, i.e. both players agree to a draw.
+     */
+    public boolean offerDraw(Long userId) {
+        if (drawOfferedBy != null && !drawOfferedBy.equals(userId)) {
+            return true;
+        }
+        drawOfferedBy = userId;
+        return false;
+    }
+
+
+    /**
+     * Returns a copy of the packed move list, suitable for storing on {@code Game}.
+     */
+    public byte[] moveDataSnapshot() {
+        return Arrays.copyOf(moveData, moveCount * MoveListCodec.BYTES_PER_MOVE);
+    }
+
+    public boolean isPlayer(Long userId) {
+        return whitePlayerId.equals(userId) || blackPlayerId.equals(userId);
+    }
+
+    public Long getPlayerToMove() {
+        return position.sideToMove() == Piece.WHITE ? whitePlayerId : blackPlayerId;
+    }
+
+    public String getCurrentTurn() {
+        return position.sideToMove() == Piece.WHITE ? "white" : "black";
+    }
+}
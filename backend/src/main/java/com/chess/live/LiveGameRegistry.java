@@ -0,0 +1,39 @@
+package com.chess.live;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of in-progress games, keyed by game id.
+ * <p>
+ * Entries are registered when a game is created and evicted when it finishes.
+ * Games started before a restart are loaded lazily by {@code GameService}.
+ */
+@Component
+public class LiveGameRegistry {
+
+    private final Map<Long, LiveGame> games = new ConcurrentHashMap<>();
+
+    public Optional<LiveGame> get(Long gameId) {
+        return Optional.ofNullable(games.get(gameId));
+    }
+
+    /**
+     * Registers a game unless another thread already did, and returns the winning entry.
+     */
+    public LiveGame register(LiveGame game) {
+        LiveGame existing = games.putIfAbsent(game.getId(), game);
+        return existing != null ? existing : game;
+    }
+
+    public void evict(Long gameId) {
+        games.remove(gameId);
+    }
+
+    public int size() {
+        return games.size();
+    }
+}
@@ -0,0 +1,154 @@
+package com.chess.live;
+
+import com.chess.dto.InvitationDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Pending invitations held on this node, indexed by id, receiver and sender.
+ * <p>
+ * Each invitation expires {@code ttl-seconds} after it was created: a timing wheel
+ * task drops it from the index and queues it for {@link #drainExpired(int)}. An
+ * invitation leaves the index exactly once, either claimed by its receiver or
+ * expired, whichever removes it first.
+ */
+@Component
+public class PendingInvitations {
+
+    private final TimingWheel timingWheel;
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> byReceiver = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> bySender = new ConcurrentHashMap<>();
+    private final Queue<InvitationDTO> expired = new ConcurrentLinkedQueue<>();
+
+    @Value("${chess.invitations.ttl-seconds:120}")
+    private long ttlSeconds;
+
+    private static final class Entry {
+
+        private final InvitationDTO invitation;
+        // Set just after indexing; a claim that gets in first leaves a no-op expiry behind
+        private volatile TimingWheel.Timeout timeout;
+
+        Entry(InvitationDTO invitation) {
+            this.invitation = invitation;
+        }
+    }
+
+    public PendingInvitations(TimingWheel timingWheel) {
+        this.timingWheel = timingWheel;
+    }
+
+    /**
+     * Indexes a pending invitation and schedules its expiry. An invitation already
+     * past its time to live expires on the next tick.
+     */
+    public void add(InvitationDTO invitation) {
+        Long id = invitation.getId();
+        Entry entry = new Entry(invitation);
+        if (byId.putIfAbsent(id, entry) != null) {
+            return;
+        }
+        put(byReceiver, invitation.getReceiverId(), id);
+        put(bySender, invitation.getSenderId(), id);
+
+        LocalDateTime expiresAt = invitation.getCreatedAt().plusSeconds(ttlSeconds);
+        long delayMs = Duration.between(LocalDateTime.now(), expiresAt).toMillis();
+        entry.timeout = timingWheel.schedule(delayMs, () -> expire(id));
+    }
+
+    /**
+     * Removes the invitation if it is pending and addressed to {@code receiverId}.
+     * Empty if it expired, was already answered, or is not held on this node.
+     */
+    public Optional<InvitationDTO> claim(Long id, Long receiverId) {
+        Entry entry = byId.get(id);
+        if (entry == null || !entry.invitation.getReceiverId().equals(receiverId) || !byId.remove(id, entry)) {
+            return Optional.empty();
+        }
+        TimingWheel.Timeout timeout = entry.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        unindex(entry.invitation);
+        return Optional.of(entry.invitation);
+    }
+
+    public List<InvitationDTO> forReceiver(Long userId) {
+        return lookup(byReceiver, userId);
+    }
+
+    public List<InvitationDTO> forSender(Long userId) {
+        return lookup(bySender, userId);
+    }
+
+    /** Takes up to {@code max} expired invitations, oldest expiry first. */
+    public List<InvitationDTO> drainExpired(int max) {
+        List<InvitationDTO> batch = new ArrayList<>();
+        InvitationDTO invitation;
+        while (batch.size() < max && (invitation = expired.poll()) != null) {
+            batch.add(invitation);
+        }
+        return batch;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    // Runs on the timing wheel thread; must not block
+    private void expire(Long id) {
+        Entry entry = byId.remove(id);
+        if (entry != null) {
+            unindex(entry.invitation);
+            expired.add(entry.invitation);
+        }
+    }
+
+    private void unindex(InvitationDTO invitation) {
+        remove(byReceiver, invitation.getReceiverId(), invitation.getId());
+        remove(bySender, invitation.getSenderId(), invitation.getId());
+    }
+
+    private List<InvitationDTO> lookup(Map<Long, Set<Long>> index, Long userId) {
+        Set<Long> ids = index.get(userId);
+        if (ids == null) {
+            return List.of();
+        }
+        List<InvitationDTO> invitations = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Entry entry = byId.get(id);
+            if (entry != null) {
+                invitations.add(entry.invitation);
+            }
+        }
+        return invitations;
+    }
+
+    private static void put(Map<Long, Set<Long>> index, Long userId, Long id) {
+        index.compute(userId, (key, ids) -> {
+            Set<Long> updated = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            updated.add(id);
+            return updated;
+        });
+    }
+
+    private static void remove(Map<Long, Set<Long>> index, Long userId, Long id) {
+        // Drops the user's set once empty; both sides update it inside compute so no id is lost
+        index.computeIfPresent(userId, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
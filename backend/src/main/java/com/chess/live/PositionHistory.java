@@ -0,0 +1,82 @@
+package com.chess.live;
+
+import com.chess.engine.MoveGenerator;
+import com.chess.engine.MoveListCodec;
+import com.chess.engine.PackedMove;
+import com.chess.engine.Position;
+
+import java.util.Arrays;
+
+/**
+ * Zobrist hashes of a live game's positions since the last capture or pawn move,
+ * for repetition and fifty-move detection. No earlier position can occur again, so
+ * the history is cleared on every such move; the fifty-move rule ends the game
+ * before it holds more than 100 positions, which bounds the work per move.
+ */
+public class PositionHistory {
+
+    private long[] hashes = new long[32];
+    private int size;
+    private int repetitions;
+    private int halfmoveClock;
+
+    /** Starts from the current position, with nothing known about earlier ones. */
+    public PositionHistory(long hash, int halfmoveClock) {
+        push(hash, halfmoveClock);
+    }
+
+    /**
+     * Replays a game's move list to rebuild its history. Falls back to the current
+     * position alone if the list does not lead to {@code current}.
+     */
+    public static PositionHistory replay(byte[] moveData, Position current) {
+        Position position = Position.initial();
+        PositionHistory history = new PositionHistory(position.hash(), 0);
+        for (int i = 0; i < MoveListCodec.count(moveData); i++) {
+            int stored = MoveListCodec.read(moveData, i);
+            int move = MoveGenerator.findLegal(position, PackedMove.from(stored), PackedMove.to(stored),
+                    PackedMove.promotionType(stored));
+            if (move == PackedMove.NONE) {
+                break;
+            }
+            position.play(move);
+            history.push(position.hash(), position.halfmoveClock());
+        }
+        return position.hash() == current.hash()
+                ? history
+                : new PositionHistory(current.hash(), current.halfmoveClock());
+    }
+
+    /**
+     * Records the position a move reached; a halfmove clock of 0 means the move was
+     * a capture or pawn move.
+     */
+    public void push(long hash, int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+        if (halfmoveClock == 0) {
+            size = 0;
+        }
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        hashes[size++] = hash;
+
+        // The same side is to move only every other ply
+        repetitions = 1;
+        for (int i = size - 3; i >= 0; i -= 2) {
+            if (hashes[i] == hash) {
+                repetitions++;
+            }
+        }
+    }
+
+    /** How many times the latest position has occurred, counting itself. */
+    public int repetitions() {
+        return repetitions;
+    }
+
+    /** Whether fifty moves by each side have passed without a capture or pawn move. */
+    public boolean fiftyMoveRule() {
+        return halfmoveClock >= 100;
+    }
+}
@@ -0,0 +1,48 @@
+package com.chess.live;
+
+import com.chess.dto.MoveDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ring buffer of a live game's latest accepted moves, so a reconnecting client that
+ * is only a few plies behind can be sent just what it missed.
+ */
+public class RecentMoves {
+
+    private final MoveDTO[] moves;
+    // Ply the game was at when the buffer started; earlier moves were never held
+    private final int startPly;
+    private int lastPly;
+
+    public RecentMoves(int capacity, int startPly) {
+        this.moves = new MoveDTO[capacity];
+        this.startPly = startPly;
+        this.lastPly = startPly;
+    }
+
+    /** Adds the next move; its move number must follow the last one added. */
+    public void add(MoveDTO move) {
+        lastPly = move.getMoveNumber();
+        if (moves.length > 0) {
+            moves[(lastPly - 1) % moves.length] = move;
+        }
+    }
+
+    /**
+     * Returns the moves played after {@code ply}, oldest first, or null if some of
+     * them are no longer held (or {@code ply} is ahead of the game).
+     */
+    public List<MoveDTO> after(int ply) {
+        int oldestHeld = Math.max(startPly + 1, lastPly - moves.length + 1);
+        if (ply > lastPly || ply + 1 < oldestHeld) {
+            return null;
+        }
+        List<MoveDTO> missed = new ArrayList<>(lastPly - ply);
+        for (int p = ply + 1; p <= lastPly; p++) {
+            missed.add(moves[(p - 1) % moves.length]);
+        }
+        return missed;
+    }
+}
@@ -0,0 +1,252 @@
+package com.chess.live;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hierarchical hashed timing wheel for large numbers of coarse timeouts, such as
+ * one flag-fall deadline per timed game.
+ * <p>
+ * Three wheels of 256 slots cover 2<sup>8</sup>, 2<sup>16</sup> and 2<sup>24</sup>
+ * ticks; a timeout sits in the finest wheel that spans its deadline and moves down
+ * a level each time the wheel above it turns. Scheduling and cancelling are O(1):
+ * callers only enqueue, and a single worker thread owns the wheels, so no lock is
+ * taken. Timeouts fire up to one tick late. Tasks run on the worker thread and
+ * must not block.
+ */
+@Component
+public class TimingWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimingWheel.class);
+
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 3;
+    private static final long MAX_SPAN = 1L << (WHEEL_BITS * LEVELS);
+
+    @Value("${chess.clock.tick-ms:50}")
+    private long tickMs;
+
+    private final Bucket[][] wheels = new Bucket[LEVELS][WHEEL_SIZE];
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private long tickNanos;
+    private long startNanos;
+    private volatile boolean running;
+    private Thread worker;
+
+    // Ticks elapsed since start; only the worker reads or writes it
+    private long tick;
+
+    @PostConstruct
+    public void start() {
+        for (Bucket[] wheel : wheels) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                wheel[slot] = new Bucket();
+            }
+        }
+        tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        startNanos = System.nanoTime();
+        running = true;
+        worker = Thread.ofPlatform().name("timing-wheel").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(worker);
+        worker.join();
+    }
+
+    /**
+     * Runs {@code task} once, about {@code delayMs} from now, unless cancelled first.
+     */
+    public Timeout schedule(long delayMs, Runnable task) {
+        long elapsed = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(delayMs, 0));
+        Timeout timeout = new Timeout((elapsed + tickNanos - 1) / tickNanos, task);
+        scheduled.add(timeout);
+        pending.incrementAndGet();
+        return timeout;
+    }
+
+    /** Timeouts scheduled and neither fired nor cancelled yet. */
+    public int size() {
+        return pending.get();
+    }
+
+    private void run() {
+        while (running) {
+            long wakeAt = startNanos + (tick + 1) * tickNanos;
+            long sleep;
+            while (running && (sleep = wakeAt - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(sleep);
+            }
+            tick++;
+            cascade();
+            unlinkCancelled();
+            placeScheduled();
+            expire();
+        }
+    }
+
+    /** When a wheel wraps, moves the due slot of the wheel above down into the finer wheels. */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if (((tick >>> (WHEEL_BITS * (level - 1))) & WHEEL_MASK) != 0) {
+                return;
+            }
+            Bucket bucket = wheels[level][(int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK)];
+            Timeout timeout;
+            while ((timeout = bucket.poll()) != null) {
+                place(timeout);
+            }
+        }
+    }
+
+    private void unlinkCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void placeScheduled() {
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.state.get() == Timeout.WAITING) {
+                place(timeout);
+            }
+        }
+    }
+
+    private void expire() {
+        Bucket bucket = wheels[0][(int) (tick & WHEEL_MASK)];
+        Timeout timeout;
+        while ((timeout = bucket.poll()) != null) {
+            if (timeout.deadline > tick) {
+                place(timeout);
+            } else if (timeout.state.compareAndSet(Timeout.WAITING, Timeout.EXPIRED)) {
+                pending.decrementAndGet();
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    logger.error("Timing wheel task failed", e);
+                }
+            }
+        }
+    }
+
+    private void place(Timeout timeout) {
+        long delta = timeout.deadline - tick;
+        if (delta < WHEEL_SIZE) {
+            // Overdue timeouts go in the current slot, which is expired next
+            long due = Math.max(timeout.deadline, tick);
+            wheels[0][(int) (due & WHEEL_MASK)].add(timeout);
+            return;
+        }
+        for (int level = 1; level < LEVELS; level++) {
+            if (delta < 1L << (WHEEL_BITS * (level + 1))) {
+                wheels[level][(int) ((timeout.deadline >>> (WHEEL_BITS * level)) & WHEEL_MASK)].add(timeout);
+                return;
+            }
+        }
+        // Beyond the top wheel: park in the slot that turns last, and place again from there
+        long farthest = tick + MAX_SPAN - 1;
+        wheels[LEVELS - 1][(int) ((farthest >>> (WHEEL_BITS * (LEVELS - 1))) & WHEEL_MASK)].add(timeout);
+    }
+
+    /**
+     * Handle on a scheduled task.
+     */
+    public final class Timeout {
+
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final long deadline;
+        private final Runnable task;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        // Bucket membership, only touched by the worker
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(long deadline, Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        /**
+         * Cancels the task if it has not run yet. Returns false if it already ran or
+         * was already cancelled.
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            pending.decrementAndGet();
+            cancelled.add(this);
+            return true;
+        }
+    }
+
+    /** Intrusive doubly linked list of timeouts, so a cancelled one is unlinked in O(1). */
+    private static final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        Timeout poll() {
+            Timeout timeout = head;
+            if (timeout != null) {
+                remove(timeout);
+            }
+            return timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+    }
+}
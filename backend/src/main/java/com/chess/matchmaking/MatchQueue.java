@@ -0,0 +1,135 @@
+package com.chess.matchmaking;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.random.RandomGenerator;
+
+/**
+ * The waiting players and the pairing pass of {@link Matchmaker}. Not thread-safe:
+ * only the matchmaker thread touches it.
+ * <p>
+ * Each time control has a tree ordered by rating, so the nearest opponent of a player
+ * is found in O(log n). A player accepts opponents within a window that starts at
+ * {@code bucketWidth} either side and widens by one bucket every {@code widenEveryMs}
+ * of waiting, up to {@code maxWindow}; the longest-waiting players are paired first.
+ */
+class MatchQueue {
+
+    /** A queued player; {@code sessionId} is the WebSocket session that joined. */
+    record Ticket(Long userId, String username, String sessionId, Matchmaker.TimeControl timeControl,
+                  double rating, long joinedAt, long seq) {
+    }
+
+    record Pairing(Ticket white, Ticket black) {
+    }
+
+    private static final Comparator<Ticket> BY_RATING =
+            Comparator.comparingDouble(Ticket::rating).thenComparingLong(Ticket::seq);
+
+    private final double bucketWidth;
+    private final long widenEveryMs;
+    private final double maxWindow;
+    private final RandomGenerator random;
+
+    // Waiting is in join order, so the longest waiting come first
+    private final Map<Matchmaker.TimeControl, TreeSet<Ticket>> queues = new HashMap<>();
+    private final Map<Long, Ticket> waiting = new LinkedHashMap<>();
+    private long nextSeq;
+
+    MatchQueue(double bucketWidth, long widenEveryMs, double maxWindow, RandomGenerator random) {
+        this.bucketWidth = bucketWidth;
+        this.widenEveryMs = widenEveryMs;
+        this.maxWindow = maxWindow;
+        this.random = random;
+    }
+
+    /** Queues the player, replacing any earlier entry. */
+    Ticket add(Long userId, String username, String sessionId, Matchmaker.TimeControl timeControl,
+               double rating, long joinedAt) {
+        remove(userId, null);
+        Ticket ticket = new Ticket(userId, username, sessionId, timeControl, rating, joinedAt, nextSeq++);
+        waiting.put(userId, ticket);
+        queues.computeIfAbsent(timeControl, key -> new TreeSet<>(BY_RATING)).add(ticket);
+        return ticket;
+    }
+
+    /**
+     * Removes the player's entry if it was queued from {@code sessionId}, or from any
+     * session when {@code sessionId} is null. Returns whether an entry was removed.
+     */
+    boolean remove(Long userId, String sessionId) {
+        Ticket ticket = waiting.get(userId);
+        if (ticket == null || (sessionId != null && !Objects.equals(sessionId, ticket.sessionId()))) {
+            return false;
+        }
+        waiting.remove(userId);
+        TreeSet<Ticket> queue = queues.get(ticket.timeControl());
+        queue.remove(ticket);
+        if (queue.isEmpty()) {
+            queues.remove(ticket.timeControl());
+        }
+        return true;
+    }
+
+    int size() {
+        return waiting.size();
+    }
+
+    /** Pairs every player who has an opponent within their window at {@code now}. */
+    List<Pairing> pair(long now) {
+        List<Pairing> pairings = new ArrayList<>();
+        Iterator<Ticket> oldestFirst = waiting.values().iterator();
+        while (oldestFirst.hasNext()) {
+            Ticket ticket = oldestFirst.next();
+            TreeSet<Ticket> queue = queues.get(ticket.timeControl());
+            if (queue == null || !queue.contains(ticket)) {
+                // Already taken as someone else's opponent in this pass
+                oldestFirst.remove();
+                continue;
+            }
+            Ticket opponent = nearest(queue, ticket);
+            if (opponent == null || Math.abs(opponent.rating() - ticket.rating()) > window(ticket, now)) {
+                continue;
+            }
+            queue.remove(ticket);
+            queue.remove(opponent);
+            oldestFirst.remove();
+            if (queue.isEmpty()) {
+                queues.remove(ticket.timeControl());
+            }
+            pairings.add(random.nextBoolean()
+                    ? new Pairing(ticket, opponent)
+                    : new Pairing(opponent, ticket));
+        }
+        // Opponents taken after their own turn in the pass
+        pairings.forEach(pairing -> {
+            waiting.remove(pairing.white().userId());
+            waiting.remove(pairing.black().userId());
+        });
+        return pairings;
+    }
+
+    private static Ticket nearest(TreeSet<Ticket> queue, Ticket ticket) {
+        Ticket below = queue.lower(ticket);
+        Ticket above = queue.higher(ticket);
+        if (below == null) {
+            return above;
+        }
+        if (above == null) {
+            return below;
+        }
+        return ticket.rating() - below.rating() <= above.rating() - ticket.rating() ? below : above;
+    }
+
+    private double window(Ticket ticket, long now) {
+        long buckets = 1 + (now - ticket.joinedAt()) / widenEveryMs;
+        return Math.min(bucketWidth * buckets, maxWindow);
+    }
+}
@@ -0,0 +1,234 @@
+package com.chess.matchmaking;
+
+import com.chess.dto.GameDTO;
+import com.chess.model.Game;
+import com.chess.service.GameService;
+import com.chess.service.PlayerService;
+import com.chess.websocket.GameClocks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Automatic matchmaking. Players queue for a time control and are paired with the
+ * closest rating in the same queue.
+ * <p>
+ * Joins and leaves are only enqueued; every {@code tick-ms} one thread applies them,
+ * loads the new players' ratings in one query, and runs a pairing pass over the
+ * {@link MatchQueue}. The pass's pairings are created as one batch of games.
+ */
+@Component
+public class Matchmaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(Matchmaker.class);
+
+    private static final String SELECT_RATINGS_SQL = "SELECT id, rating FROM users WHERE id IN (%s)";
+
+    private final GameService gameService;
+    private final PlayerService playerService;
+    private final GameClocks gameClocks;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final Queue<Command> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "matchmaker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${chess.matchmaking.tick-ms:100}")
+    private long tickMs;
+
+    @Value("${chess.matchmaking.bucket-width:50}")
+    private double bucketWidth;
+
+    @Value("${chess.matchmaking.widen-every-ms:5000}")
+    private long widenEveryMs;
+
+    @Value("${chess.matchmaking.max-window:400}")
+    private double maxWindow;
+
+    @Value("${chess.matchmaking.batch-size:200}")
+    private int batchSize;
+
+    // Matchmaker thread only
+    private MatchQueue queue;
+
+    /** Initial and increment in milliseconds; an initial time of 0 means untimed. */
+    public record TimeControl(long initialMs, long incrementMs) {
+    }
+
+    private sealed interface Command permits Join, Leave {
+    }
+
+    private record Join(Long userId, String username, String sessionId, TimeControl timeControl, long joinedAt)
+            implements Command {
+    }
+
+    /** A null {@code sessionId} leaves from whichever session joined. */
+    private record Leave(Long userId, String username, String sessionId) implements Command {
+    }
+
+    public Matchmaker(GameService gameService, PlayerService playerService, GameClocks gameClocks,
+                      SimpMessagingTemplate messagingTemplate, JdbcTemplate jdbcTemplate) {
+        this.gameService = gameService;
+        this.playerService = playerService;
+        this.gameClocks = gameClocks;
+        this.messagingTemplate = messagingTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new MatchQueue(bucketWidth, widenEveryMs, maxWindow, new Random());
+        scheduler.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Queues the player for {@code timeControl} from the WebSocket session
+     * {@code sessionId}, replacing any earlier entry.
+     */
+    public void join(Long userId, String username, String sessionId, TimeControl timeControl) {
+        commands.add(new Join(userId, username, sessionId, timeControl, System.currentTimeMillis()));
+    }
+
+    public void leave(Long userId, String username) {
+        commands.add(new Leave(userId, username, null));
+    }
+
+    /** Leaves the queue only if the player joined it from the closed session. */
+    public void sessionClosed(Long userId, String username, String sessionId) {
+        commands.add(new Leave(userId, username, sessionId));
+    }
+
+    /** Players waiting as of the last tick. */
+    public int size() {
+        return waitingCount.get();
+    }
+
+    private void tick() {
+        try {
+            applyCommands();
+            List<MatchQueue.Pairing> pairings = queue.pair(System.currentTimeMillis());
+            waitingCount.set(queue.size());
+            for (int from = 0; from < pairings.size(); from += batchSize) {
+                startGames(pairings.subList(from, Math.min(from + batchSize, pairings.size())));
+            }
+        } catch (RuntimeException e) {
+            logger.error("Matchmaking tick failed", e);
+        }
+    }
+
+    private void applyCommands() {
+        Map<Long, Join> joins = new LinkedHashMap<>();
+        Command command;
+        while ((command = commands.poll()) != null) {
+            switch (command) {
+                case Join join -> {
+                    queue.remove(join.userId(), null);
+                    joins.put(join.userId(), join);
+                }
+                case Leave leave -> {
+                    Join pending = joins.get(leave.userId());
+                    if (pending != null
+                            && (leave.sessionId() == null || Objects.equals(leave.sessionId(), pending.sessionId()))) {
+                        joins.remove(leave.userId());
+                    }
+                    if (queue.remove(leave.userId(), leave.sessionId())) {
+                        notify(leave.username(), Map.of("status", "LEFT"));
+                    }
+                }
+            }
+        }
+        if (joins.isEmpty()) {
+            return;
+        }
+
+        // One query for every player who joined this tick
+        Map<Long, Double> ratings = loadRatings(joins.keySet());
+        for (Join join : joins.values()) {
+            MatchQueue.Ticket ticket = queue.add(join.userId(), join.username(), join.sessionId(),
+                    join.timeControl(), ratings.getOrDefault(join.userId(), 1500.0), join.joinedAt());
+            notify(ticket.username(), Map.of(
+                    "status", "QUEUED",
+                    "initialMs", ticket.timeControl().initialMs(),
+                    "incrementMs", ticket.timeControl().incrementMs()));
+        }
+    }
+
+    private void startGames(List<MatchQueue.Pairing> pairings) {
+        List<GameService.NewGame> newGames = pairings.stream()
+                .map(pairing -> {
+                    TimeControl timeControl = pairing.white().timeControl();
+                    boolean timed = timeControl.initialMs() > 0;
+                    return new GameService.NewGame(
+                            playerService.userRef(pairing.white().userId(), pairing.white().username()),
+                            playerService.userRef(pairing.black().userId(), pairing.black().username()),
+                            timed ? timeControl.initialMs() : null,
+                            timed ? timeControl.incrementMs() : null);
+                })
+                .toList();
+
+        List<Game> games;
+        try {
+            games = gameService.createGames(newGames);
+        } catch (RuntimeException e) {
+            logger.error("Failed to create {} matched games", newGames.size(), e);
+            pairings.forEach(pairing -> {
+                notify(pairing.white().username(), Map.of("status", "FAILED"));
+                notify(pairing.black().username(), Map.of("status", "FAILED"));
+            });
+            return;
+        }
+
+        for (Game game : games) {
+            gameClocks.gameStarted(game.getId());
+            GameDTO gameDTO = gameService.toDTO(game);
+            messagingTemplate.convertAndSend(
+                    "/topic/user/" + gameDTO.getWhitePlayer().getUsername() + "/game-created", gameDTO);
+            messagingTemplate.convertAndSend(
+                    "/topic/user/" + gameDTO.getBlackPlayer().getUsername() + "/game-created", gameDTO);
+        }
+        logger.info("Matchmaking started {} games", games.size());
+    }
+
+    private Map<Long, Double> loadRatings(Set<Long> userIds) {
+        String placeholders = userIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+        Map<Long, Double> ratings = new HashMap<>(userIds.size() * 2);
+        jdbcTemplate.query(String.format(SELECT_RATINGS_SQL, placeholders),
+                rs -> {
+                    ratings.put(rs.getLong("id"), rs.getDouble("rating"));
+                }, userIds.toArray());
+        return ratings;
+    }
+
+    private void notify(String username, Map<String, Object> status) {
+        messagingTemplate.convertAndSendToUser(username, "/queue/matchmaking", status);
+    }
+}
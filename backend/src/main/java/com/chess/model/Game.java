@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -42,11 +43,43 @@ public class Game {
     @Column(name = "current_fen")
     private String currentFen;
 
+    /** Time control in milliseconds; null for an untimed game. */
+    @Column(name = "clock_initial_ms")
+    private Long clockInitialMs;
+
+    @Column(name = "clock_increment_ms")
+    private Long clockIncrementMs;
+
+    /** Remaining time per player as of the last move written; the live clock is in memory. */
+    @Column(name = "white_time_ms")
+    private Long whiteTimeMs;
+
+    @Column(name = "black_time_ms")
+    private Long blackTimeMs;
+
+    /** Packed move list (MoveListCodec format); set instead of moves rows in blob storage mode. */
+    @Column(name = "move_data")
+    private byte[] moveData;
+
     @OneToMany(mappedBy = "game", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("moveNumber ASC")
     @Builder.Default
     private List<Move> moves = new ArrayList<>();
 
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
+    /** Set by {@code RatingPipeline} once the result is in the players' ratings. */
+    @Column(nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("false")
+    private boolean rated;
+
+    /** Set by {@code PositionIndex} once the game's positions are counted. */
+    @Column(name = "positions_indexed", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("false")
+    private boolean positionsIndexed;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -33,6 +33,13 @@ public class Invitation {
     @Builder.Default
     private InvitationStatus status = InvitationStatus.PENDING;
 
+    /** Proposed time control in milliseconds; null for an untimed game. */
+    @Column(name = "clock_initial_ms")
+    private Long clockInitialMs;
+
+    @Column(name = "clock_increment_ms")
+    private Long clockIncrementMs;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -9,7 +9,9 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "moves")
+@Table(name = "moves", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_moves_game_move_number", columnNames = {"game_id", "move_number"})
+})
 @Data
 @Builder
 @NoArgsConstructor
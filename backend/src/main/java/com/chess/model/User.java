@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -31,6 +32,26 @@ public class User {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    /** Glicko-2 rating; written by {@code RatingPipeline}, never through this entity. */
+    @Column(nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("1500")
+    @Builder.Default
+    private Double rating = 1500.0;
+
+    @Column(name = "rating_deviation", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("350")
+    @Builder.Default
+    private Double ratingDeviation = 350.0;
+
+    @Column(name = "rating_volatility", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0.06")
+    @Builder.Default
+    private Double ratingVolatility = 0.06;
+
+    /** Rating period the player was last rated in; null if never. */
+    @Column(name = "rating_period", insertable = false, updatable = false)
+    private Long ratingPeriod;
+
     @OneToMany(mappedBy = "whitePlayer")
     private Set<Game> gamesAsWhite = new HashSet<>();
 
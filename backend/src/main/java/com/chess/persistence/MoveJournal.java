@@ -0,0 +1,373 @@
+package com.chess.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Local append-only journal of accepted moves, written as numbered segment files
+ * next to {@code path} ({@code path.1}, {@code path.2}, ...).
+ * <p>
+ * Each entry is written as {@code [length][crc32][payload]}. {@link #append} only
+ * writes; {@link #sync} forces to disk everything appended so far, so concurrent
+ * callers waiting on the same force share one fsync (group commit). A segment is
+ * closed once it reaches {@code segmentBytes} and deleted once every entry in it
+ * is {@link #committed}, so the journal stays bounded under steady load.
+ * <p>
+ * On startup the entries are read back and replayed; a torn or corrupt tail left
+ * by a crash is ignored. Thread-safe.
+ */
+public class MoveJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MoveJournal.class);
+
+    private final Path path;
+    private final long segmentBytes;
+    private final Object syncLock = new Object();
+
+    // Guarded by this
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private Segment current;
+    private long appended;
+
+    // Bytes appended that are on disk; only grows
+    private final AtomicLong synced = new AtomicLong();
+
+    /** Where an entry went: its segment, and the journal length to {@link #sync} for it. */
+    public record Appended(long segment, long end) {
+    }
+
+    private static final class Segment {
+        final long id;
+        final Path path;
+        final FileChannel channel;
+        long size;
+        int pending;
+
+        Segment(long id, Path path, FileChannel channel, long size) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Opens the journal; segments left by a previous run stay readable through
+     * {@link #readAll()} until {@link #reset()}.
+     */
+    public MoveJournal(Path path, long segmentBytes) throws IOException {
+        this.path = path;
+        this.segmentBytes = segmentBytes;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        for (Path file : existingSegments()) {
+            long id = segmentId(file);
+            segments.put(id, new Segment(id, file, null, Files.size(file)));
+        }
+        roll();
+    }
+
+    /** Writes an entry without forcing it to disk; pass the result to {@link #sync}. */
+    public synchronized Appended append(MoveRecord record) {
+        ByteBuffer entry = frame(record);
+        if (current.size > 0 && current.size + entry.remaining() > segmentBytes) {
+            roll();
+        }
+        write(current.channel, entry, current.path);
+        current.size += entry.limit();
+        current.pending++;
+        appended += entry.limit();
+        return new Appended(current.id, appended);
+    }
+
+    /**
+     * Returns once the journal is on disk up to {@code end}. A caller that finds
+     * another thread forcing waits for it and usually has nothing left to force.
+     */
+    public void sync(long end) {
+        synchronized (syncLock) {
+            if (synced.get() >= end) {
+                return;
+            }
+            FileChannel channel;
+            long target;
+            synchronized (this) {
+                channel = current.channel;
+                target = appended;
+            }
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // Rolled and deleted meanwhile; the roll forced it
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to sync move journal " + path, e);
+            }
+            synced.accumulateAndGet(target, Math::max);
+        }
+    }
+
+    /**
+     * Records that {@code count} entries of a segment reached the database. A
+     * closed segment with nothing left pending is deleted.
+     */
+    public synchronized void committed(long segment, int count) {
+        Segment closed = segments.get(segment);
+        if (closed == null) {
+            return;
+        }
+        closed.pending -= count;
+        if (closed != current && closed.pending <= 0) {
+            delete(closed);
+        }
+    }
+
+    /** Every entry in the journal, oldest segment first. */
+    public synchronized List<MoveRecord> readAll() throws IOException {
+        List<MoveRecord> records = new ArrayList<>();
+        // A single-file journal from before segments existed
+        if (Files.exists(path)) {
+            records.addAll(read(path));
+        }
+        for (Segment segment : segments.values()) {
+            records.addAll(read(segment.path));
+        }
+        return records;
+    }
+
+    /** Deletes every segment, e.g. once the entries read at startup are replayed. */
+    public synchronized void reset() throws IOException {
+        Files.deleteIfExists(path);
+        for (Segment segment : new ArrayList<>(segments.values())) {
+            delete(segment);
+        }
+        current = null;
+        roll();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments.values()) {
+            if (segment.channel != null) {
+                segment.channel.close();
+            }
+        }
+    }
+
+    /**
+     * Appends one entry to a standalone journal-format file and forces it, e.g. for
+     * moves set aside after failing to reach the database.
+     */
+    public static void appendTo(Path file, MoveRecord record) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            write(channel, frame(record), file);
+            channel.force(false);
+        }
+    }
+
+    /** Entries of one journal-format file, up to the first torn or corrupt entry. */
+    public static List<MoveRecord> read(Path file) throws IOException {
+        List<MoveRecord> records = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(8);
+            long position = 0;
+            long size = channel.size();
+
+            while (position + 8 <= size) {
+                header.clear();
+                channel.read(header, position);
+                header.flip();
+                int length = header.getInt();
+                int checksum = header.getInt();
+                if (length <= 0 || position + 8 + length > size) {
+                    break;
+                }
+
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                channel.read(payload, position + 8);
+                CRC32 crc = new CRC32();
+                crc.update(payload.array());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                records.add(decode(payload.array()));
+                position += 8 + length;
+            }
+
+            if (position < size) {
+                logger.warn("Ignoring {} bytes of incomplete data at the end of {}", size - position, file);
+            }
+        }
+        return records;
+    }
+
+    /** Starts a new segment. The previous one is forced first, so a sync never has to reach back. */
+    private void roll() {
+        try {
+            if (current != null) {
+                current.channel.force(false);
+                synced.accumulateAndGet(appended, Math::max);
+                if (current.pending <= 0) {
+                    delete(current);
+                }
+            }
+            long id = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+            Path file = path.resolveSibling(path.getFileName() + "." + id);
+            FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            current = new Segment(id, file, channel, 0);
+            segments.put(id, current);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start a move journal segment next to " + path, e);
+        }
+    }
+
+    private void delete(Segment segment) {
+        segments.remove(segment.id);
+        try {
+            if (segment.channel != null) {
+                segment.channel.close();
+            }
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete move journal segment {}", segment.path, e);
+        }
+    }
+
+    private List<Path> existingSegments() throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        String prefix = path.getFileName() + ".";
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().startsWith(prefix)
+                            && file.getFileName().toString().substring(prefix.length()).matches("\\d+"))
+                    .sorted(Comparator.comparingLong(MoveJournal::segmentId))
+                    .toList();
+        }
+    }
+
+    private static long segmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(name.lastIndexOf('.') + 1));
+    }
+
+    private static ByteBuffer frame(MoveRecord record) {
+        byte[] payload = encode(record);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer buffer = ByteBuffer.allocate(8 + payload.length);
+        buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        return buffer;
+    }
+
+    private static void write(FileChannel channel, ByteBuffer entry, Path file) {
+        try {
+            while (entry.hasRemaining()) {
+                channel.write(entry);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to move journal " + file, e);
+        }
+    }
+
+    private static byte[] encode(MoveRecord record) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(160);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(record.gameId());
+            out.writeInt(record.moveNumber());
+            writeNullable(out, record.fromSquare());
+            writeNullable(out, record.toSquare());
+            writeNullable(out, record.piece());
+            writeNullable(out, record.promotion());
+            writeNullable(out, record.fenAfter());
+            writeNullable(out, record.sanNotation());
+            writeNullable(out, record.turnAfter());
+            out.writeLong(record.createdAt().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(record.createdAt().getNano());
+            out.writeInt(record.moveData() != null ? record.moveData().length : -1);
+            if (record.moveData() != null) {
+                out.write(record.moveData());
+            }
+            // Appended last so entries written before clocks existed still decode
+            writeNullable(out, record.whiteTimeMs());
+            writeNullable(out, record.blackTimeMs());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static MoveRecord decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            long gameId = in.readLong();
+            int moveNumber = in.readInt();
+            String fromSquare = readNullable(in);
+            String toSquare = readNullable(in);
+            String piece = readNullable(in);
+            String promotion = readNullable(in);
+            String fenAfter = readNullable(in);
+            String sanNotation = readNullable(in);
+            String turnAfter = readNullable(in);
+            LocalDateTime createdAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            int moveDataLength = in.readInt();
+            byte[] moveData = null;
+            if (moveDataLength >= 0) {
+                moveData = new byte[moveDataLength];
+                in.readFully(moveData);
+            }
+            Long whiteTimeMs = in.available() > 0 ? readNullableLong(in) : null;
+            Long blackTimeMs = in.available() > 0 ? readNullableLong(in) : null;
+            return new MoveRecord(gameId, moveNumber, fromSquare, toSquare, piece, promotion,
+                    fenAfter, sanNotation, turnAfter, createdAt, moveData, whiteTimeMs, blackTimeMs);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeNullable(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readNullableLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.chess.persistence;
+
+import java.time.LocalDateTime;
+
+/**
+ * An accepted move waiting to be written to the {@code moves} and {@code games} tables.
+ * In blob storage mode {@code moveData} holds the game's whole packed move list
+ * after this move and no {@code moves} row is written. Clock times are the players'
+ * remaining milliseconds after the move, null for untimed games.
+ */
+public record MoveRecord(
+        long gameId,
+        int moveNumber,
+        String fromSquare,
+        String toSquare,
+        String piece,
+        String promotion,
+        String fenAfter,
+        String sanNotation,
+        String turnAfter,
+        LocalDateTime createdAt,
+        byte[] moveData,
+        Long whiteTimeMs,
+        Long blackTimeMs
+) {
+}
@@ -0,0 +1,400 @@
+package com.chess.persistence;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded write-behind queue for accepted moves.
+ * <p>
+ * The move path only enqueues a {@link MoveRecord}; a dedicated flusher thread
+ * drains the queue and writes {@code moves} inserts and {@code games} position
+ * updates as JDBC batches in one transaction, every {@code batch-size} records or
+ * {@code flush-interval-ms}, whichever comes first. A full queue blocks producers.
+ * <p>
+ * With {@code durability: fsync}, each record is appended to a local
+ * {@link MoveJournal} and forced to disk before {@link #submit(MoveRecord)} returns;
+ * moves submitted together share one fsync. A journal segment is deleted once all
+ * of its records are committed. Records left in the journal by a crash are
+ * replayed on startup.
+ * <p>
+ * Records carrying a packed move list (blob storage mode) skip the {@code moves}
+ * insert; the list is written to {@code games.move_data} instead.
+ * <p>
+ * While the database is unreachable a batch is retried until it is written. Any
+ * other failure is retried {@code max-retries} times, then the batch is split in
+ * halves to isolate the records that cannot be written; each of those is appended
+ * to the {@code dead-letter-path} file (journal format) and logged, and the rest
+ * of the batch goes through.
+ */
+@Component
+public class MoveWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(MoveWriteBehind.class);
+
+    private static final String INSERT_MOVE_SQL =
+            "INSERT INTO moves (game_id, move_number, from_square, to_square, piece, promotion, " +
+            "fen_after, san_notation, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String RECOVER_MOVE_SQL =
+            "INSERT INTO moves (game_id, move_number, from_square, to_square, piece, promotion, " +
+            "fen_after, san_notation, created_at) SELECT ?, ?, ?, ?, ?, ?, ?, ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM moves WHERE game_id = ? AND move_number = ?)";
+
+    private static final String UPDATE_GAME_SQL =
+            "UPDATE games SET current_fen = ?, current_turn = ?, updated_at = ?, white_time_ms = ?, " +
+            "black_time_ms = ?, version = version + 1 WHERE id = ?";
+
+    private static final String UPDATE_GAME_WITH_MOVES_SQL =
+            "UPDATE games SET current_fen = ?, current_turn = ?, updated_at = ?, white_time_ms = ?, " +
+            "black_time_ms = ?, move_data = ?, version = version + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${chess.persistence.write-behind.capacity:10000}")
+    private int capacity;
+
+    @Value("${chess.persistence.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${chess.persistence.write-behind.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${chess.persistence.write-behind.durability:none}")
+    private String durability;
+
+    @Value("${chess.persistence.write-behind.journal-path:data/move-journal.log}")
+    private String journalPath;
+
+    @Value("${chess.persistence.write-behind.journal-segment-bytes:8388608}")
+    private long journalSegmentBytes;
+
+    @Value("${chess.persistence.write-behind.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${chess.persistence.write-behind.dead-letter-path:data/move-dead-letter.log}")
+    private String deadLetterPath;
+
+    private BlockingQueue<Pending> queue;
+    private MoveJournal journal;
+    private Thread flusher;
+    private volatile boolean running;
+
+    // Records submitted but not yet committed, per game; guarded by flushLock
+    private final Map<Long, Integer> unflushed = new HashMap<>();
+    private final Object flushLock = new Object();
+
+    /** A queued record and the journal segment holding it (0 without a journal). */
+    private record Pending(MoveRecord record, long segment) {
+    }
+
+    public MoveWriteBehind(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        queue = new ArrayBlockingQueue<>(capacity);
+        if ("fsync".equalsIgnoreCase(durability)) {
+            journal = new MoveJournal(Path.of(journalPath), journalSegmentBytes);
+            recover();
+        }
+
+        running = true;
+        flusher = new Thread(this::runFlusher, "move-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("Move write-behind started (capacity={}, batchSize={}, flushInterval={}ms, durability={})",
+                capacity, batchSize, flushIntervalMs, durability);
+    }
+
+    /**
+     * Queues a move for persistence. In fsync mode the move is durable on local
+     * disk when this method returns. Blocks while the queue is full.
+     */
+    public void submit(MoveRecord record) {
+        synchronized (flushLock) {
+            unflushed.merge(record.gameId(), 1, Integer::sum);
+        }
+        long segment = 0;
+        if (journal != null) {
+            MoveJournal.Appended appended = journal.append(record);
+            journal.sync(appended.end());
+            segment = appended.segment();
+        }
+        try {
+            queue.put(new Pending(record, segment));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // Still journaled, so replayed at the next start
+            markFlushed(List.of(new Pending(record, 0)));
+            throw new IllegalStateException("Interrupted while queueing move for game " + record.gameId(), e);
+        }
+    }
+
+    /**
+     * Blocks until every move submitted so far for a game has been committed, or the
+     * timeout elapses. Used before reading a game's moves back from the database;
+     * call it outside any transaction, so no connection is held while waiting.
+     */
+    public boolean awaitFlushed(Long gameId, long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (flushLock) {
+            while (unflushed.containsKey(gameId)) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    flushLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+
+        // Flush whatever is still queued on the calling thread
+        List<Pending> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+            markFlushed(remaining);
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private void runFlusher() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Pending first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Give the batch up to one flush interval to fill
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || wait <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flushWithRetry(batch, maxRetries);
+                markFlushed(batch);
+                batch.clear();
+            } catch (RuntimeException e) {
+                // Only dead-lettering itself can fail here; the records stay in the journal, if any
+                logger.error("Dropping {} moves the flusher could not write or dead-letter", batch.size(), e);
+                markFlushed(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                if (running) {
+                    logger.warn("Move write-behind flusher interrupted", e);
+                }
+                // Put back anything not yet written so stop() can flush it
+                queue.addAll(batch);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes the batch, or dead-letters the records in it that cannot be written.
+     * Returns once every record is one or the other.
+     */
+    private void flushWithRetry(List<Pending> batch, int attempts) throws InterruptedException {
+        int failures = 0;
+        while (true) {
+            try {
+                write(batch);
+                return;
+            } catch (RuntimeException e) {
+                if (isUnavailable(e)) {
+                    logger.error("Database unavailable, retrying {} moves in {}ms", batch.size(), retryDelayMs(), e);
+                } else if (++failures >= attempts) {
+                    if (batch.size() == 1) {
+                        deadLetter(batch.get(0).record(), e);
+                        return;
+                    }
+                    // A deterministic failure: each half gets one attempt, down to the failing records
+                    int half = batch.size() / 2;
+                    logger.warn("Failed to flush {} moves {} times, splitting the batch", batch.size(), failures, e);
+                    flushWithRetry(batch.subList(0, half), 1);
+                    flushWithRetry(batch.subList(half, batch.size()), 1);
+                    return;
+                } else {
+                    logger.error("Failed to flush {} moves, retrying in {}ms", batch.size(), retryDelayMs(), e);
+                }
+                Thread.sleep(retryDelayMs());
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<MoveRecord> records = batch.stream().map(Pending::record).toList();
+        try {
+            writeBatch(records, false);
+        } catch (DuplicateKeyException e) {
+            // A move number already exists (e.g. written by another node); skip the duplicates
+            logger.warn("Duplicate move numbers in batch of {}, retrying idempotently", batch.size());
+            writeBatch(records, true);
+        }
+    }
+
+    /** Failures that go away on their own; a batch is never dropped for one of these. */
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private long retryDelayMs() {
+        return Math.max(flushIntervalMs, 100);
+    }
+
+    private void deadLetter(MoveRecord record, RuntimeException cause) {
+        logger.error("Dead-lettering move {} of game {} ({}-{}) to {}", record.moveNumber(), record.gameId(),
+                record.fromSquare(), record.toSquare(), deadLetterPath, cause);
+        try {
+            MoveJournal.appendTo(Path.of(deadLetterPath), record);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write dead-letter file " + deadLetterPath, e);
+        }
+    }
+
+    /** Records written or dead-lettered: wakes waiters and releases their journal segments. */
+    private void markFlushed(List<Pending> batch) {
+        Map<Long, Integer> bySegment = new HashMap<>();
+        synchronized (flushLock) {
+            for (Pending pending : batch) {
+                unflushed.computeIfPresent(pending.record().gameId(), (gameId, count) -> count > 1 ? count - 1 : null);
+                bySegment.merge(pending.segment(), 1, Integer::sum);
+            }
+            flushLock.notifyAll();
+        }
+        if (journal != null) {
+            bySegment.forEach(journal::committed);
+        }
+    }
+
+    private void writeBatch(List<MoveRecord> batch, boolean recovering) {
+        // Only the last position of each game needs to reach the games table
+        Map<Long, MoveRecord> lastMoveByGame = new LinkedHashMap<>();
+        List<MoveRecord> moveRows = new ArrayList<>(batch.size());
+        for (MoveRecord record : batch) {
+            lastMoveByGame.put(record.gameId(), record);
+            if (record.moveData() == null) {
+                moveRows.add(record);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!moveRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(recovering ? RECOVER_MOVE_SQL : INSERT_MOVE_SQL, moveRows, moveRows.size(),
+                        (ps, record) -> {
+                            ps.setLong(1, record.gameId());
+                            ps.setInt(2, record.moveNumber());
+                            ps.setString(3, record.fromSquare());
+                            ps.setString(4, record.toSquare());
+                            ps.setString(5, record.piece());
+                            ps.setString(6, record.promotion());
+                            ps.setString(7, record.fenAfter());
+                            ps.setString(8, record.sanNotation());
+                            ps.setTimestamp(9, Timestamp.valueOf(record.createdAt()));
+                            if (recovering) {
+                                ps.setLong(10, record.gameId());
+                                ps.setInt(11, record.moveNumber());
+                            }
+                        });
+            }
+
+            List<MoveRecord> positionUpdates = new ArrayList<>();
+            List<MoveRecord> blobUpdates = new ArrayList<>();
+            for (MoveRecord record : lastMoveByGame.values()) {
+                (record.moveData() == null ? positionUpdates : blobUpdates).add(record);
+            }
+            if (!positionUpdates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_GAME_SQL, positionUpdates, positionUpdates.size(),
+                        (ps, record) -> {
+                            ps.setString(1, record.fenAfter());
+                            ps.setString(2, record.turnAfter());
+                            ps.setTimestamp(3, Timestamp.valueOf(record.createdAt()));
+                            ps.setObject(4, record.whiteTimeMs(), Types.BIGINT);
+                            ps.setObject(5, record.blackTimeMs(), Types.BIGINT);
+                            ps.setLong(6, record.gameId());
+                        });
+            }
+            if (!blobUpdates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_GAME_WITH_MOVES_SQL, blobUpdates, blobUpdates.size(),
+                        (ps, record) -> {
+                            ps.setString(1, record.fenAfter());
+                            ps.setString(2, record.turnAfter());
+                            ps.setTimestamp(3, Timestamp.valueOf(record.createdAt()));
+                            ps.setObject(4, record.whiteTimeMs(), Types.BIGINT);
+                            ps.setObject(5, record.blackTimeMs(), Types.BIGINT);
+                            ps.setBytes(6, record.moveData());
+                            ps.setLong(7, record.gameId());
+                        });
+            }
+        });
+    }
+
+    private void recover() throws IOException {
+        List<MoveRecord> records = journal.readAll();
+        if (!records.isEmpty()) {
+            logger.info("Replaying {} journaled moves from {}", records.size(), journalPath);
+            for (int i = 0; i < records.size(); i += batchSize) {
+                writeBatch(records.subList(i, Math.min(i + batchSize, records.size())), true);
+            }
+        }
+        journal.reset();
+    }
+}
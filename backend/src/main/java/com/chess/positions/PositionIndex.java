@@ -0,0 +1,317 @@
+package com.chess.positions;
+
+import com.chess.engine.MoveGenerator;
+import com.chess.engine.MoveListCodec;
+import com.chess.engine.PackedMove;
+import com.chess.engine.Piece;
+import com.chess.engine.Position;
+import com.chess.engine.Square;
+import com.chess.model.Game;
+import com.chess.rating.GameResult;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Index of every position reached in finished games, keyed by {@link Position#hash()}.
+ * <p>
+ * {@link #gameEnded} only queues the game. A dedicated thread replays the queued
+ * games every {@code flush-interval-ms}, adds each distinct position of a game once,
+ * flushes the {@link PositionTable} to disk, and commits the games'
+ * {@code positions_indexed} flag. A crash between the flush and the commit counts
+ * those games twice; {@code rebuild-on-startup} rebuilds the table from scratch.
+ * Games still unindexed at startup are indexed first, and a missing table file is
+ * rebuilt from every finished game.
+ */
+@Component
+public class PositionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PositionIndex.class);
+
+    private static final String SELECT_ENDED_SQL =
+            "SELECT id, white_player_id, black_player_id, status FROM games " +
+            "WHERE status <> 'IN_PROGRESS' AND id > ? %s ORDER BY id LIMIT ?";
+
+    private static final String UNINDEXED = "AND positions_indexed = FALSE";
+
+    private static final String SELECT_MOVE_DATA_SQL = "SELECT id, move_data FROM games WHERE id IN (%s)";
+
+    private static final String SELECT_MOVE_ROWS_SQL =
+            "SELECT game_id, from_square, to_square, promotion FROM moves " +
+            "WHERE game_id IN (%s) ORDER BY game_id, move_number";
+
+    private static final String MARK_INDEXED_SQL =
+            "UPDATE games SET positions_indexed = TRUE WHERE id = ? AND positions_indexed = FALSE " +
+            "AND status <> 'IN_PROGRESS'";
+
+    private static final String SET_INDEXED_SQL = "UPDATE games SET positions_indexed = TRUE WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<EndedGame> queue = new LinkedBlockingQueue<>();
+
+    @Value("${chess.positions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chess.positions.path:data/positions.idx}")
+    private String path;
+
+    @Value("${chess.positions.initial-capacity:1048576}")
+    private long initialCapacity;
+
+    @Value("${chess.positions.max-ply:60}")
+    private int maxPly;
+
+    @Value("${chess.positions.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${chess.positions.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${chess.positions.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    // Replaced on growth; readers keep whichever table they read
+    private volatile PositionTable table;
+    private Thread worker;
+    private volatile boolean running;
+
+    /** An ended game; {@code whiteScore} is negative for a game without a result. */
+    private record EndedGame(long gameId, double whiteScore) {
+    }
+
+    public PositionIndex(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path file = Path.of(path);
+        boolean rebuild = rebuildOnStartup || !Files.exists(file);
+        table = rebuild ? PositionTable.create(file, initialCapacity) : PositionTable.open(file, initialCapacity);
+        running = true;
+        worker = new Thread(() -> run(rebuild), "position-index");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        running = false;
+        if (worker != null) {
+            // Games still queued stay unindexed in the database and are indexed next start
+            worker.interrupt();
+            worker.join();
+            table.close();
+        }
+    }
+
+    /** Queues an ended game for indexing; never blocks. */
+    public void gameEnded(Long gameId, Long whiteId, Long blackId, Game.GameStatus status) {
+        if (running) {
+            GameResult result = GameResult.of(gameId, whiteId, blackId, status);
+            queue.add(new EndedGame(gameId, result != null ? result.whiteScore() : -1));
+        }
+    }
+
+    /** Counters of the position with this hash; all zero if it was never reached or the index is off. */
+    public PositionStats stats(long hash) {
+        PositionTable current = table;
+        return current != null ? current.get(hash) : PositionStats.NONE;
+    }
+
+    private void run(boolean rebuild) {
+        try {
+            catchUp(rebuild);
+        } catch (RuntimeException e) {
+            logger.error("Position index startup pass failed", e);
+        }
+
+        while (running) {
+            try {
+                Thread.sleep(flushIntervalMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            List<EndedGame> batch = new ArrayList<>();
+            queue.drainTo(batch, batchSize);
+            while (!batch.isEmpty()) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> index(batch, MARK_INDEXED_SQL));
+                } catch (RuntimeException e) {
+                    logger.error("Indexing {} games failed; they stay unindexed", batch.size(), e);
+                }
+                batch.clear();
+                queue.drainTo(batch, batchSize);
+            }
+        }
+    }
+
+    /**
+     * Indexes the ended games not indexed yet, or every ended game when rebuilding
+     * into an empty table, in id order and {@code batch-size} games at a time.
+     */
+    private void catchUp(boolean rebuild) {
+        long started = System.nanoTime();
+        String sql = String.format(SELECT_ENDED_SQL, rebuild ? "" : UNINDEXED);
+        long afterId = 0;
+        int total = 0;
+        while (running) {
+            List<EndedGame> batch = jdbcTemplate.query(sql, (rs, rowNum) -> {
+                GameResult result = GameResult.of(rs.getLong("id"), rs.getLong("white_player_id"),
+                        rs.getLong("black_player_id"), Game.GameStatus.valueOf(rs.getString("status")));
+                return new EndedGame(rs.getLong("id"), result != null ? result.whiteScore() : -1);
+            }, afterId, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            transactionTemplate.executeWithoutResult(status -> index(batch, rebuild ? SET_INDEXED_SQL : MARK_INDEXED_SQL));
+            afterId = batch.getLast().gameId();
+            total += batch.size();
+        }
+        if (total > 0) {
+            logger.info("{} {} games into the position index ({} positions, {} ms)", rebuild ? "Rebuilt from" : "Indexed",
+                    total, table.size(), (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    /** Indexes the games {@code markSql} claims; must run in a transaction. */
+    private void index(List<EndedGame> games, String markSql) {
+        // Claim first, so a game queued twice (or already indexed) counts once
+        int[] claimed = jdbcTemplate.batchUpdate(markSql, games.stream().map(game -> new Object[]{game.gameId()}).toList());
+        List<EndedGame> fresh = new ArrayList<>(games.size());
+        for (int i = 0; i < games.size(); i++) {
+            if (claimed[i] != 0) {
+                fresh.add(games.get(i));
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        Map<Long, byte[]> moveLists = loadMoveLists(fresh);
+        long[] hashes = new long[128];
+        for (EndedGame game : fresh) {
+            byte[] moveData = moveLists.get(game.gameId());
+            int plies = maxPly > 0 ? Math.min(MoveListCodec.count(moveData), maxPly) : MoveListCodec.count(moveData);
+            if (hashes.length <= plies) {
+                hashes = new long[plies + 1];
+            }
+            int count = hashGame(moveData, plies, hashes);
+            if (count < 0) {
+                logger.warn("Game {} has an illegal stored move; indexing the positions before it", game.gameId());
+                count = -count;
+            }
+            // A position repeated within a game counts once
+            Arrays.sort(hashes, 0, count);
+            for (int i = 0; i < count; i++) {
+                if (i == 0 || hashes[i] != hashes[i - 1]) {
+                    table.add(hashes[i], game.whiteScore());
+                }
+            }
+            if (table.isFull()) {
+                grow();
+            }
+        }
+        // On disk before the flags commit
+        table.force();
+    }
+
+    /**
+     * Writes the hashes of the initial position and of the position after each of the
+     * first {@code plies} plies into {@code hashes}. Returns how many, negated if the
+     * move list stopped at an illegal move.
+     */
+    private int hashGame(byte[] moveData, int plies, long[] hashes) {
+        Position position = Position.initial();
+        hashes[0] = position.hash();
+        for (int i = 0; i < plies; i++) {
+            int stored = MoveListCodec.read(moveData, i);
+            int move = MoveGenerator.findLegal(position, PackedMove.from(stored), PackedMove.to(stored),
+                    PackedMove.promotionType(stored));
+            if (move == PackedMove.NONE) {
+                return -(i + 1);
+            }
+            position.play(move);
+            hashes[i + 1] = position.hash();
+        }
+        return plies + 1;
+    }
+
+    /**
+     * Packed move lists of {@code games}: {@code games.move_data} where it is stored,
+     * otherwise rebuilt from the move rows.
+     */
+    private Map<Long, byte[]> loadMoveLists(List<EndedGame> games) {
+        String placeholders = games.stream().map(game -> "?").collect(Collectors.joining(", "));
+        Object[] ids = games.stream().map(EndedGame::gameId).toArray();
+        Map<Long, byte[]> moveLists = new HashMap<>(games.size() * 2);
+        List<Long> withRows = new ArrayList<>();
+        jdbcTemplate.query(String.format(SELECT_MOVE_DATA_SQL, placeholders), rs -> {
+            byte[] moveData = rs.getBytes("move_data");
+            if (moveData != null) {
+                moveLists.put(rs.getLong("id"), moveData);
+            } else {
+                withRows.add(rs.getLong("id"));
+            }
+        }, ids);
+        if (withRows.isEmpty()) {
+            return moveLists;
+        }
+
+        // Packed without flags; hashGame matches each move against the legal moves anyway
+        Map<Long, List<Integer>> rows = new HashMap<>(withRows.size() * 2);
+        jdbcTemplate.query(String.format(SELECT_MOVE_ROWS_SQL, withRows.stream().map(id -> "?")
+                .collect(Collectors.joining(", "))), rs -> {
+            String promotion = rs.getString("promotion");
+            int promotionType = promotion == null || promotion.isEmpty() ? Piece.NONE : Piece.typeOf(promotion.charAt(0));
+            int move = promotionType == Piece.NONE
+                    ? PackedMove.of(Square.parse(rs.getString("from_square")), Square.parse(rs.getString("to_square")),
+                            PackedMove.QUIET)
+                    : PackedMove.promotion(Square.parse(rs.getString("from_square")),
+                            Square.parse(rs.getString("to_square")), promotionType, false);
+            rows.computeIfAbsent(rs.getLong("game_id"), id -> new ArrayList<>()).add(move);
+        }, withRows.toArray());
+        for (Long gameId : withRows) {
+            List<Integer> moves = rows.getOrDefault(gameId, List.of());
+            moveLists.put(gameId, MoveListCodec.encode(moves.stream().mapToInt(Integer::intValue).toArray(),
+                    moves.size()));
+        }
+        return moveLists;
+    }
+
+    private void grow() {
+        PositionTable current = table;
+        try {
+            table = current.grow();
+            current.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        logger.info("Position index grown to {} slots", table.capacity());
+    }
+}
@@ -0,0 +1,10 @@
+package com.chess.positions;
+
+/**
+ * How often a position was reached, counting each game once, and how those games
+ * ended. Abandoned games count towards {@code games} but have no result.
+ */
+public record PositionStats(long games, long whiteWins, long draws, long blackWins) {
+
+    public static final PositionStats NONE = new PositionStats(0, 0, 0, 0);
+}
@@ -0,0 +1,284 @@
+package com.chess.positions;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Off-heap hash map from a 64-bit position hash to per-position counters, kept in a
+ * memory-mapped file.
+ * <p>
+ * Open addressing with linear probing over fixed 24-byte slots: the key, then games,
+ * white wins, draws and black wins as unsigned ints. Nothing is ever removed, so a
+ * zero key marks the end of a probe run. A file is mapped in segments because one
+ * mapping cannot exceed 2 GB.
+ * <p>
+ * One thread writes; any number may read. A new slot's counters are written before
+ * its key is published with release semantics, so a reader that sees the key sees
+ * initialised counters. Counters of an existing slot may be read mid-update and be
+ * off by the game being added.
+ */
+final class PositionTable implements AutoCloseable {
+
+    private static final long MAGIC = 0x43485353_504F5331L;
+    private static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 8;
+    private static final int CLEAN_OFFSET = 12;
+    private static final int CAPACITY_OFFSET = 16;
+    private static final int SIZE_OFFSET = 24;
+
+    private static final int SLOT_BYTES = 24;
+    private static final int GAMES = 8;
+    private static final int WHITE_WINS = 12;
+    private static final int DRAWS = 16;
+    private static final int BLACK_WINS = 20;
+
+    /** 2^24 slots, 384 MB, per mapping. */
+    private static final int SEGMENT_SHIFT = 24;
+
+    /** Grow once this share of slots is used; linear probing degrades quickly past it. */
+    private static final double MAX_LOAD = 0.7;
+
+    private static final VarHandle KEY = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] segments;
+    private final long capacity;
+    private final long mask;
+    private long size;
+
+    private PositionTable(Path path, FileChannel channel, long capacity) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.header = map(channel, 0, HEADER_BYTES);
+        long segmentSlots = Math.min(capacity, 1L << SEGMENT_SHIFT);
+        this.segments = new MappedByteBuffer[(int) (capacity / segmentSlots)];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = map(channel, HEADER_BYTES + i * segmentSlots * SLOT_BYTES, segmentSlots * SLOT_BYTES);
+        }
+    }
+
+    /**
+     * Opens the table at {@code path}, or creates an empty one with
+     * {@code initialCapacity} slots (rounded up to a power of two).
+     *
+     * @throws IllegalStateException if the file is not a position table
+     */
+    static PositionTable open(Path path, long initialCapacity) throws IOException {
+        if (!Files.exists(path)) {
+            return create(path, initialCapacity);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer header = map(channel, 0, HEADER_BYTES);
+            if (header.getLong(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IllegalStateException(path + " is not a position table");
+            }
+            PositionTable table = new PositionTable(path, channel, header.getLong(CAPACITY_OFFSET));
+            // After a crash the stored size may lag the slots that reached disk
+            table.size = header.getInt(CLEAN_OFFSET) != 0 ? header.getLong(SIZE_OFFSET) : table.countSlots();
+            table.header.putInt(CLEAN_OFFSET, 0);
+            table.header.force();
+            return table;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Creates an empty table, replacing any file at {@code path}. */
+    static PositionTable create(Path path, long capacity) throws IOException {
+        long slots = Long.highestOneBit(Math.max(capacity, 1024) - 1) << 1;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            PositionTable table = new PositionTable(path, channel, slots);
+            table.header.putLong(MAGIC_OFFSET, MAGIC);
+            table.header.putInt(VERSION_OFFSET, VERSION);
+            table.header.putLong(CAPACITY_OFFSET, slots);
+            return table;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Counters of a position, or {@link PositionStats#NONE} if it was never reached. */
+    PositionStats get(long hash) {
+        long key = storedKey(hash);
+        for (long slot = key & mask; ; slot = (slot + 1) & mask) {
+            MappedByteBuffer segment = segment(slot);
+            int offset = offset(slot);
+            long found = (long) KEY.getAcquire(segment, offset);
+            if (found == 0) {
+                return PositionStats.NONE;
+            }
+            if (found == key) {
+                return new PositionStats(
+                        Integer.toUnsignedLong(segment.getInt(offset + GAMES)),
+                        Integer.toUnsignedLong(segment.getInt(offset + WHITE_WINS)),
+                        Integer.toUnsignedLong(segment.getInt(offset + DRAWS)),
+                        Integer.toUnsignedLong(segment.getInt(offset + BLACK_WINS)));
+            }
+        }
+    }
+
+    /**
+     * Counts one more game through a position. {@code whiteScore} is 1, 0.5 or 0, or
+     * negative for a game without a result. Writer thread only; the caller grows the
+     * table once {@link #isFull()}.
+     */
+    void add(long hash, double whiteScore) {
+        long key = storedKey(hash);
+        for (long slot = key & mask; ; slot = (slot + 1) & mask) {
+            MappedByteBuffer segment = segment(slot);
+            int offset = offset(slot);
+            long found = (long) KEY.get(segment, offset);
+            if (found == key) {
+                count(segment, offset, whiteScore);
+                return;
+            }
+            if (found == 0) {
+                count(segment, offset, whiteScore);
+                KEY.setRelease(segment, offset, key);
+                size++;
+                return;
+            }
+        }
+    }
+
+    boolean isFull() {
+        return size > capacity * MAX_LOAD;
+    }
+
+    long size() {
+        return size;
+    }
+
+    long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Copies every slot into a new table of twice the capacity, written next to this
+     * one and then moved over it. This table stays readable until closed.
+     */
+    PositionTable grow() throws IOException {
+        Path next = path.resolveSibling(path.getFileName() + ".grow");
+        PositionTable bigger = create(next, capacity * 2);
+        try {
+            for (long slot = 0; slot < capacity; slot++) {
+                MappedByteBuffer segment = segment(slot);
+                int offset = offset(slot);
+                long key = (long) KEY.get(segment, offset);
+                if (key != 0) {
+                    bigger.copy(key, segment, offset);
+                }
+            }
+            bigger.force();
+        } catch (RuntimeException e) {
+            bigger.close();
+            Files.deleteIfExists(next);
+            throw e;
+        }
+        // The mappings follow the renamed file
+        Files.move(next, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        bigger.path = path;
+        return bigger;
+    }
+
+    /** Writes every change to disk; once it returns, added games survive a crash. */
+    void force() {
+        header.putLong(SIZE_OFFSET, size);
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        header.force();
+    }
+
+    /** Flushes and marks the file cleanly closed. Mappings stay valid for readers. */
+    @Override
+    public void close() throws IOException {
+        force();
+        header.putInt(CLEAN_OFFSET, 1);
+        header.force();
+        channel.close();
+    }
+
+    private void copy(long key, MappedByteBuffer from, int fromOffset) {
+        for (long slot = key & mask; ; slot = (slot + 1) & mask) {
+            MappedByteBuffer segment = segment(slot);
+            int offset = offset(slot);
+            if ((long) KEY.get(segment, offset) == 0) {
+                for (int field = GAMES; field < SLOT_BYTES; field += Integer.BYTES) {
+                    segment.putInt(offset + field, from.getInt(fromOffset + field));
+                }
+                KEY.setRelease(segment, offset, key);
+                size++;
+                return;
+            }
+        }
+    }
+
+    private long countSlots() {
+        long used = 0;
+        for (long slot = 0; slot < capacity; slot++) {
+            if ((long) KEY.get(segment(slot), offset(slot)) != 0) {
+                used++;
+            }
+        }
+        return used;
+    }
+
+    private static void count(MappedByteBuffer segment, int offset, double whiteScore) {
+        increment(segment, offset + GAMES);
+        if (whiteScore == 1) {
+            increment(segment, offset + WHITE_WINS);
+        } else if (whiteScore == 0.5) {
+            increment(segment, offset + DRAWS);
+        } else if (whiteScore == 0) {
+            increment(segment, offset + BLACK_WINS);
+        }
+    }
+
+    private static void increment(MappedByteBuffer segment, int offset) {
+        segment.putInt(offset, segment.getInt(offset) + 1);
+    }
+
+    private MappedByteBuffer segment(long slot) {
+        return segments[(int) (slot >>> SEGMENT_SHIFT)];
+    }
+
+    private static int offset(long slot) {
+        return (int) (slot & ((1L << SEGMENT_SHIFT) - 1)) * SLOT_BYTES;
+    }
+
+    /** Zero marks an empty slot; the one position that hashes to it is stored as 1. */
+    private static long storedKey(long hash) {
+        return hash != 0 ? hash : 1;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+}
@@ -0,0 +1,19 @@
+package com.chess.rating;
+
+import com.chess.model.Game;
+
+/**
+ * A finished, rated game: white's score is 1 for a win, 0.5 for a draw, 0 for a loss.
+ */
+public record GameResult(long gameId, long whiteId, long blackId, double whiteScore) {
+
+    /** The result of a game that ended with {@code status}, or null if it is not rated. */
+    public static GameResult of(long gameId, long whiteId, long blackId, Game.GameStatus status) {
+        return switch (status) {
+            case WHITE_WON -> new GameResult(gameId, whiteId, blackId, 1);
+            case BLACK_WON -> new GameResult(gameId, whiteId, blackId, 0);
+            case DRAW -> new GameResult(gameId, whiteId, blackId, 0.5);
+            case IN_PROGRESS, ABANDONED -> null;
+        };
+    }
+}
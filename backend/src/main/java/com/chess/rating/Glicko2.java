@@ -0,0 +1,117 @@
+package com.chess.rating;
+
+import java.util.List;
+
+/**
+ * Glicko-2 rating update (Glickman, "Example of the Glicko-2 system", 2013).
+ * Ratings are on the Glicko scale (1500 / 350 / 0.06 for a new player) and
+ * converted to the internal scale only for the update.
+ */
+public final class Glicko2 {
+
+    public static final Rating DEFAULT = new Rating(1500, 350, 0.06);
+
+    private static final double SCALE = 173.7178;
+    private static final double CONVERGENCE = 1e-6;
+
+    private final double tau;
+
+    public Glicko2(double tau) {
+        this.tau = tau;
+    }
+
+    public record Rating(double rating, double deviation, double volatility) {
+    }
+
+    /**
+     * A rating after {@code periods} rating periods without games: step 6 of the paper
+     * applied once per period, the deviation capped at a new player's.
+     */
+    public static Rating idle(Rating rating, long periods) {
+        if (periods <= 0) {
+            return rating;
+        }
+        double phi = rating.deviation() / SCALE;
+        double sigma = rating.volatility();
+        double deviation = Math.sqrt(phi * phi + periods * sigma * sigma) * SCALE;
+        return new Rating(rating.rating(), Math.min(deviation, DEFAULT.deviation()), sigma);
+    }
+
+    /** One game of the period, seen from the player being rated: score 1, 0.5 or 0. */
+    public record Outcome(Rating opponent, double score) {
+    }
+
+    /**
+     * Rates a player over one rating period. Opponents are taken at their rating
+     * from before the period. A period without games only widens the deviation.
+     */
+    public Rating rate(Rating player, List<Outcome> outcomes) {
+        double mu = (player.rating() - 1500) / SCALE;
+        double phi = player.deviation() / SCALE;
+        double sigma = player.volatility();
+
+        if (outcomes.isEmpty()) {
+            return new Rating(player.rating(), Math.sqrt(phi * phi + sigma * sigma) * SCALE, sigma);
+        }
+
+        double inverseVariance = 0;
+        double improvement = 0;
+        for (Outcome outcome : outcomes) {
+            double muJ = (outcome.opponent().rating() - 1500) / SCALE;
+            double g = g(outcome.opponent().deviation() / SCALE);
+            double expected = 1 / (1 + Math.exp(-g * (mu - muJ)));
+            inverseVariance += g * g * expected * (1 - expected);
+            improvement += g * (outcome.score() - expected);
+        }
+        double v = 1 / inverseVariance;
+        double delta = v * improvement;
+
+        double newSigma = volatility(delta, phi, v, sigma);
+        double phiStar = Math.sqrt(phi * phi + newSigma * newSigma);
+        double newPhi = 1 / Math.sqrt(1 / (phiStar * phiStar) + 1 / v);
+        double newMu = mu + newPhi * newPhi * improvement;
+        return new Rating(newMu * SCALE + 1500, newPhi * SCALE, newSigma);
+    }
+
+    private static double g(double phi) {
+        return 1 / Math.sqrt(1 + 3 * phi * phi / (Math.PI * Math.PI));
+    }
+
+    /** New volatility, by the Illinois variant of regula falsi (step 5 of the paper). */
+    private double volatility(double delta, double phi, double v, double sigma) {
+        double a = Math.log(sigma * sigma);
+        double bigA = a;
+        double bigB;
+        if (delta * delta > phi * phi + v) {
+            bigB = Math.log(delta * delta - phi * phi - v);
+        } else {
+            int k = 1;
+            while (f(a - k * tau, delta, phi, v, a) < 0) {
+                k++;
+            }
+            bigB = a - k * tau;
+        }
+
+        double fA = f(bigA, delta, phi, v, a);
+        double fB = f(bigB, delta, phi, v, a);
+        while (Math.abs(bigB - bigA) > CONVERGENCE) {
+            double bigC = bigA + (bigA - bigB) * fA / (fB - fA);
+            double fC = f(bigC, delta, phi, v, a);
+            if (fC * fB <= 0) {
+                bigA = bigB;
+                fA = fB;
+            } else {
+                fA /= 2;
+            }
+            bigB = bigC;
+            fB = fC;
+        }
+        return Math.exp(bigA / 2);
+    }
+
+    private double f(double x, double delta, double phi, double v, double a) {
+        double ex = Math.exp(x);
+        double denominator = phi * phi + v + ex;
+        return ex * (delta * delta - phi * phi - v - ex) / (2 * denominator * denominator) - (x - a) / (tau * tau);
+    }
+}
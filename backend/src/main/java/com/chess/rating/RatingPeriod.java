@@ -0,0 +1,84 @@
+package com.chess.rating;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Rates every player of one rating period. Each player's update only reads the
+ * ratings from before the period, so players are rated in parallel on a fork/join
+ * pool, split into chunks of {@value #CHUNK} players.
+ */
+final class RatingPeriod {
+
+    private static final int CHUNK = 256;
+
+    private RatingPeriod() {
+    }
+
+    /**
+     * Returns the new rating of every player with a game in {@code results}; players
+     * missing from {@code before} start from {@link Glicko2#DEFAULT}.
+     */
+    static Map<Long, Glicko2.Rating> rate(Glicko2 glicko, Map<Long, Glicko2.Rating> before,
+                                          List<GameResult> results, ForkJoinPool pool) {
+        Map<Long, List<Glicko2.Outcome>> outcomes = new HashMap<>();
+        for (GameResult result : results) {
+            Glicko2.Rating white = before.getOrDefault(result.whiteId(), Glicko2.DEFAULT);
+            Glicko2.Rating black = before.getOrDefault(result.blackId(), Glicko2.DEFAULT);
+            outcomes.computeIfAbsent(result.whiteId(), id -> new ArrayList<>())
+                    .add(new Glicko2.Outcome(black, result.whiteScore()));
+            outcomes.computeIfAbsent(result.blackId(), id -> new ArrayList<>())
+                    .add(new Glicko2.Outcome(white, 1 - result.whiteScore()));
+        }
+
+        Long[] players = outcomes.keySet().toArray(Long[]::new);
+        Glicko2.Rating[] rated = new Glicko2.Rating[players.length];
+        pool.invoke(new RateTask(glicko, before, outcomes, players, rated, 0, players.length));
+
+        Map<Long, Glicko2.Rating> after = new HashMap<>(players.length * 2);
+        for (int i = 0; i < players.length; i++) {
+            after.put(players[i], rated[i]);
+        }
+        return after;
+    }
+
+    private static final class RateTask extends RecursiveAction {
+
+        private final Glicko2 glicko;
+        private final Map<Long, Glicko2.Rating> before;
+        private final Map<Long, List<Glicko2.Outcome>> outcomes;
+        private final Long[] players;
+        private final Glicko2.Rating[] rated;
+        private final int from;
+        private final int to;
+
+        RateTask(Glicko2 glicko, Map<Long, Glicko2.Rating> before, Map<Long, List<Glicko2.Outcome>> outcomes,
+                 Long[] players, Glicko2.Rating[] rated, int from, int to) {
+            this.glicko = glicko;
+            this.before = before;
+            this.outcomes = outcomes;
+            this.players = players;
+            this.rated = rated;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK) {
+                for (int i = from; i < to; i++) {
+                    Glicko2.Rating current = before.getOrDefault(players[i], Glicko2.DEFAULT);
+                    rated[i] = glicko.rate(current, outcomes.get(players[i]));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RateTask(glicko, before, outcomes, players, rated, from, middle),
+                    new RateTask(glicko, before, outcomes, players, rated, middle, to));
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.chess.rating;
+
+import com.chess.model.Game;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Glicko-2 ratings, updated off the game-end path.
+ * <p>
+ * {@link #gameFinished} only queues the result. A dedicated thread closes a rating
+ * period every {@code period-ms}, rates everyone who played in it, and writes the
+ * new ratings together with the games' {@code rated} flag in one transaction.
+ * Games still unrated at startup (crash, or a failed period) are replayed first,
+ * grouped into periods by the time they finished. With {@code recompute-on-startup}
+ * every rating is instead rebuilt from scratch from all finished games.
+ * <p>
+ * Periods are numbered {@code floor(time / period-ms)}, and each player's last rated
+ * period is stored with the rating. The periods a player sat out widen their
+ * deviation (Glicko-2 step 6 per period) lazily: when they next play, and when the
+ * rating is read through {@link #current}.
+ */
+@Component
+public class RatingPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingPipeline.class);
+
+    private static final String FINISHED = "status IN ('WHITE_WON', 'BLACK_WON', 'DRAW')";
+
+    private static final String SELECT_UNRATED_SQL =
+            "SELECT id, white_player_id, black_player_id, status, updated_at FROM games " +
+            "WHERE rated = FALSE AND " + FINISHED + " ORDER BY updated_at, id";
+
+    private static final String SELECT_FINISHED_SQL =
+            "SELECT id, white_player_id, black_player_id, status, updated_at FROM games " +
+            "WHERE " + FINISHED + " ORDER BY updated_at, id";
+
+    private static final String SELECT_RATINGS_SQL =
+            "SELECT id, rating, rating_deviation, rating_volatility, rating_period FROM users WHERE id IN (%s)";
+
+    private static final String MARK_RATED_SQL =
+            "UPDATE games SET rated = TRUE WHERE id = ? AND rated = FALSE AND " + FINISHED;
+
+    private static final String SET_RATED_SQL = "UPDATE games SET rated = TRUE WHERE id = ?";
+
+    private static final String UPDATE_RATING_SQL =
+            "UPDATE users SET rating = ?, rating_deviation = ?, rating_volatility = ?, rating_period = ? WHERE id = ?";
+
+    private static final String RESET_RATINGS_SQL =
+            "UPDATE users SET rating = ?, rating_deviation = ?, rating_volatility = ?, rating_period = NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<GameResult> queue = new LinkedBlockingQueue<>();
+
+    @Value("${chess.ratings.period-ms:60000}")
+    private long periodMs;
+
+    @Value("${chess.ratings.tau:0.5}")
+    private double tau;
+
+    @Value("${chess.ratings.recompute-on-startup:false}")
+    private boolean recomputeOnStartup;
+
+    @Value("${chess.ratings.parallelism:0}")
+    private int parallelism;
+
+    private Glicko2 glicko;
+    private ForkJoinPool pool;
+    private Thread worker;
+    private volatile boolean running;
+
+    private record FinishedGame(GameResult result, long finishedAt) {
+    }
+
+    private record Period(long number, List<GameResult> results) {
+    }
+
+    public RatingPipeline(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        glicko = new Glicko2(tau);
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        running = true;
+        worker = new Thread(this::run, "rating-pipeline");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            // Results still queued stay unrated in the database and are replayed next start
+            worker.interrupt();
+            worker.join();
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A stored rating as it stands now: the deviation widened for every whole period
+     * since {@code ratedPeriod}, the last period the player was rated in (null if never).
+     */
+    public Glicko2.Rating current(Glicko2.Rating stored, Long ratedPeriod) {
+        return Glicko2.idle(stored, missedPeriods(Math.floorDiv(System.currentTimeMillis(), periodMs), ratedPeriod));
+    }
+
+    /** Queues a finished game for the current rating period; never blocks. */
+    public void gameFinished(Long gameId, Long whiteId, Long blackId, Game.GameStatus status) {
+        GameResult result = GameResult.of(gameId, whiteId, blackId, status);
+        if (result != null) {
+            queue.add(result);
+        }
+    }
+
+    private void run() {
+        try {
+            if (recomputeOnStartup) {
+                recomputeAll();
+            } else {
+                replayUnrated();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Rating startup pass failed", e);
+        }
+
+        // Aligned with the period numbers used for replayed games
+        long periodEnd = (Math.floorDiv(System.currentTimeMillis(), periodMs) + 1) * periodMs;
+        while (running) {
+            try {
+                Thread.sleep(Math.max(periodEnd - System.currentTimeMillis(), 0));
+            } catch (InterruptedException e) {
+                return;
+            }
+            long number = Math.floorDiv(periodEnd, periodMs) - 1;
+            periodEnd += periodMs;
+
+            List<GameResult> results = new ArrayList<>();
+            queue.drainTo(results);
+            if (!results.isEmpty()) {
+                Period period = new Period(number, results);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> ratePeriod(period));
+                } catch (RuntimeException e) {
+                    logger.error("Rating period of {} games failed; they stay unrated", results.size(), e);
+                }
+            }
+        }
+    }
+
+    /** Rates games left unrated by a previous run, one rating period at a time. */
+    private void replayUnrated() {
+        List<FinishedGame> unrated = jdbcTemplate.query(SELECT_UNRATED_SQL, this::mapFinishedGame);
+        List<Period> periods = groupByPeriod(unrated);
+        for (Period period : periods) {
+            transactionTemplate.executeWithoutResult(status -> ratePeriod(period));
+        }
+        if (!unrated.isEmpty()) {
+            logger.info("Rated {} games left over from a previous run in {} periods", unrated.size(), periods.size());
+        }
+    }
+
+    /**
+     * Rebuilds every rating from scratch by replaying all finished games in rating
+     * periods. Periods run in order; the players within each are rated in parallel.
+     */
+    private void recomputeAll() {
+        long started = System.nanoTime();
+        List<FinishedGame> finished = jdbcTemplate.query(SELECT_FINISHED_SQL, this::mapFinishedGame);
+        List<Period> periods = groupByPeriod(finished);
+
+        Map<Long, Glicko2.Rating> ratings = new HashMap<>();
+        Map<Long, Long> ratedPeriods = new HashMap<>();
+        for (Period period : periods) {
+            Map<Long, Glicko2.Rating> before = new HashMap<>();
+            for (Long player : players(period.results())) {
+                Glicko2.Rating rating = ratings.get(player);
+                if (rating != null) {
+                    before.put(player, Glicko2.idle(rating, missedPeriods(period.number(), ratedPeriods.get(player))));
+                }
+            }
+            Map<Long, Glicko2.Rating> after = RatingPeriod.rate(glicko, before, period.results(), pool);
+            ratings.putAll(after);
+            after.keySet().forEach(player -> ratedPeriods.put(player, period.number()));
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Glicko2.Rating initial = Glicko2.DEFAULT;
+            jdbcTemplate.update(RESET_RATINGS_SQL, initial.rating(), initial.deviation(), initial.volatility());
+            writeRatings(ratings, ratedPeriods::get);
+            // Only the games replayed here; any that finished since are rated in the next period
+            jdbcTemplate.batchUpdate(SET_RATED_SQL,
+                    finished.stream().map(game -> new Object[]{game.result().gameId()}).toList());
+        });
+        logger.info("Recomputed {} ratings from {} games in {} periods ({} ms)", ratings.size(), finished.size(),
+                periods.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /** Rates one period's games that are not rated yet; must run in a transaction. */
+    private void ratePeriod(Period period) {
+        List<GameResult> results = period.results();
+        // Claim the games first, so a game queued twice (or already replayed) counts once
+        int[] claimed = jdbcTemplate.batchUpdate(MARK_RATED_SQL,
+                results.stream().map(result -> new Object[]{result.gameId()}).toList());
+        List<GameResult> fresh = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            if (claimed[i] != 0) {
+                fresh.add(results.get(i));
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Glicko2.Rating> rated = RatingPeriod.rate(glicko, loadRatings(players(fresh), period.number()),
+                fresh, pool);
+        writeRatings(rated, player -> period.number());
+    }
+
+    private static Set<Long> players(List<GameResult> results) {
+        Set<Long> players = new LinkedHashSet<>();
+        results.forEach(result -> {
+            players.add(result.whiteId());
+            players.add(result.blackId());
+        });
+        return players;
+    }
+
+    /** Ratings at the start of period {@code number}, widened for the periods each player sat out. */
+    private Map<Long, Glicko2.Rating> loadRatings(Set<Long> players, long number) {
+        String placeholders = players.stream().map(id -> "?").collect(Collectors.joining(", "));
+        Map<Long, Glicko2.Rating> ratings = new HashMap<>(players.size() * 2);
+        jdbcTemplate.query(String.format(SELECT_RATINGS_SQL, placeholders), rs -> {
+            Glicko2.Rating stored = new Glicko2.Rating(
+                    rs.getDouble("rating"), rs.getDouble("rating_deviation"), rs.getDouble("rating_volatility"));
+            Long ratedPeriod = rs.getObject("rating_period", Long.class);
+            ratings.put(rs.getLong("id"), Glicko2.idle(stored, missedPeriods(number, ratedPeriod)));
+        }, players.toArray());
+        return ratings;
+    }
+
+    private void writeRatings(Map<Long, Glicko2.Rating> ratings, ToLongFunction<Long> ratedPeriod) {
+        List<Object[]> args = new ArrayList<>(ratings.size());
+        ratings.forEach((id, rating) -> args.add(new Object[]{
+                rating.rating(), rating.deviation(), rating.volatility(), ratedPeriod.applyAsLong(id), id}));
+        jdbcTemplate.batchUpdate(UPDATE_RATING_SQL, args);
+    }
+
+    /** Whole periods between the one a player was last rated in and period {@code number}. */
+    private static long missedPeriods(long number, Long ratedPeriod) {
+        return ratedPeriod != null ? Math.max(number - ratedPeriod - 1, 0) : 0;
+    }
+
+    /** Splits games, ordered by finish time, into consecutive {@code period-ms} windows. */
+    private List<Period> groupByPeriod(List<FinishedGame> games) {
+        List<Period> periods = new ArrayList<>();
+        for (FinishedGame game : games) {
+            long number = Math.floorDiv(game.finishedAt(), periodMs);
+            if (periods.isEmpty() || periods.getLast().number() != number) {
+                periods.add(new Period(number, new ArrayList<>()));
+            }
+            periods.getLast().results().add(game.result());
+        }
+        return periods;
+    }
+
+    private FinishedGame mapFinishedGame(ResultSet rs, int rowNum) throws SQLException {
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        GameResult result = GameResult.of(rs.getLong("id"), rs.getLong("white_player_id"),
+                rs.getLong("black_player_id"), Game.GameStatus.valueOf(rs.getString("status")));
+        return new FinishedGame(result, updatedAt != null ? updatedAt.getTime() : 0);
+    }
+}
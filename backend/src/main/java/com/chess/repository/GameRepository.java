@@ -1,22 +1,45 @@
 package com.chess.repository;
 
 import com.chess.model.Game;
-import com.chess.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface GameRepository extends JpaRepository<Game, Long> {
 
-    @Query("SELECT g FROM Game g WHERE (g.whitePlayer = :player OR g.blackPlayer = :player) AND g.status = 'IN_PROGRESS'")
-    List<Game> findActiveGamesByPlayer(@Param("player") User player);
+    String SUMMARY_SELECT = "SELECT new com.chess.repository.GameSummary(" +
+            "g.id, w.id, w.username, b.id, b.username, g.status, g.currentTurn, g.currentFen, " +
+            "g.createdAt, g.updatedAt, " +
+            "(SELECT COUNT(m) FROM Move m WHERE m.game = g), cast(sql('octet_length(?)', g.moveData) as Integer)) " +
+            "FROM Game g JOIN g.whitePlayer w JOIN g.blackPlayer b ";
 
-    @Query("SELECT g FROM Game g WHERE g.whitePlayer = :player OR g.blackPlayer = :player ORDER BY g.updatedAt DESC")
-    List<Game> findAllGamesByPlayer(@Param("player") User player);
+    /*
+     * Player lookups are UNION ALL queries with one branch per colour, so each
+     * branch can use its (player, ...) index; a single "white OR black" filter
+     * cannot. The black branch skips games where the player is also white.
+     */
+
+    String AS_WHITE = " FROM games WHERE white_player_id = :playerId";
+    String AS_BLACK = " FROM games WHERE black_player_id = :playerId AND white_player_id <> :playerId";
+    String ACTIVE = " AND status = 'IN_PROGRESS'";
+    String AFTER_CURSOR = " AND (updated_at, id) < (:updatedAt, :id)";
+    String HISTORY_KEYS = "SELECT id, updated_at";
+    String HISTORY_ORDER = " ORDER BY updated_at DESC, id DESC";
+
+    @Query(value = "SELECT *" + AS_WHITE + ACTIVE + " UNION ALL SELECT *" + AS_BLACK + ACTIVE,
+           nativeQuery = true)
+    List<Game> findActiveGamesByPlayer(@Param("playerId") Long playerId);
 
     @Query("SELECT g FROM Game g LEFT JOIN FETCH g.moves WHERE g.id = :id")
     Game findByIdWithMoves(@Param("id") Long id);
@@ -27,4 +50,59 @@ public interface GameRepository extends JpaRepository<Game, Long> {
            "LEFT JOIN FETCH g.blackPlayer " +
            "WHERE g.id = :id")
     Game findByIdWithMovesAndPlayers(@Param("id") Long id);
+
+    @Query("SELECT g FROM Game g " +
+           "JOIN FETCH g.whitePlayer " +
+           "JOIN FETCH g.blackPlayer " +
+           "WHERE g.id = :id")
+    Optional<Game> findByIdWithPlayers(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Game g SET g.status = :status, g.updatedAt = :updatedAt, g.version = g.version + 1 WHERE g.id = :id")
+    int updateStatus(@Param("id") Long id,
+                     @Param("status") Game.GameStatus status,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query(value = "SELECT id FROM games WHERE status = 'IN_PROGRESS' AND clock_initial_ms IS NOT NULL",
+            nativeQuery = true)
+    List<Long> findTimedActiveGameIds();
+
+    @Query(SUMMARY_SELECT + "WHERE g.id IN :ids")
+    List<GameSummary> findGameSummariesByIdIn(@Param("ids") List<Long> ids);
+
+    @Query(value = "SELECT id FROM (" +
+                   HISTORY_KEYS + AS_WHITE + ACTIVE + " UNION ALL " + HISTORY_KEYS + AS_BLACK + ACTIVE +
+                   ") g" + HISTORY_ORDER,
+           nativeQuery = true)
+    List<Long> findActiveGameIds(@Param("playerId") Long playerId);
+
+    /** First history page; each branch is cut to {@code limit} before the merge. */
+    @Query(value = "SELECT id FROM (" +
+                   "(" + HISTORY_KEYS + AS_WHITE + HISTORY_ORDER + " LIMIT :limit) UNION ALL " +
+                   "(" + HISTORY_KEYS + AS_BLACK + HISTORY_ORDER + " LIMIT :limit)" +
+                   ") g" + HISTORY_ORDER + " LIMIT :limit",
+           nativeQuery = true)
+    List<Long> findHistoryGameIds(@Param("playerId") Long playerId, @Param("limit") int limit);
+
+    /** Keyset page: the games strictly after the (updatedAt, id) cursor in history order. */
+    @Query(value = "SELECT id FROM (" +
+                   "(" + HISTORY_KEYS + AS_WHITE + AFTER_CURSOR + HISTORY_ORDER + " LIMIT :limit) UNION ALL " +
+                   "(" + HISTORY_KEYS + AS_BLACK + AFTER_CURSOR + HISTORY_ORDER + " LIMIT :limit)" +
+                   ") g" + HISTORY_ORDER + " LIMIT :limit",
+           nativeQuery = true)
+    List<Long> findHistoryGameIdsAfter(@Param("playerId") Long playerId,
+                                       @Param("updatedAt") LocalDateTime updatedAt,
+                                       @Param("id") Long id,
+                                       @Param("limit") int limit);
+
+    /** Full history in page order, read through a server-side cursor. Must be consumed inside a transaction. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+    @Query(value = "SELECT id FROM (" +
+                   HISTORY_KEYS + AS_WHITE + " UNION ALL " + HISTORY_KEYS + AS_BLACK +
+                   ") g" + HISTORY_ORDER,
+           nativeQuery = true)
+    Stream<Long> streamHistoryGameIds(@Param("playerId") Long playerId);
+
+    @Query("SELECT g FROM Game g WHERE g.id IN :ids AND g.moveData IS NOT NULL")
+    List<Game> findWithMoveDataByIdIn(@Param("ids") List<Long> ids);
 }
@@ -0,0 +1,31 @@
+package com.chess.repository;
+
+import com.chess.engine.MoveListCodec;
+import com.chess.model.Game;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat projection of a game with both players and its move count, loaded in a
+ * single query for list endpoints.
+ */
+public record GameSummary(
+        Long id,
+        Long whitePlayerId,
+        String whiteUsername,
+        Long blackPlayerId,
+        String blackUsername,
+        Game.GameStatus status,
+        String currentTurn,
+        String currentFen,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Long moveRowCount,
+        Integer moveDataLength
+) {
+
+    public int moveCount() {
+        int packed = moveDataLength != null ? moveDataLength / MoveListCodec.BYTES_PER_MOVE : 0;
+        return Math.max(packed, moveRowCount != null ? moveRowCount.intValue() : 0);
+    }
+}
@@ -1,8 +1,8 @@
 package com.chess.repository;
 
 import com.chess.model.Invitation;
-import com.chess.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,13 +13,24 @@ import java.util.Optional;
 @Repository
 public interface InvitationRepository extends JpaRepository<Invitation, Long> {
 
-    List<Invitation> findByReceiverAndStatus(User receiver, Invitation.InvitationStatus status);
-
-    List<Invitation> findBySenderAndStatus(User sender, Invitation.InvitationStatus status);
-
-    @Query("SELECT i FROM Invitation i WHERE i.sender = :user OR i.receiver = :user ORDER BY i.createdAt DESC")
-    List<Invitation> findAllByUser(@Param("user") User user);
+    // One branch per side so each can use its (user, status, created_at) index
+    @Query(value = "SELECT * FROM (" +
+                   "SELECT * FROM invitations WHERE sender_id = :userId " +
+                   "UNION ALL " +
+                   "SELECT * FROM invitations WHERE receiver_id = :userId AND sender_id <> :userId" +
+                   ") i ORDER BY created_at DESC",
+           nativeQuery = true)
+    List<Invitation> findAllByUser(@Param("userId") Long userId);
 
     @Query("SELECT i FROM Invitation i JOIN FETCH i.sender JOIN FETCH i.receiver WHERE i.id = :id")
     Optional<Invitation> findByIdWithUsers(@Param("id") Long id);
+
+    @Query("SELECT i FROM Invitation i JOIN FETCH i.sender JOIN FETCH i.receiver WHERE i.status = :status")
+    List<Invitation> findByStatusWithUsers(@Param("status") Invitation.InvitationStatus status);
+
+    // Answers only a still-pending invitation; 0 means it expired or was answered first
+    @Modifying
+    @Query("UPDATE Invitation i SET i.status = :status " +
+           "WHERE i.id = :id AND i.status = com.chess.model.Invitation.InvitationStatus.PENDING")
+    int answerPending(@Param("id") Long id, @Param("status") Invitation.InvitationStatus status);
 }
@@ -3,6 +3,8 @@ package com.chess.repository;
 import com.chess.model.Game;
 import com.chess.model.Move;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,5 +14,9 @@ public interface MoveRepository extends JpaRepository<Move, Long> {
 
     List<Move> findByGameOrderByMoveNumberAsc(Game game);
 
-    int countByGame(Game game);
+    @Query("SELECT COALESCE(MAX(m.moveNumber), 0) FROM Move m WHERE m.game.id = :gameId")
+    int findLastMoveNumber(@Param("gameId") Long gameId);
+
+    @Query("SELECT m FROM Move m WHERE m.game.id IN :gameIds ORDER BY m.game.id, m.moveNumber")
+    List<Move> findByGameIdIn(@Param("gameIds") List<Long> gameIds);
 }
@@ -0,0 +1,56 @@
+package com.chess.security;
+
+import com.chess.service.GameService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps {@code /topic/game/{id}/moves} to the game's two players. Spectators read
+ * the delayed {@code /spectate} topic instead, so a live move feed cannot be relayed
+ * to a player during the game. Other subscriptions pass through untouched.
+ */
+@Component
+public class MoveTopicSubscriptionInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(MoveTopicSubscriptionInterceptor.class);
+
+    private static final Pattern MOVE_TOPIC = Pattern.compile("/topic/game/(\\d{1,18})/moves");
+
+    private final GameService gameService;
+
+    public MoveTopicSubscriptionInterceptor(GameService gameService) {
+        this.gameService = gameService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.SUBSCRIBE
+                || accessor.getDestination() == null) {
+            return message;
+        }
+        Matcher matcher = MOVE_TOPIC.matcher(accessor.getDestination());
+        if (!matcher.matches()) {
+            return message;
+        }
+
+        Long gameId = Long.parseLong(matcher.group(1));
+        if (accessor.getUser() instanceof StompPrincipal principal && gameService.isPlayer(gameId, principal.userId())) {
+            return message;
+        }
+        // Dropping the frame leaves the session open; the subscription just never receives anything
+        logger.warn("Rejected subscription to {} from {}", accessor.getDestination(),
+                accessor.getUser() != null ? accessor.getUser().getName() : "anonymous");
+        return null;
+    }
+}
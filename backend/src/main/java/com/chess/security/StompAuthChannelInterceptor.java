@@ -0,0 +1,59 @@
+package com.chess.security;
+
+import com.chess.model.User;
+import com.chess.service.PlayerService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates STOMP sessions with the JWT sent in the CONNECT frame's
+ * {@code Authorization} header and binds a {@link StompPrincipal} to the session.
+ * A CONNECT without a valid token is rejected; later frames reuse the bound
+ * principal without any lookup.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+    private final PlayerService playerService;
+
+    public StompAuthChannelInterceptor(JwtService jwtService, PlayerService playerService) {
+        this.jwtService = jwtService;
+        this.playerService = playerService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            throw new BadCredentialsException("Missing bearer token on STOMP CONNECT");
+        }
+
+        Claims claims;
+        try {
+            claims = jwtService.parseToken(authHeader.substring(BEARER_PREFIX.length()));
+        } catch (JwtException e) {
+            throw new BadCredentialsException("Invalid JWT on STOMP CONNECT", e);
+        }
+
+        User user = playerService.findByUsername(claims.getSubject())
+                .orElseThrow(() -> new BadCredentialsException("Unknown user " + claims.getSubject()));
+        accessor.setUser(new StompPrincipal(user.getId(), user.getUsername()));
+        return message;
+    }
+}
@@ -0,0 +1,15 @@
+package com.chess.security;
+
+import java.security.Principal;
+
+/**
+ * Identity of a STOMP session, bound once at CONNECT. Message handlers take it as
+ * a {@code Principal} argument instead of trusting usernames in payloads.
+ */
+public record StompPrincipal(Long userId, String username) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
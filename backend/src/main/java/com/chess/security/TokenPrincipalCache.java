@@ -0,0 +1,60 @@
+package com.chess.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Verified JWTs mapped to their principal, so repeat requests with the same token
+ * skip signature verification and the user lookup. Bounded to {@code max-size}
+ * entries, least recently used evicted first. An entry lives for {@code ttl-ms}
+ * or until the token expires, whichever is sooner.
+ */
+@Component
+public class TokenPrincipalCache {
+
+    private final int maxSize;
+    private final long ttlMs;
+    private final Map<String, Entry> entries;
+
+    public TokenPrincipalCache(@Value("${jwt.cache.max-size:10000}") int maxSize,
+                               @Value("${jwt.cache.ttl-ms:300000}") long ttlMs) {
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > TokenPrincipalCache.this.maxSize;
+            }
+        };
+    }
+
+    public Optional<UserDetails> get(String token) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(token);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (entry.expiresAt() <= now) {
+                entries.remove(token);
+                return Optional.empty();
+            }
+            return Optional.of(entry.principal());
+        }
+    }
+
+    public void put(String token, UserDetails principal, long tokenExpiresAt) {
+        long expiresAt = Math.min(tokenExpiresAt, System.currentTimeMillis() + ttlMs);
+        synchronized (entries) {
+            entries.put(token, new Entry(principal, expiresAt));
+        }
+    }
+
+    private record Entry(UserDetails principal, long expiresAt) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.chess.service;
+
+import com.chess.dto.ExplorerDTO;
+import com.chess.dto.ExplorerMoveDTO;
+import com.chess.engine.MoveGenerator;
+import com.chess.engine.Notation;
+import com.chess.engine.PackedMove;
+import com.chess.engine.Position;
+import com.chess.positions.PositionIndex;
+import com.chess.positions.PositionStats;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Opening explorer over the {@link PositionIndex}: how often a position was reached
+ * and how those games ended, and the same for each legal move from it. Everything
+ * is answered from the index and the engine, without touching the database.
+ */
+@Service
+public class ExplorerService {
+
+    private final PositionIndex positionIndex;
+
+    public ExplorerService(PositionIndex positionIndex) {
+        this.positionIndex = positionIndex;
+    }
+
+    /**
+     * Explores {@code fen}, or the initial position when null. Moves never played
+     * from the position are left out; the rest are ordered by games played.
+     *
+     * @throws IllegalArgumentException if the FEN is malformed
+     */
+    public ExplorerDTO explore(String fen) {
+        Position position = fen != null ? Position.fromFen(fen) : Position.initial();
+        PositionStats stats = positionIndex.stats(position.hash());
+
+        List<ExplorerMoveDTO> moves = new ArrayList<>();
+        if (stats.games() > 0) {
+            int[] legal = new int[MoveGenerator.MAX_MOVES];
+            int count = MoveGenerator.generateLegal(position, legal);
+            for (int i = 0; i < count; i++) {
+                String san = Notation.san(position, legal[i]);
+                position.make(legal[i]);
+                PositionStats after = positionIndex.stats(position.hash());
+                position.unmake(legal[i]);
+                if (after.games() > 0) {
+                    moves.add(ExplorerMoveDTO.builder()
+                            .uci(PackedMove.toUci(legal[i]))
+                            .san(san)
+                            .games(after.games())
+                            .whiteWins(after.whiteWins())
+                            .draws(after.draws())
+                            .blackWins(after.blackWins())
+                            .build());
+                }
+            }
+            moves.sort(Comparator.comparingLong(ExplorerMoveDTO::getGames).reversed());
+        }
+
+        return ExplorerDTO.builder()
+                .fen(position.toFen())
+                .games(stats.games())
+                .whiteWins(stats.whiteWins())
+                .draws(stats.draws())
+                .blackWins(stats.blackWins())
+                .moves(moves)
+                .build();
+    }
+}
@@ -1,42 +1,290 @@
 package com.chess.service;
 
+import com.chess.cluster.ClusterGames;
+import com.chess.dto.GameCatchUpDTO;
 import com.chess.dto.GameDTO;
+import com.chess.dto.GamePageDTO;
 import com.chess.dto.MoveDTO;
 import com.chess.dto.PlayerDTO;
+import com.chess.engine.IllegalMoveException;
+import com.chess.engine.MoveGenerator;
+import com.chess.engine.MoveListCodec;
+import com.chess.engine.Notation;
+import com.chess.engine.PackedMove;
+import com.chess.engine.Piece;
+import com.chess.engine.Position;
+import com.chess.engine.Square;
+import com.chess.live.GameActors;
+import com.chess.live.GameClock;
+import com.chess.live.LiveGame;
+import com.chess.live.LiveGameRegistry;
+import com.chess.persistence.MoveRecord;
+import com.chess.persistence.MoveWriteBehind;
+import com.chess.positions.PositionIndex;
+import com.chess.rating.RatingPipeline;
 import com.chess.model.Game;
 import com.chess.model.Move;
 import com.chess.model.User;
 import com.chess.repository.GameRepository;
+import com.chess.repository.GameSummary;
 import com.chess.repository.MoveRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class GameService {
 
+    private static final Logger logger = LoggerFactory.getLogger(GameService.class);
+
+    public static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final int EXPORT_CHUNK_SIZE = 200;
+
     private final GameRepository gameRepository;
     private final MoveRepository moveRepository;
+    private final LiveGameRegistry liveGameRegistry;
+    private final MoveWriteBehind moveWriteBehind;
+    private final RatingPipeline ratingPipeline;
+    private final PositionIndex positionIndex;
+    private final EntityManager entityManager;
+    private final ObjectProvider<ClusterGames> clusterGames;
+
+    @Value("${chess.persistence.move-storage:rows}")
+    private String moveStorage;
 
-    public GameService(GameRepository gameRepository, MoveRepository moveRepository) {
+    @Value("${chess.live.catch-up-moves:64}")
+    private int catchUpMoves;
+
+    public GameService(GameRepository gameRepository,
+                       MoveRepository moveRepository,
+                       LiveGameRegistry liveGameRegistry,
+                       MoveWriteBehind moveWriteBehind,
+                       RatingPipeline ratingPipeline,
+                       PositionIndex positionIndex,
+                       EntityManager entityManager,
+                       ObjectProvider<ClusterGames> clusterGames) {
         this.gameRepository = gameRepository;
         this.moveRepository = moveRepository;
+        this.liveGameRegistry = liveGameRegistry;
+        this.moveWriteBehind = moveWriteBehind;
+        this.ratingPipeline = ratingPipeline;
+        this.positionIndex = positionIndex;
+        this.entityManager = entityManager;
+        this.clusterGames = clusterGames;
+    }
+
+    /** Players and time control of a game to create; {@code clockInitialMs} null means untimed. */
+    public record NewGame(User whitePlayer, User blackPlayer, Long clockInitialMs, Long clockIncrementMs) {
+    }
+
+    /**
+     * Creates a game; {@code clockInitialMs} null means untimed. White's clock starts
+     * running immediately.
+     */
+    @Transactional
+    public Game createGame(User whitePlayer, User blackPlayer, Long clockInitialMs, Long clockIncrementMs) {
+        return createGames(List.of(new NewGame(whitePlayer, blackPlayer, clockInitialMs, clockIncrementMs))).get(0);
     }
 
+    /**
+     * Creates several games in one transaction, in order. Used by matchmaking to
+     * start a whole round of pairings at once.
+     */
     @Transactional
-    public Game createGame(User whitePlayer, User blackPlayer) {
-        Game game = Game.builder()
-                .whitePlayer(whitePlayer)
-                .blackPlayer(blackPlayer)
-                .status(Game.GameStatus.IN_PROGRESS)
-                .currentTurn("white")
-                .currentFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1")
+    public List<Game> createGames(List<NewGame> newGames) {
+        List<Game> games = new ArrayList<>(newGames.size());
+        for (NewGame newGame : newGames) {
+            boolean timed = newGame.clockInitialMs() != null;
+            games.add(Game.builder()
+                    .whitePlayer(newGame.whitePlayer())
+                    .blackPlayer(newGame.blackPlayer())
+                    .status(Game.GameStatus.IN_PROGRESS)
+                    .currentTurn("white")
+                    .currentFen(Position.START_FEN)
+                    .clockInitialMs(newGame.clockInitialMs())
+                    .clockIncrementMs(timed ? incrementMs(newGame) : null)
+                    .whiteTimeMs(newGame.clockInitialMs())
+                    .blackTimeMs(newGame.clockInitialMs())
+                    .build());
+        }
+
+        games = gameRepository.saveAll(games);
+        List<Game> saved = games;
+        // Registered only once the rows are committed, so no move can reach a game the database lacks
+        afterCommit(() -> {
+            long now = GameClock.now();
+            for (int i = 0; i < saved.size(); i++) {
+                Game game = saved.get(i);
+                NewGame newGame = newGames.get(i);
+                Long initialMs = newGame.clockInitialMs();
+                liveGameRegistry.register(new LiveGame(
+                        game.getId(),
+                        newGame.whitePlayer().getId(), newGame.whitePlayer().getUsername(),
+                        newGame.blackPlayer().getId(), newGame.blackPlayer().getUsername(),
+                        Position.initial(), 0,
+                        initialMs != null
+                                ? new GameClock(initialMs, incrementMs(newGame), initialMs, initialMs, true, now)
+                                : null,
+                        catchUpMoves));
+            }
+        });
+        return games;
+    }
+
+    private static long incrementMs(NewGame newGame) {
+        return newGame.clockIncrementMs() != null ? newGame.clockIncrementMs() : 0;
+    }
+
+    /** Ids of timed games still in progress, whose flag-fall checks must be re-armed at startup. */
+    @Transactional(readOnly = true)
+    public List<Long> findTimedActiveGameIds() {
+        return gameRepository.findTimedActiveGameIds();
+    }
+
+    /**
+     * Returns the live state of an in-progress game. Games that are not yet in the
+     * registry (e.g. started before a restart) are loaded from the database once.
+     * Returns empty if the game does not exist or is finished.
+     */
+    public Optional<LiveGame> findLiveGame(Long id) {
+        Optional<LiveGame> cached = liveGameRegistry.get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        return gameRepository.findByIdWithPlayers(id)
+                .filter(game -> game.getStatus() == Game.GameStatus.IN_PROGRESS)
+                .map(game -> liveGameRegistry.register(loadLiveGame(game)));
+    }
+
+    /**
+     * Returns the live state of a game only if it is already in memory. Never reads
+     * the database; the players and clock may be read from any thread, the position
+     * may not.
+     */
+    public Optional<LiveGame> findCachedLiveGame(Long id) {
+        return liveGameRegistry.get(id);
+    }
+
+    /**
+     * Whether the user plays in the game, from the live state when it is in memory and
+     * the database otherwise. False if the game does not exist.
+     */
+    public boolean isPlayer(Long gameId, Long userId) {
+        Optional<LiveGame> cached = liveGameRegistry.get(gameId);
+        if (cached.isPresent()) {
+            return cached.get().isPlayer(userId);
+        }
+        return gameRepository.findByIdWithPlayers(gameId)
+                .map(game -> game.getWhitePlayer().getId().equals(userId)
+                        || game.getBlackPlayer().getId().equals(userId))
+                .orElse(false);
+    }
+
+    /**
+     * Builds the moves a client holding the game up to {@code ply} is missing, or
+     * returns null if they are older than the recent-move buffer and a full snapshot
+     * is needed. Must run on the game's mailbox.
+     */
+    public GameCatchUpDTO catchUp(LiveGame liveGame, int ply) {
+        List<MoveDTO> missed = liveGame.getRecentMoves().after(ply);
+        if (missed == null) {
+            return null;
+        }
+        GameClock clock = liveGame.getClock();
+        long now = GameClock.now();
+        return GameCatchUpDTO.builder()
+                .gameId(liveGame.getId())
+                .fromPly(ply)
+                .ply(liveGame.getPly())
+                .currentTurn(liveGame.getCurrentTurn())
+                .whiteTimeMs(clock != null ? clock.whiteRemainingMs(now) : null)
+                .blackTimeMs(clock != null ? clock.blackRemainingMs(now) : null)
+                .moves(missed)
                 .build();
+    }
+
+    private LiveGame loadLiveGame(Game game) {
+        byte[] moveData = game.getMoveData();
+        int ply;
+        if (moveData != null) {
+            ply = MoveListCodec.count(moveData);
+        } else {
+            ply = moveRepository.findLastMoveNumber(game.getId());
+            moveData = new byte[0];
+        }
+        Position position = Position.fromFen(game.getCurrentFen());
+        // Row storage still needs the move list when the position could already be repeated
+        if (moveData.length == 0 && ply > 0 && (isBlobStorage() || position.halfmoveClock() >= 4)) {
+            moveData = encodeMoveRows(game);
+        }
+        return new LiveGame(
+                game.getId(),
+                game.getWhitePlayer().getId(), game.getWhitePlayer().getUsername(),
+                game.getBlackPlayer().getId(), game.getBlackPlayer().getUsername(),
+                position,
+                ply,
+                moveData,
+                loadClock(game, position),
+                catchUpMoves);
+    }
+
+    /**
+     * Restores a timed game's clock from the last remaining times written. Time that
+     * passed while the game was not loaded (e.g. during a restart) is not charged.
+     */
+    private GameClock loadClock(Game game, Position position) {
+        if (game.getClockInitialMs() == null) {
+            return null;
+        }
+        long initialMs = game.getClockInitialMs();
+        return new GameClock(initialMs,
+                game.getClockIncrementMs() != null ? game.getClockIncrementMs() : 0,
+                game.getWhiteTimeMs() != null ? game.getWhiteTimeMs() : initialMs,
+                game.getBlackTimeMs() != null ? game.getBlackTimeMs() : initialMs,
+                position.sideToMove() == Piece.WHITE,
+                GameClock.now());
+    }
 
-        return gameRepository.save(game);
+    /**
+     * Converts a game stored as moves rows to the packed format, so that it can
+     * continue in blob storage mode.
+     */
+    private byte[] encodeMoveRows(Game game) {
+        List<Move> rows = moveRepository.findByGameOrderByMoveNumberAsc(game);
+        int[] moves = new int[rows.size()];
+        Position position = Position.initial();
+        for (int i = 0; i < rows.size(); i++) {
+            Move row = rows.get(i);
+            moves[i] = MoveGenerator.findLegal(position, Square.parse(row.getFromSquare()),
+                    Square.parse(row.getToSquare()), parsePromotion(row.getPromotion()));
+            if (moves[i] == PackedMove.NONE) {
+                throw new IllegalStateException("Stored move " + row.getMoveNumber() + " of game "
+                        + game.getId() + " is not legal");
+            }
+            position.play(moves[i]);
+        }
+        return MoveListCodec.encode(moves, rows.size());
+    }
+
+    private boolean isBlobStorage() {
+        return "blob".equalsIgnoreCase(moveStorage);
     }
 
     public Optional<Game> findById(Long id) {
@@ -52,60 +300,392 @@ public class GameService {
     }
 
     public List<Game> findActiveGamesByPlayer(User player) {
-        return gameRepository.findActiveGamesByPlayer(player);
+        return gameRepository.findActiveGamesByPlayer(player.getId());
     }
 
-    public List<Game> findAllGamesByPlayer(User player) {
-        return gameRepository.findAllGamesByPlayer(player);
-    }
+    /**
+     * Validates a client move against the live position and queues it for
+     * persistence. The piece, SAN and resulting FEN are computed on the server;
+     * the values sent by the client are ignored. No database work happens on the
+     * calling thread unless the write-behind queue is full.
+     * <p>
+     * Must run on the game's {@link GameActors} mailbox, which is what keeps two
+     * moves from reading the same position.
+     *
+     * @return the accepted move, ready to broadcast
+     * @throws IllegalMoveException if the move is not legal in the current position
+     */
+    public MoveDTO makeMove(LiveGame liveGame, MoveDTO moveDTO) {
+        // A client-supplied move number must be the next ply, otherwise the move is a duplicate
+        int expectedPly = moveDTO.getMoveNumber() != null ? moveDTO.getMoveNumber() - 1 : liveGame.getPly();
+        if (expectedPly != liveGame.getPly()) {
+            throw new IllegalMoveException("Stale move number " + moveDTO.getMoveNumber()
+                    + " in game " + liveGame.getId() + ", expected " + (liveGame.getPly() + 1));
+        }
 
-    @Transactional
-    public Move makeMove(Game game, MoveDTO moveDTO) {
-        int moveNumber = moveRepository.countByGame(game) + 1;
+        Position position = liveGame.getPosition();
+        int packedMove = MoveGenerator.findLegal(position,
+                Square.parse(moveDTO.getFrom()),
+                Square.parse(moveDTO.getTo()),
+                parsePromotion(moveDTO.getPromotion()));
+        if (packedMove == PackedMove.NONE) {
+            throw new IllegalMoveException("Illegal move " + moveDTO.getFrom() + "-" + moveDTO.getTo()
+                    + " in game " + liveGame.getId());
+        }
 
-        Move move = Move.builder()
-                .game(game)
+        String playerColor = liveGame.getCurrentTurn();
+        String piece = String.valueOf(Piece.letter(Piece.type(position.pieceAt(PackedMove.from(packedMove)))));
+        String promotion = PackedMove.isPromotion(packedMove)
+                ? String.valueOf(Piece.letter(PackedMove.promotionType(packedMove)))
+                : null;
+        int moveNumber = liveGame.claimPly(expectedPly);
+        if (moveNumber < 0) {
+            throw new IllegalMoveException("Move number " + (expectedPly + 1) + " already taken in game "
+                    + liveGame.getId());
+        }
+        String san = Notation.san(position, packedMove);
+        position.play(packedMove);
+        liveGame.recordMove(packedMove);
+        String fenAfter = position.toFen();
+
+        GameClock clock = liveGame.getClock();
+        Long whiteTimeMs = null;
+        Long blackTimeMs = null;
+        if (clock != null) {
+            long now = GameClock.now();
+            clock.punch(now);
+            whiteTimeMs = clock.whiteRemainingMs(now);
+            blackTimeMs = clock.blackRemainingMs(now);
+        }
+
+        moveWriteBehind.submit(new MoveRecord(
+                liveGame.getId(),
+                moveNumber,
+                moveDTO.getFrom(),
+                moveDTO.getTo(),
+                piece,
+                promotion,
+                fenAfter,
+                san,
+                liveGame.getCurrentTurn(),
+                LocalDateTime.now(),
+                isBlobStorage() ? liveGame.moveDataSnapshot() : null,
+                whiteTimeMs,
+                blackTimeMs));
+
+        MoveDTO accepted = MoveDTO.builder()
+                .gameId(liveGame.getId())
+                .from(moveDTO.getFrom())
+                .to(moveDTO.getTo())
+                .piece(piece)
+                .promotion(promotion)
+                .fenAfter(fenAfter)
+                .sanNotation(san)
                 .moveNumber(moveNumber)
-                .fromSquare(moveDTO.getFrom())
-                .toSquare(moveDTO.getTo())
-                .piece(moveDTO.getPiece())
-                .promotion(moveDTO.getPromotion())
-                .fenAfter(moveDTO.getFenAfter())
-                .sanNotation(moveDTO.getSanNotation())
+                .playerColor(playerColor)
+                .whiteTimeMs(whiteTimeMs)
+                .blackTimeMs(blackTimeMs)
                 .build();
+        liveGame.getRecentMoves().add(accepted);
+        // Announced from the game's mailbox so other nodes receive its moves in ply order
+        clusterGames.ifAvailable(cluster -> cluster.moveAccepted(accepted));
+        return accepted;
+    }
 
-        move = moveRepository.save(move);
+    /**
+     * Applies a move accepted by another node to this node's copy of the game, if
+     * it holds one. A copy that turns out to be behind or out of step is evicted
+     * and reloaded on next use. Runs on the game's mailbox, like local moves.
+     */
+    public void applyRemoteMove(MoveDTO move) {
+        LiveGame liveGame = liveGameRegistry.get(move.getGameId()).orElse(null);
+        if (liveGame == null) {
+            return;
+        }
+        int expectedPly = move.getMoveNumber() - 1;
+        if (expectedPly < liveGame.getPly()) {
+            return;
+        }
+        Position position = liveGame.getPosition();
+        int packedMove = expectedPly == liveGame.getPly()
+                ? MoveGenerator.findLegal(position, Square.parse(move.getFrom()), Square.parse(move.getTo()),
+                        parsePromotion(move.getPromotion()))
+                : PackedMove.NONE;
+        if (packedMove == PackedMove.NONE || liveGame.claimPly(expectedPly) < 0) {
+            logger.warn("Live game {} out of step with move {} from another node, evicting",
+                    liveGame.getId(), move.getMoveNumber());
+            liveGameRegistry.evict(liveGame.getId());
+            return;
+        }
+        position.play(packedMove);
+        liveGame.recordMove(packedMove);
+        liveGame.getRecentMoves().add(move);
+        if (liveGame.getClock() != null) {
+            // The node that accepted the move watches the flag; this copy only keeps time
+            liveGame.getClock().punch(GameClock.now());
+            cancelFlagTimeout(liveGame);
+        }
+    }
 
-        // Update game state
-        game.setCurrentFen(moveDTO.getFenAfter());
-        game.setCurrentTurn(game.getCurrentTurn().equals("white") ? "black" : "white");
-        gameRepository.save(game);
+    /** Drops the pending flag-fall check of a game, if any. */
+    public void cancelFlagTimeout(LiveGame liveGame) {
+        if (liveGame.getFlagTimeout() != null) {
+            liveGame.getFlagTimeout().cancel();
+            liveGame.setFlagTimeout(null);
+        }
+    }
 
-        return move;
+    public void evictLiveGame(Long gameId) {
+        liveGameRegistry.get(gameId).ifPresent(this::cancelFlagTimeout);
+        liveGameRegistry.evict(gameId);
+    }
+
+    private int parsePromotion(String promotion) {
+        if (promotion == null || promotion.isEmpty()) {
+            return Piece.NONE;
+        }
+        return Piece.typeOf(promotion.charAt(0));
+    }
+
+    /**
+     * The reason the game is drawn by rule after its last move, or null. Checked after
+     * every accepted move, so these draws never depend on the client. Must run on the
+     * game's mailbox.
+     */
+    public String drawReason(LiveGame liveGame) {
+        Position position = liveGame.getPosition();
+        if (liveGame.getHistory().repetitions() >= 3) {
+            return "repetition";
+        }
+        // A move that mates on the hundredth halfmove still wins
+        if (liveGame.getHistory().fiftyMoveRule() && !(position.isInCheck() && !MoveGenerator.hasLegalMove(position))) {
+            return "fifty-move rule";
+        }
+        if (position.isInsufficientMaterial()) {
+            return "insufficient material";
+        }
+        return null;
+    }
+
+    /**
+     * Waits for the game's queued moves to be committed, so that a status update and
+     * the reads after it see the final position and move list. Call it before the
+     * status update's transaction opens.
+     */
+    public void awaitMovesFlushed(Long gameId) {
+        if (!moveWriteBehind.awaitFlushed(gameId, 5000)) {
+            logger.warn("Pending moves for game {} not flushed before status update", gameId);
+        }
     }
 
     @Transactional
     public void updateGameStatus(Game game, Game.GameStatus status) {
         game.setStatus(status);
-        gameRepository.save(game);
+        game.setUpdatedAt(LocalDateTime.now());
+        gameRepository.updateStatus(game.getId(), status, game.getUpdatedAt());
+        if (status != Game.GameStatus.IN_PROGRESS) {
+            Long gameId = game.getId();
+            // Until the commit a reload would still find the game in progress
+            afterCommit(() -> {
+                liveGameRegistry.get(gameId).ifPresent(this::cancelFlagTimeout);
+                liveGameRegistry.evict(gameId);
+                clusterGames.ifAvailable(cluster -> cluster.gameEnded(gameId));
+            });
+            // Only queued, and only once committed; ratings and the position index catch up in batches
+            Long whiteId = game.getWhitePlayer().getId();
+            Long blackId = game.getBlackPlayer().getId();
+            afterCommit(() -> {
+                ratingPipeline.gameFinished(gameId, whiteId, blackId, status);
+                positionIndex.gameEnded(gameId, whiteId, blackId, status);
+            });
+        }
+    }
+
+    /** Runs {@code action} once the current transaction has committed, or right away outside one. */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     public List<MoveDTO> getMoveHistory(Game game) {
+        if (game.getMoveData() != null) {
+            return replayMoves(game.getId(), game.getMoveData());
+        }
+
         return moveRepository.findByGameOrderByMoveNumberAsc(game).stream()
-                .map(move -> MoveDTO.builder()
-                        .gameId(game.getId())
-                        .from(move.getFromSquare())
-                        .to(move.getToSquare())
-                        .piece(move.getPiece())
-                        .promotion(move.getPromotion())
-                        .fenAfter(move.getFenAfter())
-                        .sanNotation(move.getSanNotation())
-                        .moveNumber(move.getMoveNumber())
+                .map(this::toMoveDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Loads a player's in-progress games with a constant number of queries: one for
+     * the ids, one for the games with their players and move counts, and, if
+     * {@code includeMoves} is set, one for all move rows plus one for packed move lists.
+     */
+    @Transactional(readOnly = true)
+    public List<GameDTO> findActiveGameSummaries(User player, boolean includeMoves) {
+        return toSummaryDTOs(findSummaries(gameRepository.findActiveGameIds(player.getId())), includeMoves);
+    }
+
+    /**
+     * Returns one page of a player's game history, newest first. Pages are seeked
+     * by the (updatedAt, id) of the previous page's last game rather than by
+     * offset, so every page costs the same however deep it is.
+     *
+     * @param cursor {@code nextCursor} of the previous page, or null for the first page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public GamePageDTO findGameHistoryPage(User player, String cursor, int limit, boolean includeMoves) {
+        int pageSize = Math.clamp(limit, 1, MAX_HISTORY_PAGE_SIZE);
+        // One extra row tells whether another page follows
+        List<Long> ids;
+        if (cursor == null || cursor.isEmpty()) {
+            ids = gameRepository.findHistoryGameIds(player.getId(), pageSize + 1);
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            ids = gameRepository.findHistoryGameIdsAfter(player.getId(), after.updatedAt(), after.id(),
+                    pageSize + 1);
+        }
+
+        String nextCursor = null;
+        boolean hasMore = ids.size() > pageSize;
+        List<GameSummary> summaries = findSummaries(hasMore ? ids.subList(0, pageSize) : ids);
+        if (hasMore) {
+            GameSummary last = summaries.get(pageSize - 1);
+            nextCursor = new HistoryCursor(last.updatedAt(), last.id()).encode();
+        }
+        return GamePageDTO.builder()
+                .games(toSummaryDTOs(summaries, includeMoves))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Passes a player's whole game history, newest first, to {@code sink} one game
+     * at a time. Summaries are read through a database cursor and moves are loaded
+     * per chunk of games, so memory use does not grow with the size of the history.
+     */
+    @Transactional(readOnly = true)
+    public void exportGameHistory(User player, boolean includeMoves, Consumer<GameDTO> sink) {
+        try (Stream<Long> ids = gameRepository.streamHistoryGameIds(player.getId())) {
+            List<Long> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+            Iterator<Long> iterator = ids.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == EXPORT_CHUNK_SIZE || !iterator.hasNext()) {
+                    toSummaryDTOs(findSummaries(chunk), includeMoves).forEach(sink);
+                    chunk.clear();
+                    if (includeMoves) {
+                        // Move entities loaded for this chunk are no longer needed
+                        entityManager.clear();
+                    }
+                }
+            }
+        }
+    }
+
+    /** Loads summaries for the given games, in the order of {@code ids}. */
+    private List<GameSummary> findSummaries(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, GameSummary> byId = new HashMap<>();
+        for (GameSummary summary : gameRepository.findGameSummariesByIdIn(ids)) {
+            byId.put(summary.id(), summary);
+        }
+        return ids.stream()
+                .map(byId::get)
+                .collect(Collectors.toList());
+    }
+
+    private List<GameDTO> toSummaryDTOs(List<GameSummary> summaries, boolean includeMoves) {
+        Map<Long, List<MoveDTO>> movesByGame = includeMoves && !summaries.isEmpty()
+                ? loadMoves(summaries.stream().map(GameSummary::id).collect(Collectors.toList()))
+                : Map.of();
+
+        return summaries.stream()
+                .map(summary -> GameDTO.builder()
+                        .id(summary.id())
+                        .whitePlayer(PlayerDTO.builder()
+                                .id(summary.whitePlayerId())
+                                .username(summary.whiteUsername())
+                                .build())
+                        .blackPlayer(PlayerDTO.builder()
+                                .id(summary.blackPlayerId())
+                                .username(summary.blackUsername())
+                                .build())
+                        .status(summary.status().name())
+                        .currentTurn(summary.currentTurn())
+                        .currentFen(summary.currentFen())
+                        .createdAt(summary.createdAt())
+                        .updatedAt(summary.updatedAt())
+                        .moveCount(summary.moveCount())
+                        .moves(includeMoves ? movesByGame.getOrDefault(summary.id(), List.of()) : null)
                         .build())
                 .collect(Collectors.toList());
     }
 
+    private Map<Long, List<MoveDTO>> loadMoves(List<Long> gameIds) {
+        Map<Long, List<MoveDTO>> movesByGame = new HashMap<>();
+        for (Move move : moveRepository.findByGameIdIn(gameIds)) {
+            movesByGame.computeIfAbsent(move.getGame().getId(), id -> new ArrayList<>()).add(toMoveDTO(move));
+        }
+        for (Game game : gameRepository.findWithMoveDataByIdIn(gameIds)) {
+            movesByGame.put(game.getId(), replayMoves(game.getId(), game.getMoveData()));
+        }
+        return movesByGame;
+    }
+
+    private List<MoveDTO> replayMoves(Long gameId, byte[] moveData) {
+        return MoveListCodec.replay(moveData).stream()
+                .map(replayed -> MoveDTO.builder()
+                        .gameId(gameId)
+                        .from(Square.name(PackedMove.from(replayed.move())))
+                        .to(Square.name(PackedMove.to(replayed.move())))
+                        .piece(String.valueOf(Piece.letter(replayed.pieceType())))
+                        .promotion(PackedMove.isPromotion(replayed.move())
+                                ? String.valueOf(Piece.letter(PackedMove.promotionType(replayed.move())))
+                                : null)
+                        .fenAfter(replayed.fenAfter())
+                        .sanNotation(replayed.san())
+                        .moveNumber(replayed.moveNumber())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private MoveDTO toMoveDTO(Move move) {
+        return MoveDTO.builder()
+                .gameId(move.getGame().getId())
+                .from(move.getFromSquare())
+                .to(move.getToSquare())
+                .piece(move.getPiece())
+                .promotion(move.getPromotion())
+                .fenAfter(move.getFenAfter())
+                .sanNotation(move.getSanNotation())
+                .moveNumber(move.getMoveNumber())
+                .build();
+    }
+
     public GameDTO toDTO(Game game) {
+        List<MoveDTO> moves = getMoveHistory(game);
+        // The database lags the live clock by up to a write-behind flush
+        Long whiteTimeMs = game.getWhiteTimeMs();
+        Long blackTimeMs = game.getBlackTimeMs();
+        GameClock clock = liveGameRegistry.get(game.getId()).map(LiveGame::getClock).orElse(null);
+        if (clock != null) {
+            long now = GameClock.now();
+            whiteTimeMs = clock.whiteRemainingMs(now);
+            blackTimeMs = clock.blackRemainingMs(now);
+        }
         return GameDTO.builder()
                 .id(game.getId())
                 .whitePlayer(PlayerDTO.builder()
@@ -121,7 +701,12 @@ public class GameService {
                 .currentFen(game.getCurrentFen())
                 .createdAt(game.getCreatedAt())
                 .updatedAt(game.getUpdatedAt())
-                .moves(getMoveHistory(game))
+                .moveCount(moves.size())
+                .moves(moves)
+                .clockInitialMs(game.getClockInitialMs())
+                .clockIncrementMs(game.getClockIncrementMs())
+                .whiteTimeMs(whiteTimeMs)
+                .blackTimeMs(blackTimeMs)
                 .build();
     }
 }
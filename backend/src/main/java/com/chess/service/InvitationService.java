@@ -1,55 +1,103 @@
 package com.chess.service;
 
 import com.chess.dto.InvitationDTO;
+import com.chess.live.PendingInvitations;
 import com.chess.model.Invitation;
 import com.chess.model.User;
 import com.chess.repository.InvitationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class InvitationService {
 
+    private static final Logger logger = LoggerFactory.getLogger(InvitationService.class);
+
     private final InvitationRepository invitationRepository;
+    private final PendingInvitations pendingInvitations;
 
-    public InvitationService(InvitationRepository invitationRepository) {
+    public InvitationService(InvitationRepository invitationRepository, PendingInvitations pendingInvitations) {
         this.invitationRepository = invitationRepository;
+        this.pendingInvitations = pendingInvitations;
     }
 
-    @Transactional
-    public Invitation createInvitation(User sender, User receiver) {
+    /**
+     * Re-indexes invitations left pending by a previous run; those already past their
+     * time to live expire on the next tick.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadPendingInvitations() {
+        List<Invitation> pending = invitationRepository.findByStatusWithUsers(Invitation.InvitationStatus.PENDING);
+        pending.forEach(invitation -> pendingInvitations.add(toDTO(invitation)));
+        logger.info("Indexed {} pending invitations", pending.size());
+    }
+
+    /** Saves the invitation, then indexes it once committed. */
+    public InvitationDTO createInvitation(User sender, User receiver, Long clockInitialMs, Long clockIncrementMs) {
         Invitation invitation = Invitation.builder()
                 .sender(sender)
                 .receiver(receiver)
+                .clockInitialMs(clockInitialMs)
+                .clockIncrementMs(clockIncrementMs)
                 .status(Invitation.InvitationStatus.PENDING)
                 .build();
 
-        return invitationRepository.save(invitation);
+        InvitationDTO invitationDTO = toDTO(invitationRepository.save(invitation));
+        pendingInvitations.add(invitationDTO);
+        return invitationDTO;
     }
 
+    /**
+     * Takes a pending invitation addressed to {@code receiverId} out of the index, so it
+     * can no longer expire. Falls back to the database for invitations indexed on
+     * another node.
+     */
     @Transactional(readOnly = true)
-    public Optional<Invitation> findById(Long id) {
-        return invitationRepository.findByIdWithUsers(id);
+    public Optional<InvitationDTO> claimPending(Long id, Long receiverId) {
+        Optional<InvitationDTO> claimed = pendingInvitations.claim(id, receiverId);
+        if (claimed.isPresent()) {
+            return claimed;
+        }
+        return invitationRepository.findByIdWithUsers(id)
+                .filter(invitation -> invitation.getStatus() == Invitation.InvitationStatus.PENDING)
+                .filter(invitation -> invitation.getReceiver().getId().equals(receiverId))
+                .map(this::toDTO);
     }
 
-    public List<Invitation> getPendingInvitationsForUser(User user) {
-        return invitationRepository.findByReceiverAndStatus(user, Invitation.InvitationStatus.PENDING);
+    public List<InvitationDTO> getPendingInvitationsForUser(Long userId) {
+        return pendingInvitations.forReceiver(userId);
     }
 
+    public List<InvitationDTO> getPendingInvitationsFromUser(Long userId) {
+        return pendingInvitations.forSender(userId);
+    }
+
+    /** Returns false if the invitation stopped being pending first. */
     @Transactional
-    public Invitation acceptInvitation(Invitation invitation) {
-        invitation.setStatus(Invitation.InvitationStatus.ACCEPTED);
-        return invitationRepository.save(invitation);
+    public boolean acceptInvitation(InvitationDTO invitation) {
+        return answer(invitation, Invitation.InvitationStatus.ACCEPTED);
     }
 
+    /** Returns false if the invitation stopped being pending first. */
     @Transactional
-    public Invitation refuseInvitation(Invitation invitation) {
-        invitation.setStatus(Invitation.InvitationStatus.REFUSED);
-        return invitationRepository.save(invitation);
+    public boolean refuseInvitation(InvitationDTO invitation) {
+        return answer(invitation, Invitation.InvitationStatus.REFUSED);
+    }
+
+    private boolean answer(InvitationDTO invitation, Invitation.InvitationStatus status) {
+        if (invitationRepository.answerPending(invitation.getId(), status) == 0) {
+            return false;
+        }
+        invitation.setStatus(status.name());
+        return true;
     }
 
     public InvitationDTO toDTO(Invitation invitation) {
@@ -60,6 +108,8 @@ public class InvitationService {
                 .receiverId(invitation.getReceiver().getId())
                 .receiverUsername(invitation.getReceiver().getUsername())
                 .status(invitation.getStatus().name())
+                .clockInitialMs(invitation.getClockInitialMs())
+                .clockIncrementMs(invitation.getClockIncrementMs())
                 .createdAt(invitation.getCreatedAt())
                 .build();
     }
@@ -1,13 +1,17 @@
 package com.chess.service;
 
 import com.chess.dto.PlayerDTO;
+import com.chess.dto.PresenceDTO;
 import com.chess.model.User;
 import com.chess.repository.UserRepository;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
@@ -16,45 +20,134 @@ public class PlayerService {
 
     private final UserRepository userRepository;
     
-    // In-memory store for online players (username -> sessionId)
-    private final Map<String, String> onlinePlayers = new ConcurrentHashMap<>();
+    // In-memory store for online players (username -> id and session), filled once at connect time
+    private final Map<String, OnlinePlayer> onlinePlayers = new ConcurrentHashMap<>();
+
+    // Players connected to other nodes (node id -> username -> player); only filled behind a broker relay
+    private final Map<String, Map<String, PlayerDTO>> remotePlayers = new ConcurrentHashMap<>();
+
+    // Online list served to presence reads; rebuilt whenever the registry changes
+    private volatile List<PlayerDTO> onlineSnapshot = List.of();
+
+    // Presence sequence and the net changes not yet broadcast; guarded by this
+    private long presenceSeq;
+    private long broadcastSeq;
+    private final Map<String, PlayerDTO> pendingJoined = new LinkedHashMap<>();
+    private final Set<String> pendingLeft = new LinkedHashSet<>();
 
     public PlayerService(UserRepository userRepository) {
         this.userRepository = userRepository;
     }
 
-    public void playerConnected(String username, String sessionId) {
-        onlinePlayers.put(username, sessionId);
+    /**
+     * Registers a player as online. The id comes from the session principal, so
+     * presence needs no database access.
+     */
+    public synchronized void playerConnected(Long id, String username, String sessionId) {
+        boolean wasOnline = isPlayerOnline(username);
+        OnlinePlayer player = new OnlinePlayer(id, username, sessionId);
+        onlinePlayers.put(username, player);
+        if (!wasOnline) {
+            recordChange(username, player.toDTO());
+        }
     }
 
-    public void playerDisconnected(String username) {
-        onlinePlayers.remove(username);
+    public synchronized void playerDisconnected(String username) {
+        if (onlinePlayers.remove(username) != null && !isPlayerOnline(username)) {
+            recordChange(username, null);
+        }
     }
 
-    public void playerDisconnectedBySession(String sessionId) {
-        onlinePlayers.entrySet().removeIf(entry -> entry.getValue().equals(sessionId));
+    public synchronized void playerDisconnectedBySession(String sessionId) {
+        onlinePlayers.values().stream()
+                .filter(player -> player.sessionId().equals(sessionId))
+                .toList()
+                .forEach(player -> {
+                    if (onlinePlayers.remove(player.username(), player) && !isPlayerOnline(player.username())) {
+                        recordChange(player.username(), null);
+                    }
+                });
     }
 
+    /** Online on this node or, behind a broker relay, on any other node. */
     public boolean isPlayerOnline(String username) {
-        return onlinePlayers.containsKey(username);
+        return onlinePlayers.containsKey(username) || findRemotePlayer(username).isPresent();
+    }
+
+    /** Returns the id and username of an online player, from memory. */
+    public Optional<PlayerDTO> findOnlinePlayer(String username) {
+        OnlinePlayer local = onlinePlayers.get(username);
+        return local != null ? Optional.of(local.toDTO()) : findRemotePlayer(username);
+    }
+
+    private Optional<PlayerDTO> findRemotePlayer(String username) {
+        for (Map<String, PlayerDTO> nodePlayers : remotePlayers.values()) {
+            PlayerDTO player = nodePlayers.get(username);
+            if (player != null) {
+                return Optional.of(player);
+            }
+        }
+        return Optional.empty();
     }
 
     public Optional<String> getSessionId(String username) {
-        return Optional.ofNullable(onlinePlayers.get(username));
+        return Optional.ofNullable(onlinePlayers.get(username)).map(OnlinePlayer::sessionId);
+    }
+
+    /** Players connected to this node, as announced to the other nodes. */
+    public List<PlayerDTO> getLocalPlayers() {
+        return onlinePlayers.values().stream()
+                .map(OnlinePlayer::toDTO)
+                .toList();
+    }
+
+    /** Replaces the players known to be connected to another node. */
+    public synchronized void applyNodePlayers(String nodeId, List<PlayerDTO> players) {
+        Map<String, PlayerDTO> previous = remotePlayers.getOrDefault(nodeId, Map.of());
+        Map<String, PlayerDTO> current = new ConcurrentHashMap<>();
+        players.forEach(player -> current.put(player.getUsername(), player));
+        applyNodeChange(nodeId, previous, current);
+    }
+
+    /** Applies players joining and leaving another node. */
+    public synchronized void applyNodeDelta(String nodeId, List<PlayerDTO> joined, List<String> left) {
+        Map<String, PlayerDTO> previous = remotePlayers.getOrDefault(nodeId, Map.of());
+        Map<String, PlayerDTO> current = new ConcurrentHashMap<>(previous);
+        left.forEach(current::remove);
+        joined.forEach(player -> current.put(player.getUsername(), player));
+        applyNodeChange(nodeId, previous, current);
+    }
+
+    /** Drops every player of a node that left the cluster. */
+    public synchronized void removeNode(String nodeId) {
+        applyNodeChange(nodeId, remotePlayers.getOrDefault(nodeId, Map.of()), Map.of());
     }
 
+    private void applyNodeChange(String nodeId, Map<String, PlayerDTO> previous, Map<String, PlayerDTO> current) {
+        Set<String> affected = new LinkedHashSet<>(previous.keySet());
+        affected.addAll(current.keySet());
+        Map<String, Boolean> wasOnline = new LinkedHashMap<>();
+        affected.forEach(username -> wasOnline.put(username, isPlayerOnline(username)));
+
+        if (current.isEmpty()) {
+            remotePlayers.remove(nodeId);
+        } else {
+            remotePlayers.put(nodeId, current);
+        }
+
+        wasOnline.forEach((username, before) -> {
+            boolean after = isPlayerOnline(username);
+            if (after && !before) {
+                recordChange(username, findOnlinePlayer(username).orElseThrow());
+            } else if (before && !after) {
+                recordChange(username, null);
+            }
+        });
+    }
+
+    /** Returns the current online list from memory; the list is immutable. */
     public List<PlayerDTO> getOnlinePlayers() {
-        return onlinePlayers.keySet().stream()
-                .map(username -> {
-                    Optional<User> user = userRepository.findByUsername(username);
-                    return user.map(u -> PlayerDTO.builder()
-                            .id(u.getId())
-                            .username(u.getUsername())
-                            .online(true)
-                            .build()).orElse(null);
-                })
-                .filter(p -> p != null)
-                .collect(Collectors.toList());
+        return onlineSnapshot;
     }
 
     public List<PlayerDTO> getOnlinePlayersExcept(String username) {
@@ -63,6 +156,54 @@ public class PlayerService {
                 .collect(Collectors.toList());
     }
 
+    /** Returns the online list together with the presence seq it reflects. */
+    public synchronized PresenceDTO getPresenceSnapshot() {
+        return PresenceDTO.builder()
+                .type(PresenceDTO.Type.SNAPSHOT)
+                .fromSeq(presenceSeq)
+                .seq(presenceSeq)
+                .players(onlineSnapshot)
+                .build();
+    }
+
+    /**
+     * Returns the net presence changes since the previous call as one delta frame,
+     * or empty if nothing changed. A player who joined and left in between is
+     * reported once, by their last state.
+     */
+    public synchronized Optional<PresenceDTO> drainPresenceDelta() {
+        if (presenceSeq == broadcastSeq) {
+            return Optional.empty();
+        }
+        PresenceDTO delta = PresenceDTO.builder()
+                .type(PresenceDTO.Type.DELTA)
+                .fromSeq(broadcastSeq + 1)
+                .seq(presenceSeq)
+                .joined(List.copyOf(pendingJoined.values()))
+                .left(List.copyOf(pendingLeft))
+                .build();
+        broadcastSeq = presenceSeq;
+        pendingJoined.clear();
+        pendingLeft.clear();
+        return Optional.of(delta);
+    }
+
+    // Called with the lock held so that seq order, pending changes and the snapshot always agree
+    private void recordChange(String username, PlayerDTO joined) {
+        presenceSeq++;
+        if (joined != null) {
+            pendingLeft.remove(username);
+            pendingJoined.put(username, joined);
+        } else {
+            pendingJoined.remove(username);
+            pendingLeft.add(username);
+        }
+        Map<String, PlayerDTO> online = new LinkedHashMap<>();
+        remotePlayers.values().forEach(online::putAll);
+        onlinePlayers.values().forEach(player -> online.put(player.username(), player.toDTO()));
+        onlineSnapshot = List.copyOf(online.values());
+    }
+
     public Optional<User> findByUsername(String username) {
         return userRepository.findByUsername(username);
     }
@@ -70,4 +211,26 @@ public class PlayerService {
     public Optional<User> findById(Long id) {
         return userRepository.findById(id);
     }
+
+    /**
+     * Returns a detached user carrying only id and username. It can be used as the
+     * target of an association on save without loading the row.
+     */
+    public User userRef(Long id, String username) {
+        return User.builder()
+                .id(id)
+                .username(username)
+                .build();
+    }
+
+    private record OnlinePlayer(Long id, String username, String sessionId) {
+
+        PlayerDTO toDTO() {
+            return PlayerDTO.builder()
+                    .id(id)
+                    .username(username)
+                    .online(true)
+                    .build();
+        }
+    }
 }
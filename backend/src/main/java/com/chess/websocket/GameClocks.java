@@ -0,0 +1,99 @@
+package com.chess.websocket;
+
+import com.chess.live.GameActors;
+import com.chess.live.GameClock;
+import com.chess.live.LiveGame;
+import com.chess.live.TimingWheel;
+import com.chess.model.Game;
+import com.chess.service.GameService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Watches timed games for flag fall. Each game has at most one pending check on the
+ * {@link TimingWheel}, due when the player to move runs out of time; it is re-armed
+ * after every move. Everything except the wheel's callback runs on the game's mailbox.
+ */
+@Component
+public class GameClocks {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameClocks.class);
+
+    private final TimingWheel timingWheel;
+    private final GameActors gameActors;
+    private final GameService gameService;
+    private final GameEndHandler gameEndHandler;
+
+    public GameClocks(TimingWheel timingWheel, GameActors gameActors, GameService gameService,
+                      GameEndHandler gameEndHandler) {
+        this.timingWheel = timingWheel;
+        this.gameActors = gameActors;
+        this.gameService = gameService;
+        this.gameEndHandler = gameEndHandler;
+    }
+
+    /**
+     * Schedules the flag-fall check for the player to move, replacing any earlier one.
+     */
+    public void arm(LiveGame liveGame) {
+        GameClock clock = liveGame.getClock();
+        if (clock == null) {
+            return;
+        }
+        gameService.cancelFlagTimeout(liveGame);
+        Long gameId = liveGame.getId();
+        int ply = liveGame.getPly();
+        // The wheel thread only hands the check over to the game's mailbox
+        liveGame.setFlagTimeout(timingWheel.schedule(clock.sideToMoveRemainingMs(GameClock.now()),
+                () -> gameActors.tell(gameId, () -> onTimeout(gameId, ply))));
+    }
+
+    /** Arms the clock of a game that was just created. */
+    public void gameStarted(Long gameId) {
+        gameActors.tell(gameId, () -> gameService.findLiveGame(gameId).ifPresent(this::arm));
+    }
+
+    /**
+     * Ends the game if the player to move has run out of time.
+     *
+     * @return true if the game ended
+     */
+    public boolean endIfFlagged(LiveGame liveGame) {
+        GameClock clock = liveGame.getClock();
+        if (clock == null || !clock.isFlagged(GameClock.now())) {
+            return false;
+        }
+        Game.GameStatus status = clock.isWhiteToMove() ? Game.GameStatus.BLACK_WON : Game.GameStatus.WHITE_WON;
+        gameEndHandler.endGame(liveGame.getId(), status, "timeout");
+        return true;
+    }
+
+    private void onTimeout(Long gameId, int ply) {
+        LiveGame liveGame = gameService.findCachedLiveGame(gameId).orElse(null);
+        // A move queued ahead of this check has already re-armed the clock
+        if (liveGame == null || liveGame.getPly() != ply) {
+            return;
+        }
+        liveGame.setFlagTimeout(null);
+        if (!endIfFlagged(liveGame)) {
+            // Rounding left a few milliseconds on the clock; check again
+            arm(liveGame);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeClocks() {
+        List<Long> gameIds = gameService.findTimedActiveGameIds();
+        for (Long gameId : gameIds) {
+            gameActors.tell(gameId, () -> gameService.findLiveGame(gameId).ifPresent(this::arm));
+        }
+        if (!gameIds.isEmpty()) {
+            logger.info("Resumed clocks of {} timed games", gameIds.size());
+        }
+    }
+}
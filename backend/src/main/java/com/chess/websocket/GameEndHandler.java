@@ -0,0 +1,53 @@
+package com.chess.websocket;
+
+import com.chess.dto.GameDTO;
+import com.chess.model.Game;
+import com.chess.service.GameService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Finishes a game and tells its subscribers. Shared by client-reported endings and
+ * flag falls; callers run it on the game's mailbox.
+ */
+@Component
+public class GameEndHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameEndHandler.class);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final GameService gameService;
+
+    public GameEndHandler(SimpMessagingTemplate messagingTemplate, GameService gameService) {
+        this.messagingTemplate = messagingTemplate;
+        this.gameService = gameService;
+    }
+
+    public void endGame(Long gameId, Game.GameStatus status, String reason) {
+        gameService.awaitMovesFlushed(gameId);
+        Game game = gameService.findById(gameId)
+                .orElseThrow(() -> new RuntimeException("Game not found"));
+        if (game.getStatus() != Game.GameStatus.IN_PROGRESS) {
+            // Already ended, e.g. resigned while this ending was queued
+            logger.info("Game {} already ended as {}, ignoring {}", gameId, game.getStatus(), reason);
+            return;
+        }
+
+        logger.info("Game {} ended: {} by {}", gameId, status, reason);
+        gameService.updateGameStatus(game, status);
+
+        // Reload the game with all eager-loaded relationships
+        Game updatedGame = gameService.findByIdWithMovesAndPlayers(gameId);
+
+        // Broadcast game end to all subscribers
+        GameDTO gameDTO = gameService.toDTO(updatedGame);
+        String destination = "/topic/game/" + gameId + "/status";
+        Object message = Map.of("game", gameDTO, "reason", reason);
+        logger.info("Broadcasting game end to {}", destination);
+        messagingTemplate.convertAndSend(destination, message);
+    }
+}
@@ -1,10 +1,19 @@
 package com.chess.websocket;
 
+import com.chess.dto.GameCatchUpDTO;
 import com.chess.dto.GameDTO;
 import com.chess.dto.MoveDTO;
+import com.chess.engine.IllegalMoveException;
+import com.chess.engine.MoveGenerator;
+import com.chess.engine.Piece;
+import com.chess.engine.Position;
+import com.chess.live.GameActors;
+import com.chess.live.LiveGame;
 import com.chess.model.Game;
-import com.chess.model.Move;
+import com.chess.security.StompPrincipal;
 import com.chess.service.GameService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
@@ -13,95 +22,218 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Controller
 public class GameWebSocketController {
 
     private static final Logger logger = LoggerFactory.getLogger(GameWebSocketController.class);
 
+    private enum Rejection {
+        NOT_LIVE, SPECTATOR, OUT_OF_TURN, OUT_OF_TIME, ILLEGAL
+    }
+
     private final SimpMessagingTemplate messagingTemplate;
     private final GameService gameService;
-
-    public GameWebSocketController(SimpMessagingTemplate messagingTemplate, GameService gameService) {
+    private final GameActors gameActors;
+    private final GameClocks gameClocks;
+    private final GameEndHandler gameEndHandler;
+    private final MoveFanout moveFanout;
+    private final Map<Rejection, Timer> rejectionTimers = new EnumMap<>(Rejection.class);
+
+    public GameWebSocketController(SimpMessagingTemplate messagingTemplate, GameService gameService,
+                                   GameActors gameActors, GameClocks gameClocks, GameEndHandler gameEndHandler,
+                                   MoveFanout moveFanout, MeterRegistry meterRegistry) {
         this.messagingTemplate = messagingTemplate;
         this.gameService = gameService;
+        this.gameActors = gameActors;
+        this.gameClocks = gameClocks;
+        this.gameEndHandler = gameEndHandler;
+        this.moveFanout = moveFanout;
+        // Time from receiving a move to rejecting it, per reason; the count comes with it
+        for (Rejection rejection : Rejection.values()) {
+            rejectionTimers.put(rejection, Timer.builder("chess.moves.rejected")
+                    .description("Moves rejected before being applied")
+                    .tag("reason", rejection.name().toLowerCase())
+                    .register(meterRegistry));
+        }
     }
 
+    // Each handler hands its work to the game's mailbox, so commands for one game run in order
+
     @MessageMapping("/game/{gameId}/move")
-    public void handleMove(@DestinationVariable Long gameId, @Payload MoveDTO moveDTO) {
+    public void handleMove(@DestinationVariable Long gameId, @Payload MoveDTO moveDTO, StompPrincipal principal) {
+        long receivedAt = System.nanoTime();
         logger.info("Move received for game {}: {} -> {}", gameId, moveDTO.getFrom(), moveDTO.getTo());
 
-        Game game = gameService.findById(gameId)
-                .orElseThrow(() -> new RuntimeException("Game not found"));
-
-        // Check if game is still in progress
-        if (game.getStatus() != Game.GameStatus.IN_PROGRESS) {
-            logger.warn("Attempted move on finished game {}", gameId);
+        // Players never change, so a spectator is turned away without queueing on the game
+        LiveGame cached = gameService.findCachedLiveGame(gameId).orElse(null);
+        if (cached != null && !cached.isPlayer(principal.userId())) {
+            reject(gameId, principal, Rejection.SPECTATOR, "Not a player in this game", receivedAt);
             return;
         }
-
-        // Save the move
-        Move move = gameService.makeMove(game, moveDTO);
-
-        // Prepare move DTO with all info
-        MoveDTO responseMoveDTO = MoveDTO.builder()
-                .gameId(gameId)
-                .from(moveDTO.getFrom())
-                .to(moveDTO.getTo())
-                .piece(moveDTO.getPiece())
-                .promotion(moveDTO.getPromotion())
-                .fenAfter(moveDTO.getFenAfter())
-                .sanNotation(moveDTO.getSanNotation())
-                .moveNumber(move.getMoveNumber())
-                .playerColor(moveDTO.getPlayerColor())
-                .build();
-
-        // Broadcast move to all subscribers of this game
-        messagingTemplate.convertAndSend("/topic/game/" + gameId + "/moves", responseMoveDTO);
-
-        logger.info("Move {} broadcast for game {}", move.getMoveNumber(), gameId);
+        gameActors.tell(gameId, () -> applyMove(gameId, moveDTO, principal, receivedAt));
     }
 
     @MessageMapping("/game/{gameId}/end")
-    public void handleGameEnd(@DestinationVariable Long gameId, @Payload Map<String, String> payload) {
-        String result = payload.get("result"); // "white", "black", "draw"
-        String reason = payload.get("reason"); // "checkmate", "resignation", "stalemate", "agreement"
-
-        logger.info("Game {} ended: {} by {}", gameId, result, reason);
-
-        Game game = gameService.findById(gameId)
-                .orElseThrow(() -> new RuntimeException("Game not found"));
-
-        Game.GameStatus status = switch (result) {
-            case "white" -> Game.GameStatus.WHITE_WON;
-            case "black" -> Game.GameStatus.BLACK_WON;
-            case "draw" -> Game.GameStatus.DRAW;
-            default -> Game.GameStatus.ABANDONED;
-        };
-
-        gameService.updateGameStatus(game, status);
-        
-        // Reload the game with all eager-loaded relationships
-        Game updatedGame = gameService.findByIdWithMovesAndPlayers(gameId);
-
-        // Broadcast game end to all subscribers
-        GameDTO gameDTO = gameService.toDTO(updatedGame);
-        String destination = "/topic/game/" + gameId + "/status";
-        Object message = Map.of("game", gameDTO, "reason", reason);
-        logger.info("Broadcasting game end to {}", destination);
-        messagingTemplate.convertAndSend(destination, message);
+    public void handleGameEnd(@DestinationVariable Long gameId, @Payload Map<String, String> payload,
+                              StompPrincipal principal) {
+        gameActors.tell(gameId, () -> endGame(gameId, payload.get("reason"), principal));
     }
 
     @MessageMapping("/game/{gameId}/join")
-    public void handleJoinGame(@DestinationVariable Long gameId, @Payload Map<String, String> payload) {
-        String username = payload.get("username");
-        logger.info("Player {} joining game {}", username, gameId);
+    public void handleJoinGame(@DestinationVariable Long gameId,
+                               @Payload(required = false) Map<String, Object> payload,
+                               StompPrincipal principal) {
+        // A resuming client sends the last ply it holds and may only need the moves after it
+        Integer ply = payload != null && payload.get("ply") instanceof Number n ? n.intValue() : null;
+        gameActors.tell(gameId, () -> {
+            // Spectators get the full state as of the moves released to them, never the live buffer
+            boolean player = gameService.isPlayer(gameId, principal.userId());
+            if (!player || ply == null || !sendCatchUp(gameId, ply, principal.username())) {
+                sendGameState(gameId, principal.username(), player);
+            }
+        });
+    }
+
+    private void applyMove(Long gameId, MoveDTO moveDTO, StompPrincipal principal, long receivedAt) {
+        // Only in-progress games are live
+        LiveGame liveGame = gameService.findLiveGame(gameId).orElse(null);
+        if (liveGame == null) {
+            reject(gameId, principal, Rejection.NOT_LIVE, "Game is not in progress", receivedAt);
+            return;
+        }
+
+        // Only the players may move, and only on their turn; the client's playerColor is ignored
+        if (!liveGame.isPlayer(principal.userId())) {
+            reject(gameId, principal, Rejection.SPECTATOR, "Not a player in this game", receivedAt);
+            return;
+        }
+        if (!liveGame.getPlayerToMove().equals(principal.userId())) {
+            reject(gameId, principal, Rejection.OUT_OF_TURN, "Not your turn", receivedAt);
+            return;
+        }
+
+        // A flag that fell before the wheel got to it still loses the game
+        if (gameClocks.endIfFlagged(liveGame)) {
+            reject(gameId, principal, Rejection.OUT_OF_TIME, "Out of time", receivedAt);
+            return;
+        }
+
+        // Validate the move and queue it for persistence
+        MoveDTO responseMoveDTO;
+        try {
+            responseMoveDTO = gameService.makeMove(liveGame, moveDTO);
+        } catch (IllegalMoveException e) {
+            reject(gameId, principal, Rejection.ILLEGAL, e.getMessage(), receivedAt);
+            return;
+        }
+        gameClocks.arm(liveGame);
+
+        // Broadcast move to the players, and to spectators after the configured delay
+        moveFanout.publishMove(gameId, responseMoveDTO);
+
+        logger.info("Move {} broadcast for game {}", responseMoveDTO.getMoveNumber(), gameId);
+
+        String drawReason = gameService.drawReason(liveGame);
+        if (drawReason != null) {
+            gameEndHandler.endGame(gameId, Game.GameStatus.DRAW, drawReason);
+        }
+    }
+
+    /**
+     * Records a rejected move and tells the sender on {@code /user/queue/errors}.
+     */
+    private void reject(Long gameId, StompPrincipal principal, Rejection rejection, String message,
+                        long receivedAt) {
+        rejectionTimers.get(rejection).record(System.nanoTime() - receivedAt, TimeUnit.NANOSECONDS);
+        logger.warn("Rejected move for game {} from {}: {}", gameId, principal.username(), message);
+        messagingTemplate.convertAndSendToUser(principal.username(), "/queue/errors", Map.of(
+                "type", "MOVE_REJECTED",
+                "gameId", gameId,
+                "reason", rejection.name(),
+                "message", message));
+    }
+
+    /**
+     * Ends a game on a player's report. Checkmate and stalemate must be on the board;
+     * otherwise a player may only resign or agree to a draw (an offer, then the
+     * opponent's). The result is decided here; the one the client sends is ignored.
+     */
+    private void endGame(Long gameId, String reason, StompPrincipal principal) {
+        // Both clients report the same ending, and the server may have ended the game already
+        LiveGame liveGame = gameService.findLiveGame(gameId).orElse(null);
+        if (liveGame == null) {
+            return;
+        }
+        if (!liveGame.isPlayer(principal.userId())) {
+            rejectEnd(gameId, principal, "Not a player in this game");
+            return;
+        }
+
+        Position position = liveGame.getPosition();
+        Game.GameStatus status;
+        switch (reason != null ? reason : "") {
+            case "checkmate", "stalemate" -> {
+                boolean mate = position.isInCheck();
+                if (MoveGenerator.hasLegalMove(position) || mate != reason.equals("checkmate")) {
+                    rejectEnd(gameId, principal, "Not " + reason + " in the current position");
+                    return;
+                }
+                status = !mate ? Game.GameStatus.DRAW
+                        : position.sideToMove() == Piece.WHITE ? Game.GameStatus.BLACK_WON : Game.GameStatus.WHITE_WON;
+            }
+            case "resignation" -> status = liveGame.getWhitePlayerId().equals(principal.userId())
+                    ? Game.GameStatus.BLACK_WON : Game.GameStatus.WHITE_WON;
+            case "agreement" -> {
+                if (!liveGame.offerDraw(principal.userId())) {
+                    String opponent = liveGame.getWhitePlayerId().equals(principal.userId())
+                            ? liveGame.getBlackUsername() : liveGame.getWhiteUsername();
+                    messagingTemplate.convertAndSendToUser(opponent, "/queue/draw-offers",
+                            Map.of("gameId", gameId, "from", principal.username()));
+                    return;
+                }
+                status = Game.GameStatus.DRAW;
+            }
+            default -> {
+                // Repetition, fifty moves, insufficient material and time are detected here, never reported
+                rejectEnd(gameId, principal, "Unknown game ending " + reason);
+                return;
+            }
+        }
+
+        gameEndHandler.endGame(gameId, status, reason);
+    }
+
+    private void rejectEnd(Long gameId, StompPrincipal principal, String message) {
+        logger.warn("Rejected game end for game {} from {}: {}", gameId, principal.username(), message);
+        messagingTemplate.convertAndSendToUser(principal.username(), "/queue/errors", Map.of(
+                "type", "END_REJECTED",
+                "gameId", gameId,
+                "message", message));
+    }
+
+    private boolean sendCatchUp(Long gameId, int ply, String username) {
+        LiveGame liveGame = gameService.findCachedLiveGame(gameId).orElse(null);
+        GameCatchUpDTO catchUp = liveGame != null ? gameService.catchUp(liveGame, ply) : null;
+        if (catchUp == null) {
+            return false;
+        }
+        logger.debug("Player {} resuming game {} from ply {} ({} moves)",
+                username, gameId, ply, catchUp.getMoves().size());
+        messagingTemplate.convertAndSendToUser(username, "/queue/game-catchup", catchUp);
+        return true;
+    }
+
+    private void sendGameState(Long gameId, String username, boolean player) {
+        logger.info("{} {} joining game {}", player ? "Player" : "Spectator", username, gameId);
 
         // Send current game state to the joining player
         Game game = gameService.findByIdWithMovesAndPlayers(gameId);
         if (game != null) {
-            GameDTO gameDTO = gameService.toDTO(game);
+            GameDTO gameDTO = player ? gameService.toDTO(game) : moveFanout.forSpectators(gameService.toDTO(game));
             messagingTemplate.convertAndSendToUser(
                     username,
                     "/queue/game-state",
@@ -0,0 +1,106 @@
+package com.chess.websocket;
+
+import com.chess.dto.InvitationDTO;
+import com.chess.live.PendingInvitations;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes invitations expired by {@link PendingInvitations} to the database in JDBC
+ * batches every {@code flush-interval-ms}, then tells both players. An invitation
+ * answered in the meantime (for instance through another node) is left untouched
+ * and not announced.
+ */
+@Component
+public class InvitationExpiry {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvitationExpiry.class);
+
+    private static final String EXPIRE_SQL =
+            "UPDATE invitations SET status = 'EXPIRED' WHERE id = ? AND status = 'PENDING'";
+
+    private final PendingInvitations pendingInvitations;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "invitation-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${chess.invitations.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${chess.invitations.batch-size:500}")
+    private int batchSize;
+
+    public InvitationExpiry(PendingInvitations pendingInvitations,
+                            SimpMessagingTemplate messagingTemplate,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager) {
+        this.pendingInvitations = pendingInvitations;
+        this.messagingTemplate = messagingTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private void flush() {
+        try {
+            List<InvitationDTO> batch;
+            while (!(batch = pendingInvitations.drainExpired(batchSize)).isEmpty()) {
+                List<InvitationDTO> expired = expire(batch);
+                expired.forEach(this::notifyPlayers);
+                logger.debug("Expired {} of {} invitations", expired.size(), batch.size());
+            }
+        } catch (RuntimeException e) {
+            // The batch is lost; its rows stay PENDING and are expired again after a restart
+            logger.error("Failed to expire invitations", e);
+        }
+    }
+
+    private List<InvitationDTO> expire(List<InvitationDTO> batch) {
+        List<Object[]> args = batch.stream().map(invitation -> new Object[]{invitation.getId()}).toList();
+        int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(EXPIRE_SQL, args));
+        List<InvitationDTO> expired = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (counts[i] != 0) {
+                InvitationDTO invitation = batch.get(i);
+                invitation.setStatus("EXPIRED");
+                expired.add(invitation);
+            }
+        }
+        return expired;
+    }
+
+    private void notifyPlayers(InvitationDTO invitation) {
+        messagingTemplate.convertAndSend(
+                "/topic/user/" + invitation.getSenderUsername() + "/invitation-expired", invitation);
+        messagingTemplate.convertAndSend(
+                "/topic/user/" + invitation.getReceiverUsername() + "/invitation-expired", invitation);
+    }
+}
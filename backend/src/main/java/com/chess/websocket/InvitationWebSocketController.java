@@ -3,9 +3,10 @@ package com.chess.websocket;
 import com.chess.dto.GameDTO;
 import com.chess.dto.InvitationDTO;
 import com.chess.dto.InvitationResponseDTO;
+import com.chess.dto.PlayerDTO;
 import com.chess.model.Game;
-import com.chess.model.Invitation;
 import com.chess.model.User;
+import com.chess.security.StompPrincipal;
 import com.chess.service.GameService;
 import com.chess.service.InvitationService;
 import com.chess.service.PlayerService;
@@ -27,31 +28,38 @@ public class InvitationWebSocketController {
     private final InvitationService invitationService;
     private final PlayerService playerService;
     private final GameService gameService;
+    private final GameClocks gameClocks;
 
     public InvitationWebSocketController(SimpMessagingTemplate messagingTemplate,
                                          InvitationService invitationService,
                                          PlayerService playerService,
-                                         GameService gameService) {
+                                         GameService gameService,
+                                         GameClocks gameClocks) {
         this.messagingTemplate = messagingTemplate;
         this.invitationService = invitationService;
         this.playerService = playerService;
         this.gameService = gameService;
+        this.gameClocks = gameClocks;
     }
 
     @MessageMapping("/invite")
-    public void handleInvite(@Payload Map<String, String> payload) {
-        String senderUsername = payload.get("senderUsername");
-        String receiverUsername = payload.get("receiverUsername");
+    public void handleInvite(@Payload Map<String, Object> payload, StompPrincipal principal) {
+        String senderUsername = principal.username();
+        String receiverUsername = payload.get("receiverUsername") instanceof String name ? name : null;
 
-        logger.info("Invitation from {} to {}", senderUsername, receiverUsername);
+        // Time control in seconds; without an initial time (or with 0) the game is untimed, as before clocks
+        long initialSeconds = payload.get("initialSeconds") instanceof Number n ? n.longValue() : 0;
+        long incrementSeconds = payload.get("incrementSeconds") instanceof Number n ? n.longValue() : 0;
+        Long clockInitialMs = initialSeconds > 0 ? initialSeconds * 1000 : null;
+        Long clockIncrementMs = initialSeconds > 0 ? Math.max(incrementSeconds, 0) * 1000 : null;
 
-        User sender = playerService.findByUsername(senderUsername)
-                .orElseThrow(() -> new RuntimeException("Sender not found"));
-        User receiver = playerService.findByUsername(receiverUsername)
-                .orElseThrow(() -> new RuntimeException("Receiver not found"));
+        logger.info("Invitation from {} to {}", senderUsername, receiverUsername);
 
-        // Check if receiver is online
-        if (!playerService.isPlayerOnline(receiverUsername)) {
+        // Check if receiver is online; the online registry also holds their id
+        PlayerDTO receiverPlayer = receiverUsername != null
+                ? playerService.findOnlinePlayer(receiverUsername).orElse(null)
+                : null;
+        if (receiverPlayer == null) {
             // Send error back to sender
             String errorDest = "/topic/user/" + senderUsername + "/errors";
             Object errorMsg = Map.of("message", "Player is not online");
@@ -59,8 +67,10 @@ public class InvitationWebSocketController {
             return;
         }
 
-        Invitation invitation = invitationService.createInvitation(sender, receiver);
-        InvitationDTO invitationDTO = invitationService.toDTO(invitation);
+        User sender = playerService.userRef(principal.userId(), senderUsername);
+        User receiver = playerService.userRef(receiverPlayer.getId(), receiverPlayer.getUsername());
+        InvitationDTO invitationDTO = invitationService.createInvitation(sender, receiver, clockInitialMs,
+                clockIncrementMs);
 
         // Send invitation to receiver via user-specific topic
         messagingTemplate.convertAndSend(
@@ -74,26 +84,38 @@ public class InvitationWebSocketController {
                 invitationDTO
         );
 
-        logger.info("Invitation {} sent from {} to {}", invitation.getId(), senderUsername, receiverUsername);
+        logger.info("Invitation {} sent from {} to {}", invitationDTO.getId(), senderUsername, receiverUsername);
     }
 
     @MessageMapping("/invite/respond")
-    public void handleInviteResponse(@Payload InvitationResponseDTO response) {
+    public void handleInviteResponse(@Payload InvitationResponseDTO response, StompPrincipal principal) {
         logger.info("Invitation response: id={}, accepted={}", response.getInvitationId(), response.isAccepted());
 
-        Invitation invitation = invitationService.findById(response.getInvitationId())
-                .orElseThrow(() -> new RuntimeException("Invitation not found"));
+        // Only the invited player may answer, and only while the invitation is pending
+        InvitationDTO invitation = invitationService.claimPending(response.getInvitationId(), principal.userId())
+                .orElse(null);
+        if (invitation == null) {
+            invitationGone(response.getInvitationId(), principal.username());
+            return;
+        }
 
-        String senderUsername = invitation.getSender().getUsername();
-        String receiverUsername = invitation.getReceiver().getUsername();
+        String senderUsername = invitation.getSenderUsername();
+        String receiverUsername = invitation.getReceiverUsername();
+        User sender = playerService.userRef(invitation.getSenderId(), senderUsername);
+        User receiver = playerService.userRef(invitation.getReceiverId(), receiverUsername);
 
         if (response.isAccepted()) {
             // Accept invitation
-            invitationService.acceptInvitation(invitation);
+            if (!invitationService.acceptInvitation(invitation)) {
+                invitationGone(invitation.getId(), receiverUsername);
+                return;
+            }
 
             // Create game - receiver (who accepted) plays as white (first move)
             // Or we can randomize this
-            Game game = gameService.createGame(invitation.getReceiver(), invitation.getSender());
+            Game game = gameService.createGame(receiver, sender,
+                    invitation.getClockInitialMs(), invitation.getClockIncrementMs());
+            gameClocks.gameStarted(game.getId());
             GameDTO gameDTO = gameService.toDTO(game);
 
             // Notify both players about the new game via user-specific topics
@@ -110,15 +132,24 @@ public class InvitationWebSocketController {
                     game.getId(), receiverUsername, senderUsername);
         } else {
             // Refuse invitation
-            invitationService.refuseInvitation(invitation);
+            if (!invitationService.refuseInvitation(invitation)) {
+                invitationGone(invitation.getId(), receiverUsername);
+                return;
+            }
 
             // Notify sender that invitation was refused
             messagingTemplate.convertAndSend(
                     "/topic/user/" + senderUsername + "/invitation-refused",
-                    invitationService.toDTO(invitation)
+                    invitation
             );
 
             logger.info("Invitation {} refused", invitation.getId());
         }
     }
+
+    private void invitationGone(Long invitationId, String username) {
+        logger.warn("{} answered invitation {}, which is not pending for them", username, invitationId);
+        Object errorMsg = Map.of("message", "Invitation is no longer pending");
+        messagingTemplate.convertAndSend("/topic/user/" + username + "/errors", errorMsg);
+    }
 }
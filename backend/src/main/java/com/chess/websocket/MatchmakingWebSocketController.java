@@ -0,0 +1,84 @@
+package com.chess.websocket;
+
+import com.chess.matchmaking.Matchmaker;
+import com.chess.security.StompPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.List;
+import java.util.Map;
+
+@Controller
+public class MatchmakingWebSocketController {
+
+    private static final Logger logger = LoggerFactory.getLogger(MatchmakingWebSocketController.class);
+
+    private final Matchmaker matchmaker;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${chess.clock.default-initial-seconds:600}")
+    private long defaultInitialSeconds;
+
+    @Value("${chess.clock.default-increment-seconds:0}")
+    private long defaultIncrementSeconds;
+
+    @Value("${chess.matchmaking.time-controls:180+2,600+0,900+10}")
+    private List<String> timeControls;
+
+    public MatchmakingWebSocketController(Matchmaker matchmaker, SimpMessagingTemplate messagingTemplate) {
+        this.matchmaker = matchmaker;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    /**
+     * Joins the matchmaking queue for a time control in seconds (same defaults as
+     * invitations; 0 means untimed). Only the {@code chess.matchmaking.time-controls}
+     * are accepted, so players are not scattered over queues nobody else joins.
+     * Status updates go to {@code /user/queue/matchmaking}; the game, once matched,
+     * to the usual {@code game-created} topic.
+     */
+    @MessageMapping("/matchmaking/join")
+    public void handleJoin(@Payload(required = false) Map<String, Object> payload, StompPrincipal principal,
+                           SimpMessageHeaderAccessor headerAccessor) {
+        Map<String, Object> request = payload != null ? payload : Map.of();
+        long initialSeconds = request.get("initialSeconds") instanceof Number n
+                ? n.longValue()
+                : defaultInitialSeconds;
+        long incrementSeconds = request.get("incrementSeconds") instanceof Number n
+                ? n.longValue()
+                : defaultIncrementSeconds;
+        if (!timeControls.contains(initialSeconds + "+" + incrementSeconds)) {
+            logger.warn("Rejected matchmaking time control {}+{} from {}", initialSeconds, incrementSeconds,
+                    principal.username());
+            messagingTemplate.convertAndSendToUser(principal.username(), "/queue/matchmaking",
+                    Map.of("status", "REJECTED"));
+            return;
+        }
+        Matchmaker.TimeControl timeControl = initialSeconds > 0
+                ? new Matchmaker.TimeControl(initialSeconds * 1000, incrementSeconds * 1000)
+                : new Matchmaker.TimeControl(0, 0);
+        matchmaker.join(principal.userId(), principal.username(), headerAccessor.getSessionId(), timeControl);
+    }
+
+    @MessageMapping("/matchmaking/leave")
+    public void handleLeave(StompPrincipal principal) {
+        matchmaker.leave(principal.userId(), principal.username());
+    }
+
+    @EventListener
+    public void handleDisconnect(SessionDisconnectEvent event) {
+        // A player who drops out of the lobby is not matched into a game they cannot see;
+        // closing another tab of the same player leaves their queue entry alone
+        if (event.getUser() instanceof StompPrincipal principal) {
+            matchmaker.sessionClosed(principal.userId(), principal.username(), event.getSessionId());
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.chess.websocket;
+
+import com.chess.dto.GameDTO;
+import com.chess.dto.MoveDTO;
+import com.chess.engine.Position;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Delivers accepted moves to players and spectators.
+ * <p>
+ * Each move is serialized to JSON once. The same bytes go to the players on
+ * {@code /topic/game/{id}/moves}, and are spliced into the array frames sent to
+ * spectators on {@code /topic/game/{id}/spectate}. Spectator frames are held back
+ * {@code delay-ms} and sent at most once per {@code throttle-ms}, carrying every move
+ * released since the last one, so a crowded game costs one outbound frame per
+ * spectator per window rather than per move.
+ * <p>
+ * Snapshots for spectators go through {@link #forSpectators}, which drops the moves
+ * the players have but the spectators have not been sent yet.
+ * <p>
+ * Spectators are counted from their subscriptions; counts go out on
+ * {@code /topic/game/{id}/spectators} at most once per {@code count-interval-ms}.
+ * Feeds and counts are only touched on the fan-out thread. Counts cover this node's
+ * sessions only.
+ */
+@Component
+public class MoveFanout {
+
+    private static final Pattern SPECTATOR_DESTINATION =
+            Pattern.compile("^/topic/game/(\\d+)/(spectate|spectators)$");
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "move-fanout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${chess.spectators.delay-ms:0}")
+    private long delayMs;
+
+    @Value("${chess.spectators.throttle-ms:250}")
+    private long throttleMs;
+
+    @Value("${chess.spectators.count-interval-ms:1000}")
+    private long countIntervalMs;
+
+    // Fan-out thread only
+    private final Map<Long, Feed> feeds = new HashMap<>();
+    private final Map<String, Map<String, Long>> spectatorSubscriptions = new HashMap<>();
+    private final Map<Long, Integer> spectatorCounts = new HashMap<>();
+    private final Set<Long> changedCounts = new HashSet<>();
+    private boolean countFlushScheduled;
+
+    // Moves sent to a game's players but not yet to its spectators; absent when none
+    private final Map<Long, Integer> heldBack = new ConcurrentHashMap<>();
+
+    private record PendingMove(long releaseAt, byte[] json) {
+    }
+
+    private static final class Feed {
+
+        private final Queue<PendingMove> moves = new ArrayDeque<>();
+        private long lastSentAt = Long.MIN_VALUE / 2;
+        private boolean flushScheduled;
+    }
+
+    public MoveFanout(SimpMessagingTemplate messagingTemplate, ObjectMapper objectMapper) {
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Sends a move to the players now and queues it for the spectators. */
+    public void publishMove(Long gameId, MoveDTO move) {
+        byte[] json = objectMapper.writeValueAsBytes(move);
+        heldBack.merge(gameId, 1, Integer::sum);
+        sendJson("/topic/game/" + gameId + "/moves", json);
+        long releaseAt = now() + delayMs;
+        scheduler.execute(() -> {
+            Feed feed = feeds.computeIfAbsent(gameId, id -> new Feed());
+            feed.moves.add(new PendingMove(releaseAt, json));
+            scheduleFlush(gameId, feed);
+        });
+    }
+
+    /**
+     * Rewinds an in-progress game's snapshot to the last move released to spectators:
+     * later moves are dropped and the position, turn and clocks are those after it.
+     */
+    public GameDTO forSpectators(GameDTO game) {
+        int held = heldBack.getOrDefault(game.getId(), 0);
+        List<MoveDTO> moves = game.getMoves();
+        if (held == 0 || moves == null || !"IN_PROGRESS".equals(game.getStatus())) {
+            return game;
+        }
+        int released = Math.max(moves.size() - held, 0);
+        MoveDTO last = released > 0 ? moves.get(released - 1) : null;
+        game.setMoves(List.copyOf(moves.subList(0, released)));
+        game.setMoveCount(released);
+        game.setCurrentFen(last != null ? last.getFenAfter() : Position.START_FEN);
+        game.setCurrentTurn(released % 2 == 0 ? "white" : "black");
+        if (game.getClockInitialMs() != null) {
+            game.setWhiteTimeMs(last != null ? last.getWhiteTimeMs() : game.getClockInitialMs());
+            game.setBlackTimeMs(last != null ? last.getBlackTimeMs() : game.getClockInitialMs());
+        }
+        return game;
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        Matcher matcher = destination != null ? SPECTATOR_DESTINATION.matcher(destination) : null;
+        if (matcher == null || !matcher.matches()) {
+            return;
+        }
+        Long gameId = Long.valueOf(matcher.group(1));
+        if (matcher.group(2).equals("spectators")) {
+            // A new count watcher gets the current count with the next flush
+            scheduler.execute(() -> countChanged(gameId, 0));
+            return;
+        }
+        String sessionId = accessor.getSessionId();
+        String subscriptionId = accessor.getSubscriptionId();
+        scheduler.execute(() -> {
+            if (spectatorSubscriptions.computeIfAbsent(sessionId, id -> new HashMap<>())
+                    .put(subscriptionId, gameId) == null) {
+                countChanged(gameId, 1);
+            }
+        });
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        String sessionId = accessor.getSessionId();
+        String subscriptionId = accessor.getSubscriptionId();
+        scheduler.execute(() -> {
+            Map<String, Long> subscriptions = spectatorSubscriptions.get(sessionId);
+            Long gameId = subscriptions != null ? subscriptions.remove(subscriptionId) : null;
+            if (gameId != null) {
+                if (subscriptions.isEmpty()) {
+                    spectatorSubscriptions.remove(sessionId);
+                }
+                countChanged(gameId, -1);
+            }
+        });
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        String sessionId = event.getSessionId();
+        scheduler.execute(() -> {
+            Map<String, Long> subscriptions = spectatorSubscriptions.remove(sessionId);
+            if (subscriptions != null) {
+                subscriptions.values().forEach(gameId -> countChanged(gameId, -1));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private void scheduleFlush(Long gameId, Feed feed) {
+        if (feed.flushScheduled || feed.moves.isEmpty()) {
+            return;
+        }
+        long sendAt = Math.max(feed.moves.peek().releaseAt(), feed.lastSentAt + throttleMs);
+        feed.flushScheduled = true;
+        scheduler.schedule(() -> flush(gameId, feed), Math.max(sendAt - now(), 0), TimeUnit.MILLISECONDS);
+    }
+
+    private void flush(Long gameId, Feed feed) {
+        feed.flushScheduled = false;
+        long now = now();
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        frame.write('[');
+        int count = 0;
+        while (!feed.moves.isEmpty() && feed.moves.peek().releaseAt() <= now) {
+            if (count++ > 0) {
+                frame.write(',');
+            }
+            frame.writeBytes(feed.moves.poll().json());
+        }
+        frame.write(']');
+        if (count > 0) {
+            sendJson("/topic/game/" + gameId + "/spectate", frame.toByteArray());
+            feed.lastSentAt = now;
+            heldBack.merge(gameId, -count, (held, sent) -> held + sent > 0 ? held + sent : null);
+        }
+
+        if (!feed.moves.isEmpty()) {
+            scheduleFlush(gameId, feed);
+        } else {
+            // Keep the feed for one more window so the throttle holds across quiet spells
+            scheduler.schedule(() -> retireIfIdle(gameId, feed), throttleMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void retireIfIdle(Long gameId, Feed feed) {
+        if (feed.moves.isEmpty() && !feed.flushScheduled) {
+            feeds.remove(gameId, feed);
+        }
+    }
+
+    private void countChanged(Long gameId, int delta) {
+        if (delta != 0) {
+            spectatorCounts.merge(gameId, delta, (count, change) -> count + change > 0 ? count + change : null);
+        }
+        changedCounts.add(gameId);
+        if (!countFlushScheduled) {
+            countFlushScheduled = true;
+            scheduler.schedule(this::flushCounts, countIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flushCounts() {
+        countFlushScheduled = false;
+        for (Long gameId : changedCounts) {
+            Object count = Map.of("gameId", gameId, "count", spectatorCounts.getOrDefault(gameId, 0));
+            messagingTemplate.convertAndSend("/topic/game/" + gameId + "/spectators", count);
+        }
+        changedCounts.clear();
+    }
+
+    private void sendJson(String destination, byte[] json) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        Message<byte[]> message = MessageBuilder.createMessage(json, accessor.getMessageHeaders());
+        messagingTemplate.send(destination, message);
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
@@ -0,0 +1,57 @@
+package com.chess.websocket;
+
+import com.chess.dto.MoveDTO;
+import com.chess.engine.PackedMove;
+import com.chess.engine.Piece;
+import com.chess.engine.Square;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+/**
+ * Reads binary move frames ({@value #CONTENT_TYPE}) into {@link MoveDTO}s. The body is
+ * four bytes, big-endian: the 1-based move number, then the move in {@link PackedMove}
+ * layout. Only the from/to squares and the promotion piece are read from the packed
+ * move; capture and castling flags are worked out by the engine.
+ */
+@Component
+public class MoveFrameConverter extends AbstractMessageConverter {
+
+    public static final String CONTENT_TYPE = "application/vnd.chess.move";
+
+    private static final int FRAME_LENGTH = 4;
+
+    public MoveFrameConverter() {
+        super(MimeType.valueOf(CONTENT_TYPE));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return MoveDTO.class == clazz;
+    }
+
+    @Override
+    protected boolean canConvertTo(Object payload, MessageHeaders headers) {
+        // Inbound only; outgoing moves stay JSON so SockJS clients can read them
+        return false;
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+        if (!(message.getPayload() instanceof byte[] body) || body.length != FRAME_LENGTH) {
+            return null;
+        }
+        int moveNumber = ((body[0] & 0xFF) << 8) | (body[1] & 0xFF);
+        int move = ((body[2] & 0xFF) << 8) | (body[3] & 0xFF);
+        return MoveDTO.builder()
+                .moveNumber(moveNumber)
+                .from(Square.name(PackedMove.from(move)))
+                .to(Square.name(PackedMove.to(move)))
+                .promotion(PackedMove.isPromotion(move)
+                        ? String.valueOf(Piece.letter(PackedMove.promotionType(move)))
+                        : null)
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.chess.websocket;
+
+import com.chess.cluster.ClusterNode;
+import com.chess.cluster.ClusterPresence;
+import com.chess.service.PlayerService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends presence deltas to this node's presence topic. The first change after a
+ * broadcast schedules a flush {@code coalesce-window-ms} later; every change in
+ * that window goes out in the same frame, and is announced to the other nodes
+ * when running behind a broker relay.
+ */
+@Component
+public class PresenceBroadcaster {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PlayerService playerService;
+    private final ClusterNode clusterNode;
+    private final ObjectProvider<ClusterPresence> clusterPresence;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "presence-broadcaster");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    @Value("${chess.presence.coalesce-window-ms:100}")
+    private long coalesceWindowMs;
+
+    public PresenceBroadcaster(SimpMessagingTemplate messagingTemplate,
+                               PlayerService playerService,
+                               ClusterNode clusterNode,
+                               ObjectProvider<ClusterPresence> clusterPresence) {
+        this.messagingTemplate = messagingTemplate;
+        this.playerService = playerService;
+        this.clusterNode = clusterNode;
+        this.clusterPresence = clusterPresence;
+    }
+
+    /** Call after changing the online registry. */
+    public void presenceChanged() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flush, coalesceWindowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        // Cleared before draining so a change made during the send schedules its own flush
+        flushScheduled.set(false);
+        clusterPresence.ifAvailable(ClusterPresence::publishLocalChanges);
+        playerService.drainPresenceDelta()
+                .ifPresent(delta -> messagingTemplate.convertAndSend(clusterNode.presenceTopic(), delta));
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,42 @@
+-- Schema as previously generated by Hibernate (ddl-auto: update). Existing
+-- databases are baselined at this version and skip it.
+
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username   VARCHAR(50)  NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE IF NOT EXISTS games (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    white_player_id BIGINT REFERENCES users (id),
+    black_player_id BIGINT REFERENCES users (id),
+    status          VARCHAR(20),
+    current_turn    VARCHAR(5),
+    current_fen     VARCHAR(255),
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS moves (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    game_id      BIGINT      NOT NULL REFERENCES games (id),
+    move_number  INTEGER     NOT NULL,
+    from_square  VARCHAR(2)  NOT NULL,
+    to_square    VARCHAR(2)  NOT NULL,
+    piece        VARCHAR(10) NOT NULL,
+    promotion    VARCHAR(1),
+    fen_after    VARCHAR(100),
+    san_notation VARCHAR(10),
+    created_at   TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS invitations (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    sender_id   BIGINT NOT NULL REFERENCES users (id),
+    receiver_id BIGINT NOT NULL REFERENCES users (id),
+    status      VARCHAR(20),
+    created_at  TIMESTAMP(6)
+);
@@ -0,0 +1,16 @@
+-- Player game lookups are written as one UNION ALL branch per colour, so each
+-- branch is served by its own index.
+
+-- Active games: player + status, newest first
+CREATE INDEX IF NOT EXISTS idx_games_white_status_updated ON games (white_player_id, status, updated_at);
+CREATE INDEX IF NOT EXISTS idx_games_black_status_updated ON games (black_player_id, status, updated_at);
+
+-- History pages: keyset on (updated_at, id) per player
+CREATE INDEX IF NOT EXISTS idx_games_white_history ON games (white_player_id, updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_games_black_history ON games (black_player_id, updated_at, id);
+
+-- Moves by game are served by the (game_id, move_number) key added in V6
+
+-- Pending invitations per receiver / sender, and a user's invitation list
+CREATE INDEX IF NOT EXISTS idx_invitations_receiver_status ON invitations (receiver_id, status, created_at);
+CREATE INDEX IF NOT EXISTS idx_invitations_sender_status ON invitations (sender_id, status, created_at);
@@ -0,0 +1,15 @@
+-- Time controls. NULL clock_initial_ms means an untimed game.
+
+-- Time control, and each player's remaining time as of the last move written
+ALTER TABLE games ADD COLUMN IF NOT EXISTS clock_initial_ms BIGINT;
+ALTER TABLE games ADD COLUMN IF NOT EXISTS clock_increment_ms BIGINT;
+ALTER TABLE games ADD COLUMN IF NOT EXISTS white_time_ms BIGINT;
+ALTER TABLE games ADD COLUMN IF NOT EXISTS black_time_ms BIGINT;
+
+-- Time control proposed with an invitation, copied to the game on acceptance
+ALTER TABLE invitations ADD COLUMN IF NOT EXISTS clock_initial_ms BIGINT;
+ALTER TABLE invitations ADD COLUMN IF NOT EXISTS clock_increment_ms BIGINT;
+
+-- Timed games still running, re-armed at startup
+CREATE INDEX IF NOT EXISTS idx_games_timed_in_progress ON games (id)
+    WHERE status = 'IN_PROGRESS' AND clock_initial_ms IS NOT NULL;
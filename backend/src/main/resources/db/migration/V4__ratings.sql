@@ -0,0 +1,13 @@
+-- Glicko-2 ratings. New and existing players start at 1500 / 350 / 0.06.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS rating DOUBLE PRECISION NOT NULL DEFAULT 1500;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS rating_deviation DOUBLE PRECISION NOT NULL DEFAULT 350;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS rating_volatility DOUBLE PRECISION NOT NULL DEFAULT 0.06;
+
+-- Set once a finished game's result is in its players' ratings. Games finished before
+-- this migration start unrated and are replayed into the ratings at the next startup.
+ALTER TABLE games ADD COLUMN IF NOT EXISTS rated BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Finished games still to be rated, replayed in finishing order at startup
+CREATE INDEX IF NOT EXISTS idx_games_unrated ON games (updated_at, id)
+    WHERE rated = FALSE AND status IN ('WHITE_WON', 'BLACK_WON', 'DRAW');
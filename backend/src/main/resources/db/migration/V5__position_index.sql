@@ -0,0 +1,7 @@
+-- Set once an ended game's positions are counted in the position index
+-- (chess.positions.path). Games ended before this migration are indexed at the next startup.
+ALTER TABLE games ADD COLUMN IF NOT EXISTS positions_indexed BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Ended games still to be indexed, walked in id order at startup
+CREATE INDEX IF NOT EXISTS idx_games_positions_unindexed ON games (id)
+    WHERE positions_indexed = FALSE AND status <> 'IN_PROGRESS';
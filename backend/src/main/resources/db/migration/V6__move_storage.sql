@@ -0,0 +1,22 @@
+-- Columns and key added with the ply sequence and blob storage. Databases generated
+-- by ddl-auto before Flyway may already have them.
+-- Like the other migrations, this one is written for PostgreSQL (DO block, pg_constraint).
+
+-- Packed move list (blob storage mode) and optimistic lock version
+ALTER TABLE games ADD COLUMN IF NOT EXISTS move_data BYTEA;
+ALTER TABLE games ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0;
+
+-- Moves written twice under the same number before the key existed: keep the first
+DELETE FROM moves m
+    USING moves earlier
+    WHERE m.game_id = earlier.game_id
+      AND m.move_number = earlier.move_number
+      AND m.id > earlier.id;
+
+-- One row per ply; also serves moves by game
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_moves_game_move_number') THEN
+        ALTER TABLE moves ADD CONSTRAINT uk_moves_game_move_number UNIQUE (game_id, move_number);
+    END IF;
+END $$;
@@ -0,0 +1,3 @@
+-- Rating period (floor(time / chess.ratings.period-ms)) each player was last rated in.
+-- The periods since widen the deviation lazily; NULL until first rated.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS rating_period BIGINT;
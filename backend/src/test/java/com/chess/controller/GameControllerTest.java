@@ -0,0 +1,157 @@
+package com.chess.controller;
+
+import com.chess.dto.GameDTO;
+import com.chess.live.GameActors;
+import com.chess.model.Game;
+import com.chess.model.User;
+import com.chess.service.GameService;
+import com.chess.service.PlayerService;
+import com.chess.websocket.MoveFanout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.UserDetails;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GameControllerTest {
+
+    private static final long GAME_ID = 7L;
+
+    private final GameService gameService = mock(GameService.class);
+    private final PlayerService playerService = mock(PlayerService.class);
+    private final GameActors gameActors = new GameActors();
+    private final MoveFanout moveFanout = mock(MoveFanout.class);
+    private final GameController controller =
+            new GameController(gameService, playerService, gameActors, moveFanout, new ObjectMapper());
+
+    private final User white = User.builder().id(1L).username("white").build();
+    private final User black = User.builder().id(2L).username("black").build();
+    private final User stranger = User.builder().id(3L).username("stranger").build();
+    private Game game;
+
+    @BeforeEach
+    void setUp() {
+        game = Game.builder()
+                .id(GAME_ID)
+                .whitePlayer(white)
+                .blackPlayer(black)
+                .status(Game.GameStatus.IN_PROGRESS)
+                .build();
+        for (User user : new User[]{white, black, stranger}) {
+            when(playerService.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+        }
+        when(gameService.findByIdWithMovesAndPlayers(GAME_ID)).thenAnswer(invocation -> game);
+        when(gameService.toDTO(any())).thenReturn(new GameDTO());
+    }
+
+    @AfterEach
+    void shutdown() {
+        gameActors.shutdown();
+    }
+
+    @Test
+    void resignsOnTheGamesMailbox() {
+        AtomicReference<String> thread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            return null;
+        }).when(gameService).updateGameStatus(game, Game.GameStatus.BLACK_WON);
+
+        ResponseEntity<GameDTO> response = controller.resignGame(GAME_ID, principal(white));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(thread.get()).startsWith("game-actor-");
+        verify(gameService).awaitMovesFlushed(GAME_ID);
+    }
+
+    @Test
+    void waitsForCommandsAlreadyQueuedForTheGame() throws Exception {
+        // An ending already in the mailbox, e.g. a checkmate, runs before the resignation
+        CountDownLatch release = new CountDownLatch(1);
+        gameActors.tell(GAME_ID, () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            game.setStatus(Game.GameStatus.WHITE_WON);
+        });
+        Thread releaser = Thread.ofVirtual().start(() -> {
+            sleep(100);
+            release.countDown();
+        });
+
+        ResponseEntity<GameDTO> response = controller.resignGame(GAME_ID, principal(white));
+        releaser.join();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        verify(gameService, never()).updateGameStatus(any(), any());
+    }
+
+    @Test
+    void rejectsResigningAFinishedGame() {
+        game.setStatus(Game.GameStatus.DRAW);
+
+        ResponseEntity<GameDTO> response = controller.resignGame(GAME_ID, principal(black));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        verify(gameService, never()).updateGameStatus(any(), any());
+    }
+
+    @Test
+    void rejectsNonPlayers() {
+        ResponseEntity<GameDTO> response = controller.resignGame(GAME_ID, principal(stranger));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(gameService, never()).updateGameStatus(any(), any());
+    }
+
+    @Test
+    void returnsNotFoundForAnUnknownGame() {
+        game = null;
+
+        ResponseEntity<GameDTO> response = controller.resignGame(GAME_ID, principal(white));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void showsSpectatorsOnlyTheMovesReleasedToThem() {
+        GameDTO released = new GameDTO();
+        when(gameService.findById(GAME_ID)).thenReturn(Optional.of(game));
+        when(moveFanout.forSpectators(any())).thenReturn(released);
+
+        assertThat(controller.getGame(GAME_ID, principal(stranger)).getBody()).isSameAs(released);
+        assertThat(controller.getGame(GAME_ID, principal(white)).getBody()).isNotSameAs(released);
+        verify(moveFanout).forSpectators(any());
+    }
+
+    private static UserDetails principal(User user) {
+        return org.springframework.security.core.userdetails.User.withUsername(user.getUsername())
+                .password("password")
+                .build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
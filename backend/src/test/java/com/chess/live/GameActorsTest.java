@@ -0,0 +1,75 @@
+package com.chess.live;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameActorsTest {
+
+    private final GameActors actors = new GameActors();
+
+    @AfterEach
+    void shutdown() {
+        actors.shutdown();
+    }
+
+    @Test
+    void runsEachGamesCommandsOneAtATimeInOrder() throws Exception {
+        int games = 50;
+        int commandsPerGame = 500;
+        int[] last = new int[games];
+        AtomicInteger[] running = new AtomicInteger[games];
+        AtomicInteger violations = new AtomicInteger();
+        for (int game = 0; game < games; game++) {
+            running[game] = new AtomicInteger();
+        }
+
+        ExecutorService producers = Executors.newFixedThreadPool(4);
+        List<CompletableFuture<Void>> submitted = new ArrayList<>();
+        for (int game = 0; game < games; game++) {
+            int id = game;
+            submitted.add(CompletableFuture.runAsync(() -> {
+                for (int i = 1; i <= commandsPerGame; i++) {
+                    int sequence = i;
+                    actors.tell((long) id, () -> {
+                        if (running[id].incrementAndGet() != 1 || last[id] != sequence - 1) {
+                            violations.incrementAndGet();
+                        }
+                        last[id] = sequence;
+                        running[id].decrementAndGet();
+                    });
+                }
+            }, producers));
+        }
+        CompletableFuture.allOf(submitted.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        for (int game = 0; game < games; game++) {
+            int id = game;
+            assertThat(actors.ask((long) id, () -> last[id]).get(30, TimeUnit.SECONDS)).isEqualTo(commandsPerGame);
+        }
+        producers.shutdown();
+
+        assertThat(violations).hasValue(0);
+    }
+
+    @Test
+    void dropsMailboxesOnceDrained() throws Exception {
+        for (long game = 1; game <= 1000; game++) {
+            actors.ask(game, () -> null).get(30, TimeUnit.SECONDS);
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (actors.size() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(actors.size()).isZero();
+    }
+}
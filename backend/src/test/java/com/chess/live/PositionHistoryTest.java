@@ -0,0 +1,104 @@
+package com.chess.live;
+
+import com.chess.engine.MoveGenerator;
+import com.chess.engine.MoveListCodec;
+import com.chess.engine.PackedMove;
+import com.chess.engine.Piece;
+import com.chess.engine.Position;
+import com.chess.engine.Square;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PositionHistoryTest {
+
+    private static final String[] KNIGHT_SHUFFLE = {"g1f3", "g8f6", "f3g1", "f6g8", "g1f3", "g8f6", "f3g1", "f6g8"};
+
+    @Test
+    void countsRepetitionsOfTheSamePositionWithTheSameSideToMove() {
+        Position position = Position.initial();
+        PositionHistory history = new PositionHistory(position.hash(), 0);
+
+        List<Integer> repetitions = new ArrayList<>();
+        for (String move : KNIGHT_SHUFFLE) {
+            play(position, move);
+            history.push(position.hash(), position.halfmoveClock());
+            repetitions.add(history.repetitions());
+        }
+
+        // The start position recurs after plies 4 and 8
+        assertThat(repetitions).containsExactly(1, 1, 1, 2, 2, 2, 2, 3);
+    }
+
+    @Test
+    void forgetsPositionsBeforeAPawnMove() {
+        Position position = Position.initial();
+        PositionHistory history = new PositionHistory(position.hash(), 0);
+        for (String move : new String[]{"g1f3", "g8f6", "f3g1", "f6g8", "e2e4", "e7e5", "g1f3", "g8f6", "f3g1",
+                "f6g8"}) {
+            play(position, move);
+            history.push(position.hash(), position.halfmoveClock());
+        }
+
+        assertThat(history.repetitions()).isEqualTo(2);
+    }
+
+    @Test
+    void replayRebuildsRepetitionsFromTheMoveList() {
+        Position position = Position.initial();
+        int[] moves = new int[KNIGHT_SHUFFLE.length];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = play(position, KNIGHT_SHUFFLE[i]);
+        }
+
+        PositionHistory history = PositionHistory.replay(MoveListCodec.encode(moves, moves.length), position);
+
+        assertThat(history.repetitions()).isEqualTo(3);
+    }
+
+    @Test
+    void replayFallsBackToTheCurrentPositionWhenTheListDoesNotLeadThere() {
+        Position position = Position.fromFen("8/8/8/4k3/8/8/8/4K2R w K - 12 40");
+
+        PositionHistory history = PositionHistory.replay(new byte[0], position);
+
+        assertThat(history.repetitions()).isEqualTo(1);
+        assertThat(history.fiftyMoveRule()).isFalse();
+    }
+
+    @Test
+    void appliesTheFiftyMoveRuleOnTheHundredthQuietHalfmove() {
+        Position position = Position.fromFen("8/8/8/4k3/8/8/8/R3K3 w - - 98 80");
+        PositionHistory history = new PositionHistory(position.hash(), position.halfmoveClock());
+
+        play(position, "a1a2");
+        history.push(position.hash(), position.halfmoveClock());
+        assertThat(history.fiftyMoveRule()).isFalse();
+
+        play(position, "e5e4");
+        history.push(position.hash(), position.halfmoveClock());
+        assertThat(history.fiftyMoveRule()).isTrue();
+    }
+
+    @Test
+    void aCaptureRestartsTheFiftyMoveCount() {
+        Position position = Position.fromFen("8/8/8/4k3/8/8/r7/R3K3 w - - 99 80");
+        PositionHistory history = new PositionHistory(position.hash(), position.halfmoveClock());
+
+        play(position, "a1a2");
+        history.push(position.hash(), position.halfmoveClock());
+
+        assertThat(history.fiftyMoveRule()).isFalse();
+    }
+
+    private static int play(Position position, String move) {
+        int packed = MoveGenerator.findLegal(position, Square.parse(move.substring(0, 2)),
+                Square.parse(move.substring(2, 4)), Piece.NONE);
+        assertThat(packed).isNotEqualTo(PackedMove.NONE);
+        position.play(packed);
+        return packed;
+    }
+}
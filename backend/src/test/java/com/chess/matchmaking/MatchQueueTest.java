@@ -0,0 +1,91 @@
+package com.chess.matchmaking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MatchQueueTest {
+
+    private static final Matchmaker.TimeControl BLITZ = new Matchmaker.TimeControl(180_000, 2_000);
+    private static final Matchmaker.TimeControl RAPID = new Matchmaker.TimeControl(600_000, 0);
+
+    private final MatchQueue queue = new MatchQueue(50, 5000, 400, new Random(1));
+
+    @Test
+    void pairsTheNearestRatingWithinTheWindow() {
+        queue.add(1L, "a", "s1", BLITZ, 1500, 0);
+        queue.add(2L, "b", "s2", BLITZ, 1540, 0);
+        queue.add(3L, "c", "s3", BLITZ, 1700, 0);
+
+        List<MatchQueue.Pairing> pairings = queue.pair(0);
+
+        assertThat(pairings).hasSize(1);
+        assertThat(players(pairings.getFirst())).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(queue.size()).isEqualTo(1);
+    }
+
+    @Test
+    void waitsForTheWindowToWidenBeforePairingDistantRatings() {
+        queue.add(1L, "a", "s1", BLITZ, 1500, 0);
+        queue.add(2L, "b", "s2", BLITZ, 1620, 0);
+
+        assertThat(queue.pair(0)).isEmpty();
+        assertThat(queue.pair(5_000)).isEmpty();
+        // Three buckets of 50 after ten seconds of waiting
+        assertThat(queue.pair(10_000)).singleElement()
+                .satisfies(pairing -> assertThat(players(pairing)).containsExactlyInAnyOrder(1L, 2L));
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void neverPairsBeyondTheMaximumWindow() {
+        queue.add(1L, "a", "s1", BLITZ, 1000, 0);
+        queue.add(2L, "b", "s2", BLITZ, 1500, 0);
+
+        assertThat(queue.pair(3_600_000)).isEmpty();
+    }
+
+    @Test
+    void pairsOnlyWithinTheSameTimeControl() {
+        queue.add(1L, "a", "s1", BLITZ, 1500, 0);
+        queue.add(2L, "b", "s2", RAPID, 1500, 0);
+
+        assertThat(queue.pair(0)).isEmpty();
+        assertThat(queue.size()).isEqualTo(2);
+    }
+
+    @Test
+    void rejoiningReplacesTheEarlierEntry() {
+        queue.add(1L, "a", "s1", BLITZ, 1500, 0);
+        queue.add(1L, "a", "s1", RAPID, 1500, 0);
+        queue.add(2L, "b", "s2", BLITZ, 1500, 0);
+
+        assertThat(queue.pair(0)).isEmpty();
+        assertThat(queue.size()).isEqualTo(2);
+    }
+
+    @Test
+    void removesOnlyForTheSessionThatJoined() {
+        queue.add(1L, "a", "tab2", BLITZ, 1500, 0);
+
+        assertThat(queue.remove(1L, "tab1")).isFalse();
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.remove(1L, "tab2")).isTrue();
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void removesFromAnySessionWithoutOne() {
+        queue.add(1L, "a", "tab1", BLITZ, 1500, 0);
+
+        assertThat(queue.remove(1L, null)).isTrue();
+        assertThat(queue.remove(1L, null)).isFalse();
+    }
+
+    private static List<Long> players(MatchQueue.Pairing pairing) {
+        return List.of(pairing.white().userId(), pairing.black().userId());
+    }
+}
@@ -0,0 +1,105 @@
+package com.chess.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MoveJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackWhatWasAppended() throws Exception {
+        Path path = dir.resolve("move-journal.log");
+        MoveRecord untimed = record(1, 1);
+        MoveRecord blob = new MoveRecord(2, 7, "e7", "e8", "P", "Q", "4Q3/8/8/8/8/8/8/4k2K b - - 0 1", "e8=Q+",
+                "black", LocalDateTime.of(2026, 3, 1, 12, 30, 15, 123_456_789), new byte[]{1, 2, 3}, 59_000L, 61_500L);
+
+        try (MoveJournal journal = new MoveJournal(path, 1 << 20)) {
+            journal.sync(journal.append(untimed).end());
+            journal.sync(journal.append(blob).end());
+        }
+
+        try (MoveJournal journal = new MoveJournal(path, 1 << 20)) {
+            List<MoveRecord> records = journal.readAll();
+            assertThat(records).hasSize(2);
+            assertThat(records.get(0)).isEqualTo(untimed);
+            assertThat(records.get(1)).usingRecursiveComparison().isEqualTo(blob);
+        }
+    }
+
+    @Test
+    void ignoresATornTail() throws Exception {
+        Path path = dir.resolve("move-journal.log");
+        try (MoveJournal journal = new MoveJournal(path, 1 << 20)) {
+            for (int ply = 1; ply <= 3; ply++) {
+                journal.sync(journal.append(record(1, ply)).end());
+            }
+        }
+        // A crash in the middle of writing the last entry
+        Path segment = segments(path).getLast();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        try (MoveJournal journal = new MoveJournal(path, 1 << 20)) {
+            assertThat(journal.readAll()).extracting(MoveRecord::moveNumber).containsExactly(1, 2);
+        }
+    }
+
+    @Test
+    void deletesSegmentsOnceCommitted() throws Exception {
+        Path path = dir.resolve("move-journal.log");
+        try (MoveJournal journal = new MoveJournal(path, 512)) {
+            List<MoveJournal.Appended> appended = new ArrayList<>();
+            for (int ply = 1; ply <= 20; ply++) {
+                appended.add(journal.append(record(1, ply)));
+            }
+            assertThat(segments(path)).hasSizeGreaterThan(2);
+
+            for (MoveJournal.Appended entry : appended) {
+                journal.committed(entry.segment(), 1);
+            }
+            // Only the segment still being written is left
+            assertThat(segments(path)).hasSize(1);
+        }
+    }
+
+    @Test
+    void resetDropsReplayedEntries() throws Exception {
+        Path path = dir.resolve("move-journal.log");
+        try (MoveJournal journal = new MoveJournal(path, 1 << 20)) {
+            journal.sync(journal.append(record(1, 1)).end());
+        }
+        try (MoveJournal journal = new MoveJournal(path, 1 << 20)) {
+            assertThat(journal.readAll()).hasSize(1);
+            journal.reset();
+            assertThat(journal.readAll()).isEmpty();
+        }
+    }
+
+    private static MoveRecord record(long gameId, int moveNumber) {
+        return new MoveRecord(gameId, moveNumber, "e2", "e4", "P", null,
+                "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1", "e4", "black",
+                LocalDateTime.of(2026, 3, 1, 12, 0), null, null, null);
+    }
+
+    private static List<Path> segments(Path path) throws Exception {
+        try (Stream<Path> files = Files.list(path.getParent())) {
+            return files.filter(file -> file.getFileName().toString().startsWith(path.getFileName() + "."))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
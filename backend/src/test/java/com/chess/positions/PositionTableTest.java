@@ -0,0 +1,78 @@
+package com.chess.positions;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PositionTableTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void countsGamesAndResultsPerPosition() throws Exception {
+        try (PositionTable table = PositionTable.create(dir.resolve("positions.idx"), 1024)) {
+            table.add(42, 1);
+            table.add(42, 0.5);
+            table.add(42, 0);
+            table.add(42, -1);
+            table.add(7, 1);
+
+            assertThat(table.get(42)).isEqualTo(new PositionStats(4, 1, 1, 1));
+            assertThat(table.get(7)).isEqualTo(new PositionStats(1, 1, 0, 0));
+            assertThat(table.get(99)).isEqualTo(PositionStats.NONE);
+            assertThat(table.size()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void storesTheZeroHash() throws Exception {
+        try (PositionTable table = PositionTable.create(dir.resolve("positions.idx"), 1024)) {
+            table.add(0, 1);
+
+            assertThat(table.get(0).games()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void keepsEveryPositionWhenGrown() throws Exception {
+        Path path = dir.resolve("positions.idx");
+        long[] hashes = new SplittableRandom(1).longs(5000).toArray();
+        PositionTable table = PositionTable.create(path, 1024);
+        for (long hash : hashes) {
+            table.add(hash, 1);
+            if (table.isFull()) {
+                PositionTable bigger = table.grow();
+                table.close();
+                table = bigger;
+            }
+        }
+
+        try (PositionTable grown = table) {
+            assertThat(grown.capacity()).isGreaterThan(1024);
+            assertThat(grown.size()).isEqualTo(hashes.length);
+            for (long hash : hashes) {
+                assertThat(grown.get(hash)).isEqualTo(new PositionStats(1, 1, 0, 0));
+            }
+        }
+    }
+
+    @Test
+    void reopensWithItsCounters() throws Exception {
+        Path path = dir.resolve("positions.idx");
+        try (PositionTable table = PositionTable.create(path, 1024)) {
+            table.add(42, 0.5);
+            table.add(43, 0);
+        }
+
+        try (PositionTable table = PositionTable.open(path, 1024)) {
+            assertThat(table.size()).isEqualTo(2);
+            assertThat(table.get(42)).isEqualTo(new PositionStats(1, 0, 1, 0));
+            assertThat(table.get(43)).isEqualTo(new PositionStats(1, 0, 0, 1));
+        }
+    }
+}
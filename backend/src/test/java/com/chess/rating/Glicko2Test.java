@@ -0,0 +1,47 @@
+package com.chess.rating;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class Glicko2Test {
+
+    private final Glicko2 glicko = new Glicko2(0.5);
+
+    @Test
+    void matchesGlickmansWorkedExample() {
+        Glicko2.Rating player = new Glicko2.Rating(1500, 200, 0.06);
+        List<Glicko2.Outcome> outcomes = List.of(
+                new Glicko2.Outcome(new Glicko2.Rating(1400, 30, 0.06), 1),
+                new Glicko2.Outcome(new Glicko2.Rating(1550, 100, 0.06), 0),
+                new Glicko2.Outcome(new Glicko2.Rating(1700, 300, 0.06), 0));
+
+        Glicko2.Rating rated = glicko.rate(player, outcomes);
+
+        assertThat(rated.rating()).isCloseTo(1464.05, within(0.01));
+        assertThat(rated.deviation()).isCloseTo(151.52, within(0.01));
+        assertThat(rated.volatility()).isCloseTo(0.059996, within(0.000001));
+    }
+
+    @Test
+    void idlePeriodsWidenTheDeviationLikeEmptyPeriods() {
+        Glicko2.Rating player = new Glicko2.Rating(1500, 200, 0.06);
+
+        Glicko2.Rating idleTwice = Glicko2.idle(player, 2);
+        Glicko2.Rating emptyTwice = glicko.rate(glicko.rate(player, List.of()), List.of());
+
+        assertThat(idleTwice.rating()).isEqualTo(1500);
+        assertThat(idleTwice.deviation()).isCloseTo(emptyTwice.deviation(), within(1e-9));
+        assertThat(Glicko2.idle(player, 0)).isEqualTo(player);
+    }
+
+    @Test
+    void idleDeviationIsCappedAtANewPlayers() {
+        Glicko2.Rating player = new Glicko2.Rating(1800, 60, 0.06);
+
+        assertThat(Glicko2.idle(player, 1_000_000).deviation()).isEqualTo(Glicko2.DEFAULT.deviation());
+    }
+}
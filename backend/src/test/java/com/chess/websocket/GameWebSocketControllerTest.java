@@ -0,0 +1,119 @@
+package com.chess.websocket;
+
+import com.chess.dto.GameDTO;
+import com.chess.dto.MoveDTO;
+import com.chess.live.GameActors;
+import com.chess.model.Game;
+import com.chess.security.StompPrincipal;
+import com.chess.service.GameService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GameWebSocketControllerTest {
+
+    private static final long GAME_ID = 7L;
+
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final GameService gameService = mock(GameService.class);
+    private final GameActors gameActors = new GameActors();
+    private final MoveFanout moveFanout = new MoveFanout(messagingTemplate, new ObjectMapper());
+    private final GameWebSocketController controller = new GameWebSocketController(messagingTemplate,
+            gameService, gameActors, mock(GameClocks.class), mock(GameEndHandler.class), moveFanout,
+            new SimpleMeterRegistry());
+
+    private final StompPrincipal white = new StompPrincipal(1L, "white");
+    private final StompPrincipal stranger = new StompPrincipal(3L, "stranger");
+    private final List<MoveDTO> moves = List.of(
+            move(1, "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1", 59_000L, 60_000L),
+            move(2, "rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2", 59_000L, 58_000L),
+            move(3, "rnbqkbnr/pppp1ppp/8/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2", 57_000L, 58_000L));
+
+    @BeforeEach
+    void setUp() {
+        // Spectators are a minute behind, so the last two moves are still held back
+        ReflectionTestUtils.setField(moveFanout, "delayMs", 60_000L);
+        moveFanout.publishMove(GAME_ID, moves.get(1));
+        moveFanout.publishMove(GAME_ID, moves.get(2));
+
+        Game game = Game.builder().id(GAME_ID).status(Game.GameStatus.IN_PROGRESS).build();
+        when(gameService.isPlayer(GAME_ID, white.userId())).thenReturn(true);
+        when(gameService.findCachedLiveGame(anyLong())).thenReturn(Optional.empty());
+        when(gameService.findByIdWithMovesAndPlayers(GAME_ID)).thenReturn(game);
+        when(gameService.toDTO(any())).thenAnswer(invocation -> GameDTO.builder()
+                .id(GAME_ID)
+                .status("IN_PROGRESS")
+                .currentTurn("black")
+                .currentFen(moves.get(2).getFenAfter())
+                .clockInitialMs(60_000L)
+                .whiteTimeMs(57_000L)
+                .blackTimeMs(58_000L)
+                .moveCount(moves.size())
+                .moves(moves)
+                .build());
+    }
+
+    @AfterEach
+    void shutdown() {
+        gameActors.shutdown();
+        moveFanout.stop();
+    }
+
+    @Test
+    void spectatorsJoinAtTheLastMoveReleasedToThem() {
+        controller.handleJoinGame(GAME_ID, Map.of("ply", 0), stranger);
+
+        GameDTO state = sentGameState(stranger);
+        assertThat(state.getMoves()).extracting(MoveDTO::getMoveNumber).containsExactly(1);
+        assertThat(state.getMoveCount()).isEqualTo(1);
+        assertThat(state.getCurrentFen()).isEqualTo(moves.get(0).getFenAfter());
+        assertThat(state.getCurrentTurn()).isEqualTo("black");
+        assertThat(state.getWhiteTimeMs()).isEqualTo(59_000L);
+        assertThat(state.getBlackTimeMs()).isEqualTo(60_000L);
+    }
+
+    @Test
+    void playersJoinWithEveryMove() {
+        controller.handleJoinGame(GAME_ID, null, white);
+
+        GameDTO state = sentGameState(white);
+        assertThat(state.getMoves()).extracting(MoveDTO::getMoveNumber).containsExactly(1, 2, 3);
+        assertThat(state.getCurrentFen()).isEqualTo(moves.get(2).getFenAfter());
+    }
+
+    private GameDTO sentGameState(StompPrincipal principal) {
+        ArgumentCaptor<Object> state = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, timeout(5000))
+                .convertAndSendToUser(eq(principal.username()), eq("/queue/game-state"), state.capture());
+        return (GameDTO) state.getValue();
+    }
+
+    private static MoveDTO move(int moveNumber, String fenAfter, long whiteTimeMs, long blackTimeMs) {
+        return MoveDTO.builder()
+                .gameId(GAME_ID)
+                .fenAfter(fenAfter)
+                .moveNumber(moveNumber)
+                .playerColor(moveNumber % 2 == 1 ? "white" : "black")
+                .whiteTimeMs(whiteTimeMs)
+                .blackTimeMs(blackTimeMs)
+                .build();
+    }
+}
@@ -11,13 +11,42 @@ export interface Game {
   status: GameStatus;
   currentTurn: 'white' | 'black';
   currentFen: string;
+  moveCount?: number;
+  // Time control and remaining time in milliseconds; absent for untimed games
+  clockInitialMs?: number;
+  clockIncrementMs?: number;
+  whiteTimeMs?: number;
+  blackTimeMs?: number;
   moves: Move[];
   createdAt: string;
   updatedAt: string;
 }
 
+export interface GamePage {
+  games: Game[];
+  nextCursor: string | null;
+}
+
 export type GameStatus = 'IN_PROGRESS' | 'WHITE_WON' | 'BLACK_WON' | 'DRAW' | 'ABANDONED';
 
+/** Moves played after fromPly, sent instead of the full game when resuming. */
+export interface GameCatchUp {
+  gameId: number;
+  fromPly: number;
+  ply: number;
+  currentTurn: 'white' | 'black';
+  whiteTimeMs?: number;
+  blackTimeMs?: number;
+  moves: Move[];
+}
+
+export interface MoveRejection {
+  type: 'MOVE_REJECTED';
+  gameId: number;
+  reason: 'NOT_LIVE' | 'SPECTATOR' | 'OUT_OF_TURN' | 'OUT_OF_TIME' | 'ILLEGAL';
+  message: string;
+}
+
 export interface Move {
   gameId: number;
   from: string;
@@ -28,4 +57,6 @@ export interface Move {
   sanNotation?: string;
   moveNumber: number;
   playerColor?: 'white' | 'black';
+  whiteTimeMs?: number;
+  blackTimeMs?: number;
 }
@@ -5,6 +5,8 @@ export interface Invitation {
   receiverId: number;
   receiverUsername: string;
   status: InvitationStatus;
+  clockInitialMs?: number;
+  clockIncrementMs?: number;
   createdAt: string;
 }
 
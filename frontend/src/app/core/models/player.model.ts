@@ -3,3 +3,13 @@ export interface Player {
   username: string;
   online: boolean;
 }
+
+export interface PresenceFrame {
+  type: 'SNAPSHOT' | 'DELTA';
+  fromSeq: number;
+  seq: number;
+  topic?: string;
+  players?: Player[];
+  joined?: Player[];
+  left?: string[];
+}
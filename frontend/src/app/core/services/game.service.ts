@@ -1,8 +1,8 @@
 import { Injectable, signal } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Router } from '@angular/router';
 import { Observable } from 'rxjs';
-import { Game, Move } from '../models/game.model';
+import { Game, GameCatchUp, GamePage, Move, MoveRejection } from '../models/game.model';
 import { WebSocketService } from './websocket.service';
 import { AuthService } from './auth.service';
 
@@ -14,6 +14,9 @@ export class GameService {
 
   readonly currentGame = signal<Game | null>(null);
   readonly gameCreated = signal<Game | null>(null);
+  readonly moveRejection = signal<MoveRejection | null>(null);
+  readonly gameEndReason = signal<string | null>(null);
+  readonly spectatorCount = signal(0);
 
   constructor(
     private http: HttpClient,
@@ -30,8 +33,12 @@ export class GameService {
     return this.http.get<Game[]>(`${this.API_URL}/active`);
   }
 
-  getGameHistory(): Observable<Game[]> {
-    return this.http.get<Game[]>(`${this.API_URL}/history`);
+  getGameHistory(cursor?: string, limit = 20): Observable<GamePage> {
+    let params = new HttpParams().set('limit', limit);
+    if (cursor) {
+      params = params.set('cursor', cursor);
+    }
+    return this.http.get<GamePage>(`${this.API_URL}/history`, { params });
   }
 
   resignGame(id: number): Observable<Game> {
@@ -52,52 +59,103 @@ export class GameService {
     });
   }
 
-  subscribeToGame(gameId: number): void {
-    // Subscribe to moves
-    this.wsService.subscribe(`/topic/game/${gameId}/moves`, (move: Move) => {
-      const game = this.currentGame();
-      if (game) {
-        this.currentGame.update((g) => {
-          if (!g) return g;
-          return {
-            ...g,
-            currentFen: move.fenAfter,
-            currentTurn: g.currentTurn === 'white' ? 'black' : 'white',
-            moves: [...g.moves, move],
-          };
-        });
-      }
-    });
+  subscribeToGame(gameId: number, spectating = false): void {
+    // Players get every move at once; spectators get delayed, batched frames
+    if (spectating) {
+      this.wsService.subscribe(`/topic/game/${gameId}/spectate`, (moves: Move[]) =>
+        moves.forEach((move) => this.applyMove(move))
+      );
+    } else {
+      this.wsService.subscribe(`/topic/game/${gameId}/moves`, (move: Move) => this.applyMove(move));
+    }
+
+    this.wsService.subscribe(
+      `/topic/game/${gameId}/spectators`,
+      (data: { gameId: number; count: number }) => this.spectatorCount.set(data.count)
+    );
 
     // Subscribe to game status changes
     this.wsService.subscribe(
       `/topic/game/${gameId}/status`,
       (data: { game: Game; reason: string }) => {
         console.log('Game status update received:', data);
+        this.gameEndReason.set(data.reason);
         this.currentGame.set(data.game);
       }
     );
 
-    // Join the game room
-    const user = this.authService.currentUser();
-    if (user) {
-      this.wsService.send(`/app/game/${gameId}/join`, { username: user.username });
-    }
-
     // Subscribe to game state (for reconnection)
     this.wsService.subscribeToUser('/queue/game-state', (game: Game) => {
       this.currentGame.set(game);
     });
+
+    // Or just the moves we missed, when the server still holds them
+    this.wsService.subscribeToUser('/queue/game-catchup', (catchUp: GameCatchUp) => {
+      this.currentGame.update((g) => {
+        if (!g || g.id !== catchUp.gameId) return g;
+        const missed = catchUp.moves.filter((m) => m.moveNumber > g.moves.length);
+        const moves = [...g.moves, ...missed];
+        return {
+          ...g,
+          currentFen: moves.length ? moves[moves.length - 1].fenAfter : g.currentFen,
+          currentTurn: catchUp.currentTurn,
+          whiteTimeMs: catchUp.whiteTimeMs ?? g.whiteTimeMs,
+          blackTimeMs: catchUp.blackTimeMs ?? g.blackTimeMs,
+          moves,
+        };
+      });
+    });
+
+    // Join the game room
+    this.joinGame(gameId);
+
+    // A rejected move was already drawn locally: resync from the server's state
+    this.wsService.subscribeToUser('/queue/errors', (error: MoveRejection) => {
+      if (error.type !== 'MOVE_REJECTED' || error.gameId !== gameId) return;
+      console.warn('Move rejected:', error.reason, error.message);
+      this.moveRejection.set(error);
+      this.joinGame(gameId);
+    });
+  }
+
+  private applyMove(move: Move): void {
+    this.currentGame.update((g) => {
+      // Already applied by a catch-up
+      if (!g || move.moveNumber <= g.moves.length) return g;
+      return {
+        ...g,
+        currentFen: move.fenAfter,
+        currentTurn: g.currentTurn === 'white' ? 'black' : 'white',
+        whiteTimeMs: move.whiteTimeMs ?? g.whiteTimeMs,
+        blackTimeMs: move.blackTimeMs ?? g.blackTimeMs,
+        moves: [...g.moves, move],
+      };
+    });
+  }
+
+  /** Asks for the game's state, sending the ply we already hold so only newer moves come back. */
+  private joinGame(gameId: number): void {
+    const game = this.currentGame();
+    this.wsService.send(`/app/game/${gameId}/join`, game?.id === gameId ? { ply: game.moves.length } : {});
   }
 
   unsubscribeFromGame(gameId: number): void {
     this.wsService.unsubscribe(`/topic/game/${gameId}/moves`);
+    this.wsService.unsubscribe(`/topic/game/${gameId}/spectate`);
+    this.wsService.unsubscribe(`/topic/game/${gameId}/spectators`);
+    this.spectatorCount.set(0);
     this.wsService.unsubscribe(`/topic/game/${gameId}/status`);
     this.wsService.unsubscribe('/user/queue/game-state');
+    this.wsService.unsubscribe('/user/queue/game-catchup');
+    this.wsService.unsubscribe('/user/queue/errors');
   }
 
   sendMove(gameId: number, move: Move): void {
-    this.wsService.send(`/app/game/${gameId}/move`, move);
+    if (this.wsService.supportsBinaryFrames()) {
+      this.wsService.sendBinary(`/app/game/${gameId}/move`, encodeMove(move), MOVE_CONTENT_TYPE);
+    } else {
+      this.wsService.send(`/app/game/${gameId}/move`, move);
+    }
   }
 
   endGame(gameId: number, result: 'white' | 'black' | 'draw', reason: string): void {
@@ -126,3 +184,18 @@ export class GameService {
     return color === game.currentTurn;
   }
 }
+
+const MOVE_CONTENT_TYPE = 'application/vnd.chess.move';
+const PROMOTION_PIECES = 'nbrq';
+
+/** Move frame: move number then from | to << 6 | promotion flags << 12, both 16-bit big-endian. */
+function encodeMove(move: Move): Uint8Array {
+  const square = (name: string) => (name.charCodeAt(1) - 49) * 8 + (name.charCodeAt(0) - 97);
+  const promotion = move.promotion ? PROMOTION_PIECES.indexOf(move.promotion.toLowerCase()) : -1;
+  const flags = promotion >= 0 ? 8 | promotion : 0;
+  const packed = square(move.from) | (square(move.to) << 6) | (flags << 12);
+  const frame = new Uint8Array(4);
+  new DataView(frame.buffer).setUint16(0, move.moveNumber);
+  new DataView(frame.buffer).setUint16(2, packed);
+  return frame;
+}
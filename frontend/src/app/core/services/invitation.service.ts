@@ -10,17 +10,14 @@ export class InvitationService {
   readonly pendingInvitations = signal<Invitation[]>([]);
   readonly sentInvitation = signal<Invitation | null>(null);
   readonly invitationRefused = signal<Invitation | null>(null);
+  readonly invitationExpired = signal<Invitation | null>(null);
 
   constructor(private wsService: WebSocketService, private authService: AuthService) {}
 
-  sendInvitation(receiverUsername: string): void {
-    const user = this.authService.currentUser();
-    if (!user) return;
-
-    this.wsService.send('/app/invite', {
-      senderUsername: user.username,
-      receiverUsername,
-    });
+  /** Time control in seconds; omitted values use the server default, 0 minutes is untimed. */
+  sendInvitation(receiverUsername: string, initialSeconds?: number, incrementSeconds?: number): void {
+    // The sender is the authenticated STOMP session
+    this.wsService.send('/app/invite', { receiverUsername, initialSeconds, incrementSeconds });
   }
 
   respondToInvitation(invitationId: number, accepted: boolean): void {
@@ -64,6 +61,20 @@ export class InvitationService {
         this.sentInvitation.set(null);
       }
     );
+
+    // Expired invitations, whichever side we are on
+    this.wsService.subscribe(
+      `/topic/user/${username}/invitation-expired`,
+      (invitation: Invitation) => {
+        this.pendingInvitations.update((invitations) =>
+          invitations.filter((inv) => inv.id !== invitation.id)
+        );
+        if (this.sentInvitation()?.id === invitation.id) {
+          this.invitationExpired.set(invitation);
+          this.sentInvitation.set(null);
+        }
+      }
+    );
   }
 
   unsubscribeFromInvitations(): void {
@@ -73,12 +84,17 @@ export class InvitationService {
     this.wsService.unsubscribe(`/topic/user/${username}/invitations`);
     this.wsService.unsubscribe(`/topic/user/${username}/invitation-sent`);
     this.wsService.unsubscribe(`/topic/user/${username}/invitation-refused`);
+    this.wsService.unsubscribe(`/topic/user/${username}/invitation-expired`);
   }
 
   clearInvitationRefused(): void {
     this.invitationRefused.set(null);
   }
 
+  clearInvitationExpired(): void {
+    this.invitationExpired.set(null);
+  }
+
   clearSentInvitation(): void {
     this.sentInvitation.set(null);
   }
@@ -0,0 +1,43 @@
+import { Injectable, signal } from '@angular/core';
+import { WebSocketService } from './websocket.service';
+
+export interface MatchmakingStatus {
+  status: 'QUEUED' | 'LEFT' | 'FAILED' | 'REJECTED';
+  initialMs?: number;
+  incrementMs?: number;
+}
+
+@Injectable({
+  providedIn: 'root',
+})
+export class MatchmakingService {
+  readonly searching = signal(false);
+
+  constructor(private wsService: WebSocketService) {}
+
+  subscribeToMatchmaking(): void {
+    this.wsService.subscribeToUser('/queue/matchmaking', (update: MatchmakingStatus) => {
+      this.searching.set(update.status === 'QUEUED');
+    });
+  }
+
+  unsubscribeFromMatchmaking(): void {
+    this.wsService.unsubscribe('/user/queue/matchmaking');
+  }
+
+  /** Time control in seconds; the matched game arrives on the usual game-created topic. */
+  findGame(initialSeconds: number, incrementSeconds: number): void {
+    this.searching.set(true);
+    this.wsService.send('/app/matchmaking/join', { initialSeconds, incrementSeconds });
+  }
+
+  cancel(): void {
+    this.searching.set(false);
+    this.wsService.send('/app/matchmaking/leave', {});
+  }
+
+  /** Called once a game has been created for us. */
+  matched(): void {
+    this.searching.set(false);
+  }
+}
@@ -1,7 +1,7 @@
 import { Injectable, signal } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { Observable } from 'rxjs';
-import { Player } from '../models/player.model';
+import { Player, PresenceFrame } from '../models/player.model';
 import { WebSocketService } from './websocket.service';
 
 @Injectable({
@@ -12,6 +12,12 @@ export class PlayerService {
 
   readonly onlinePlayers = signal<Player[]>([]);
 
+  // Presence state by username, and the last seq applied to it (-1 until a snapshot arrives)
+  private presence = new Map<string, Player>();
+  private presenceSeq = -1;
+  // Destination carrying deltas from the node we are connected to, named in the snapshot
+  private presenceTopic: string | null = null;
+
   constructor(private http: HttpClient, private wsService: WebSocketService) {}
 
   getOnlinePlayers(): Observable<Player[]> {
@@ -19,12 +25,54 @@ export class PlayerService {
   }
 
   subscribeToPlayerUpdates(): void {
-    this.wsService.subscribe('/topic/players', (players: Player[]) => {
-      this.onlinePlayers.set(players);
-    });
+    this.presenceSeq = -1;
+    this.requestSnapshot();
   }
 
   unsubscribeFromPlayerUpdates(): void {
-    this.wsService.unsubscribe('/topic/players');
+    if (this.presenceTopic) {
+      this.wsService.unsubscribe(this.presenceTopic);
+      this.presenceTopic = null;
+    }
+    this.wsService.unsubscribe('/app/presence/snapshot');
+  }
+
+  private requestSnapshot(): void {
+    this.wsService.subscribe('/app/presence/snapshot', (frame: PresenceFrame) => {
+      const topic = frame.topic ?? '/topic/players';
+      if (topic !== this.presenceTopic) {
+        // Subscribe to the deltas first, then take a fresh snapshot so none fall in between
+        if (this.presenceTopic) this.wsService.unsubscribe(this.presenceTopic);
+        this.presenceTopic = topic;
+        this.wsService.subscribe(topic, (delta: PresenceFrame) => this.applyDelta(delta));
+        this.requestSnapshot();
+        return;
+      }
+      this.presence = new Map((frame.players ?? []).map((p) => [p.username, p]));
+      this.presenceSeq = frame.seq;
+      this.publishPresence();
+    });
+  }
+
+  private applyDelta(frame: PresenceFrame): void {
+    // Deltas are ignored until the snapshot lands, and frames already covered are skipped
+    if (this.presenceSeq < 0 || frame.seq <= this.presenceSeq) return;
+
+    if (frame.fromSeq > this.presenceSeq + 1) {
+      console.warn(`Presence gap (have ${this.presenceSeq}, got ${frame.fromSeq}), resyncing`);
+      this.presenceSeq = -1;
+      this.requestSnapshot();
+      return;
+    }
+
+    // Each username appears once per frame with its latest state, so overlap with the snapshot is harmless
+    frame.left?.forEach((username) => this.presence.delete(username));
+    frame.joined?.forEach((p) => this.presence.set(p.username, p));
+    this.presenceSeq = frame.seq;
+    this.publishPresence();
+  }
+
+  private publishPresence(): void {
+    this.onlinePlayers.set([...this.presence.values()]);
   }
 }
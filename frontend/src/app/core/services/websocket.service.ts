@@ -10,6 +10,9 @@ import { Subject } from 'rxjs';
 export class WebSocketService implements OnDestroy {
   private client: Client | null = null;
   private subscriptions: Map<string, StompSubscription> = new Map();
+  // Raw WebSocket until it fails to connect once, then SockJS for the rest of the session
+  private useSockJs = false;
+  private everConnected = false;
 
   readonly connected = signal(false);
   readonly connectionError = signal<string | null>(null);
@@ -27,7 +30,10 @@ export class WebSocketService implements OnDestroy {
     const token = this.authService.getToken();
 
     this.client = new Client({
-      webSocketFactory: () => new SockJS('http://localhost:8080/ws'),
+      webSocketFactory: () =>
+        this.useSockJs
+          ? new SockJS('http://localhost:8080/ws')
+          : new WebSocket('ws://localhost:8080/ws-native'),
       connectHeaders: token ? { Authorization: `Bearer ${token}` } : {},
       debug: (str) => {
         console.log('[WebSocket]', str);
@@ -39,6 +45,7 @@ export class WebSocketService implements OnDestroy {
 
     this.client.onConnect = () => {
       console.log('WebSocket connected');
+      this.everConnected = true;
       this.connected.set(true);
       this.connectionError.set(null);
     };
@@ -55,6 +62,10 @@ export class WebSocketService implements OnDestroy {
 
     this.client.onWebSocketClose = () => {
       console.log('WebSocket closed');
+      if (!this.everConnected && !this.useSockJs) {
+        console.warn('Native WebSocket unavailable, falling back to SockJS');
+        this.useSockJs = true;
+      }
       this.connected.set(false);
     };
 
@@ -62,9 +73,8 @@ export class WebSocketService implements OnDestroy {
   }
 
   disconnect(): void {
-    const user = this.authService.currentUser();
-    if (user && this.client?.active) {
-      this.send('/app/presence/disconnect', { username: user.username });
+    if (this.client?.active) {
+      this.send('/app/presence/disconnect', {});
     }
 
     this.subscriptions.forEach((sub) => sub.unsubscribe());
@@ -129,10 +139,27 @@ export class WebSocketService implements OnDestroy {
     });
   }
 
+  /** Binary frames only survive the raw WebSocket endpoint; SockJS carries text. */
+  supportsBinaryFrames(): boolean {
+    return !!this.client?.active && !this.useSockJs;
+  }
+
+  sendBinary(destination: string, body: Uint8Array, contentType: string): void {
+    if (!this.client?.active) {
+      console.warn('Cannot send: WebSocket not connected');
+      return;
+    }
+
+    this.client.publish({
+      destination,
+      binaryBody: body,
+      headers: { 'content-type': contentType },
+    });
+  }
+
   announcePresence(): void {
-    const user = this.authService.currentUser();
-    if (user && this.client?.active) {
-      this.send('/app/presence/connect', { username: user.username });
+    if (this.client?.active) {
+      this.send('/app/presence/connect', {});
     }
   }
 
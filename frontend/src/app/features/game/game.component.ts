@@ -43,6 +43,9 @@ interface ReplayState {
           <span class="status-dot"></span>
           {{ wsService.connected() ? 'Connected' : 'Reconnecting...' }}
         </div>
+        @if (gameService.spectatorCount() > 0) {
+        <div class="spectator-count">👁 {{ gameService.spectatorCount() }}</div>
+        }
       </header>
 
       @if (game) {
@@ -52,6 +55,9 @@ interface ReplayState {
           <div class="player-details">
             <span class="player-name">{{ getOpponentName() }}</span>
             <span class="player-color">({{ playerColor === 'white' ? 'Black' : 'White' }})</span>
+            @if (game.clockInitialMs) {
+            <span class="clock">{{ formatClock(playerColor === 'white' ? 'black' : 'white') }}</span>
+            }
           </div>
           <div class="captured-pieces">
             @for (piece of capturedPieces[playerColor === 'white' ? 'black' : 'white']; track
@@ -76,8 +82,11 @@ interface ReplayState {
         <!-- Player Info -->
         <div class="player-info self" [class.active]="isMyTurn()">
           <div class="player-details">
-            <span class="player-name">{{ authService.currentUser()?.username }}</span>
+            <span class="player-name">{{ spectating ? game.whitePlayer.username : authService.currentUser()?.username }}</span>
             <span class="player-color">({{ playerColor | titlecase }})</span>
+            @if (game.clockInitialMs) {
+            <span class="clock">{{ formatClock(playerColor) }}</span>
+            }
             @if (isMyTurn() && game.status === 'IN_PROGRESS') {
             <span class="turn-indicator pulse">Your turn!</span>
             }
@@ -97,10 +106,14 @@ interface ReplayState {
           <div class="game-result">
             <h2>Game Over</h2>
             @switch (game.status) { @case ('WHITE_WON') {
+            @if (!spectating) {
             <p class="result">{{ playerColor === 'white' ? '🎉 You Win!' : 'You Lost' }}</p>
+            }
             <p class="sub">White wins by {{ getGameEndReason() }}</p>
             } @case ('BLACK_WON') {
+            @if (!spectating) {
             <p class="result">{{ playerColor === 'black' ? '🎉 You Win!' : 'You Lost' }}</p>
+            }
             <p class="sub">Black wins by {{ getGameEndReason() }}</p>
             } @case ('DRAW') {
             <p class="result">Draw</p>
@@ -114,7 +127,9 @@ interface ReplayState {
 
         <!-- Game Controls -->
         <div class="game-controls">
-          @if (game.status === 'IN_PROGRESS') {
+          @if (spectating) {
+          <button class="new-game-btn" (click)="goBack()">← Lobby</button>
+          } @else if (game.status === 'IN_PROGRESS') {
           <button class="resign-btn" (click)="resign()">🏳️ Resign</button>
           } @else {
           <button class="new-game-btn" (click)="goBack()">🎮 New Game</button>
@@ -255,6 +270,11 @@ interface ReplayState {
         }
       }
 
+      .spectator-count {
+        font-size: 0.85rem;
+        color: #888;
+      }
+
       .connection-status {
         display: flex;
         align-items: center;
@@ -316,6 +336,12 @@ interface ReplayState {
           font-size: 0.9rem;
         }
 
+        .clock {
+          font-family: monospace;
+          font-size: 1.1rem;
+          font-weight: bold;
+        }
+
         .turn-indicator {
           background: #4caf50;
           color: #fff;
@@ -695,6 +721,8 @@ export class GameComponent implements OnInit, OnDestroy {
 
   game: Game | null = null;
   playerColor: 'white' | 'black' = 'white';
+  // Not a player: the board is read-only and shown from white's side
+  spectating = false;
   boardSize = 500;
   gameEndReason = '';
 
@@ -712,6 +740,11 @@ export class GameComponent implements OnInit, OnDestroy {
   // Expose Math for template
   Math = Math;
 
+  // Clock display: server times are as of clockSyncedAt, and the running side counts down from there
+  readonly now = signal(Date.now());
+  private clockSyncedAt = Date.now();
+  private clockTimer: ReturnType<typeof setInterval> | null = null;
+
   private chess = new Chess();
   private cgApi: Api | null = null;
   private gameId: number = 0;
@@ -734,7 +767,7 @@ export class GameComponent implements OnInit, OnDestroy {
       turnColor: (this.game?.currentTurn || 'white') as Color,
       movable: {
         free: false,
-        color: this.playerColor,
+        color: this.spectating ? undefined : this.playerColor,
         dests: this.getLegalMoves(),
         showDests: true,
         events: {
@@ -768,6 +801,7 @@ export class GameComponent implements OnInit, OnDestroy {
       const currentGame = this.gameService.currentGame();
       if (currentGame && currentGame.id === this.gameId) {
         this.game = currentGame;
+        this.clockSyncedAt = Date.now();
         this.updateBoard();
       }
     });
@@ -783,14 +817,18 @@ export class GameComponent implements OnInit, OnDestroy {
 
     // Load game data
     this.loadGame();
+
+    this.clockTimer = setInterval(() => this.now.set(Date.now()), 250);
   }
 
   private loadGame(): void {
     this.gameService.getGame(this.gameId).subscribe({
       next: (game) => {
         this.game = game;
+        this.clockSyncedAt = Date.now();
         this.gameService.setCurrentGame(game);
         this.playerColor = this.gameService.getPlayerColor(game) || 'white';
+        this.spectating = this.gameService.getPlayerColor(game) === null;
 
         // Load chess state from FEN
         this.chess.load(game.currentFen);
@@ -810,13 +848,13 @@ export class GameComponent implements OnInit, OnDestroy {
 
   private subscribeWhenConnected(): void {
     if (this.wsService.connected()) {
-      this.gameService.subscribeToGame(this.gameId);
+      this.gameService.subscribeToGame(this.gameId, this.spectating);
     } else {
       // Wait for connection using effect
       const checkConnection = setInterval(() => {
         if (this.wsService.connected()) {
           clearInterval(checkConnection);
-          this.gameService.subscribeToGame(this.gameId);
+          this.gameService.subscribeToGame(this.gameId, this.spectating);
         }
       }, 100);
 
@@ -869,12 +907,18 @@ export class GameComponent implements OnInit, OnDestroy {
     this.gameService.sendMove(this.gameId, move);
 
     // Update local game state
+    // Stop our clock where it stands; the server's echo of the move brings the exact times
+    const elapsed = Date.now() - this.clockSyncedAt;
+    const stop = (ms?: number) => (ms != null ? Math.max(0, ms - elapsed) : ms);
     this.game = {
       ...this.game,
       currentFen: this.chess.fen(),
       currentTurn: this.game.currentTurn === 'white' ? 'black' : 'white',
       moves: [...this.game.moves, move],
+      whiteTimeMs: this.playerColor === 'white' ? stop(this.game.whiteTimeMs) : this.game.whiteTimeMs,
+      blackTimeMs: this.playerColor === 'black' ? stop(this.game.blackTimeMs) : this.game.blackTimeMs,
     };
+    this.clockSyncedAt = Date.now();
 
     // Check for game end
     this.checkGameEnd();
@@ -905,7 +949,7 @@ export class GameComponent implements OnInit, OnDestroy {
       check: this.chess.inCheck(),
       movable: {
         free: false,
-        color: this.playerColor,
+        color: this.spectating ? undefined : this.playerColor,
         dests: this.isMyTurn() && this.game.status === 'IN_PROGRESS' ? dests : new Map(),
         showDests: true,
       },
@@ -949,13 +993,9 @@ export class GameComponent implements OnInit, OnDestroy {
     if (this.chess.isCheckmate()) {
       const winner = this.chess.turn() === 'w' ? 'black' : 'white';
       this.gameService.endGame(this.gameId, winner, 'checkmate');
-    } else if (this.chess.isDraw()) {
-      let reason = 'draw';
-      if (this.chess.isStalemate()) reason = 'stalemate';
-      else if (this.chess.isThreefoldRepetition()) reason = 'repetition';
-      else if (this.chess.isInsufficientMaterial()) reason = 'insufficient material';
-
-      this.gameService.endGame(this.gameId, 'draw', reason);
+    } else if (this.chess.isStalemate()) {
+      // Repetition, the fifty-move rule and insufficient material are ruled on by the server
+      this.gameService.endGame(this.gameId, 'draw', 'stalemate');
     }
   }
 
@@ -985,7 +1025,16 @@ export class GameComponent implements OnInit, OnDestroy {
   }
 
   getGameEndReason(): string {
-    return this.gameEndReason || 'unknown';
+    return this.gameEndReason || this.gameService.gameEndReason() || 'unknown';
+  }
+
+  formatClock(color: 'white' | 'black'): string {
+    const base = color === 'white' ? this.game?.whiteTimeMs : this.game?.blackTimeMs;
+    if (!this.game || base == null) return '';
+    const running = this.game.status === 'IN_PROGRESS' && this.game.currentTurn === color;
+    const ms = Math.max(0, base - (running ? this.now() - this.clockSyncedAt : 0));
+    const seconds = Math.ceil(ms / 1000);
+    return `${Math.floor(seconds / 60)}:${String(seconds % 60).padStart(2, '0')}`;
   }
 
   private updateCapturedPieces(): void {
@@ -1242,6 +1291,9 @@ export class GameComponent implements OnInit, OnDestroy {
 
   ngOnDestroy(): void {
     this.stopAutoPlay();
+    if (this.clockTimer) {
+      clearInterval(this.clockTimer);
+    }
     if (this.gameId) {
       this.gameService.unsubscribeFromGame(this.gameId);
     }
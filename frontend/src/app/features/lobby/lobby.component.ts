@@ -6,6 +6,7 @@ import { WebSocketService } from '../../core/services/websocket.service';
 import { PlayerService } from '../../core/services/player.service';
 import { InvitationService } from '../../core/services/invitation.service';
 import { GameService } from '../../core/services/game.service';
+import { MatchmakingService } from '../../core/services/matchmaking.service';
 import { Player } from '../../core/models/player.model';
 import { Game } from '../../core/models/game.model';
 
@@ -49,6 +50,31 @@ import { Game } from '../../core/models/game.model';
         </section>
         }
 
+        <!-- Quick Match -->
+        <section class="players-section">
+          <h2>Quick Match</h2>
+          @if (matchmakingService.searching()) {
+          <div class="player-card">
+            <span>Looking for an opponent...</span>
+            <button class="invite-btn" (click)="matchmakingService.cancel()">Cancel</button>
+          </div>
+          } @else {
+          <div class="players-list">
+            @for (timeControl of quickMatches; track timeControl.label) {
+            <div class="player-card">
+              <span class="player-name">{{ timeControl.label }}</span>
+              <button
+                class="invite-btn"
+                (click)="findGame(timeControl.initialSeconds, timeControl.incrementSeconds)"
+              >
+                Play
+              </button>
+            </div>
+            }
+          </div>
+          }
+        </section>
+
         <!-- Players List -->
         <section class="players-section">
           <h2>Online Players</h2>
@@ -107,6 +133,14 @@ import { Game } from '../../core/models/game.model';
           <button class="close-btn" (click)="invitationService.clearInvitationRefused()">×</button>
         </div>
         }
+
+        <!-- Invitation Expired Notification -->
+        @if (invitationService.invitationExpired()) {
+        <div class="notification refused">
+          Your invitation to {{ invitationService.invitationExpired()?.receiverUsername }} expired.
+          <button class="close-btn" (click)="invitationService.clearInvitationExpired()">×</button>
+        </div>
+        }
       </div>
     </div>
   `,
@@ -395,10 +429,17 @@ export class LobbyComponent implements OnInit, OnDestroy {
   playerService = inject(PlayerService);
   invitationService = inject(InvitationService);
   gameService = inject(GameService);
+  matchmakingService = inject(MatchmakingService);
   private router = inject(Router);
 
   activeGames: Game[] = [];
 
+  readonly quickMatches = [
+    { label: '3 + 2', initialSeconds: 180, incrementSeconds: 2 },
+    { label: '10 + 0', initialSeconds: 600, incrementSeconds: 0 },
+    { label: '15 + 10', initialSeconds: 900, incrementSeconds: 10 },
+  ];
+
   constructor() {
     // Effect to handle game creation
     effect(() => {
@@ -406,6 +447,7 @@ export class LobbyComponent implements OnInit, OnDestroy {
       if (game) {
         // Clear the signal to prevent re-navigation when returning to lobby
         this.gameService.clearGameCreated();
+        this.matchmakingService.matched();
         this.router.navigate(['/game', game.id]);
       }
     });
@@ -429,6 +471,7 @@ export class LobbyComponent implements OnInit, OnDestroy {
     this.playerService.subscribeToPlayerUpdates();
     this.invitationService.subscribeToInvitations();
     this.gameService.subscribeToGameCreation();
+    this.matchmakingService.subscribeToMatchmaking();
 
     // Announce presence AFTER subscriptions are set up
     this.wsService.announcePresence();
@@ -455,6 +498,10 @@ export class LobbyComponent implements OnInit, OnDestroy {
     this.invitationService.respondToInvitation(invitationId, false);
   }
 
+  findGame(initialSeconds: number, incrementSeconds: number): void {
+    this.matchmakingService.findGame(initialSeconds, incrementSeconds);
+  }
+
   resumeGame(game: Game): void {
     this.gameService.setCurrentGame(game);
     this.router.navigate(['/game', game.id]);
@@ -468,5 +515,6 @@ export class LobbyComponent implements OnInit, OnDestroy {
   ngOnDestroy(): void {
     this.playerService.unsubscribeFromPlayerUpdates();
     this.invitationService.unsubscribeFromInvitations();
+    this.matchmakingService.unsubscribeFromMatchmaking();
   }
 }